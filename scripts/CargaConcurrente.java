@@ -0,0 +1,112 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generador de carga manual (un programa de un solo archivo, fuera del build de Maven) para comparar el modo de
+ * hilos de plataforma con el de hilos virtuales. Se levanta la aplicación una vez con
+ * spring.threads.virtual.enabled=false y otra con true, y en cada caso se ejecuta desde la raíz del proyecto:
+ * <pre>
+ * java scripts/CargaConcurrente.java http://localhost:8080/api/carreras/listar 1000 30 plataforma
+ * java scripts/CargaConcurrente.java http://localhost:8080/api/carreras/listar 1000 30 virtual
+ * </pre>
+ * Argumentos: URL, clientes concurrentes (1000), segundos de medición (30) y una etiqueta para el resultado.
+ * Cada cliente repite la petición sin pausa; se informa el rendimiento, los percentiles de latencia y, al
+ * final, el resumen de /api/diagnostico/pinning del servidor.
+ */
+public class CargaConcurrente {
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/carreras/listar");
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String etiqueta = args.length > 3 ? args[3] : "sin-etiqueta";
+
+        LongAdder errores = new LongAdder();
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        List<Future<long[]>> resultados = new ArrayList<>(clientes);
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .executor(ejecutor)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            HttpRequest peticion = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+            long inicio = System.nanoTime();
+            for (int i = 0; i < clientes; i++) {
+                resultados.add(ejecutor.submit(() -> cliente(http, peticion, fin, errores)));
+            }
+            long[] latencias = unir(resultados);
+            double duracion = (System.nanoTime() - inicio) / 1e9;
+
+            Arrays.sort(latencias);
+            System.out.printf("[%s] %d clientes, %.1f s: %d peticiones, %d errores, %.1f peticiones/s%n",
+                    etiqueta, clientes, duracion, latencias.length, errores.sum(), latencias.length / duracion);
+            System.out.printf("[%s] latencia ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n", etiqueta,
+                    percentil(latencias, 0.50), percentil(latencias, 0.95), percentil(latencias, 0.99),
+                    percentil(latencias, 1.0));
+
+            URI pinning = uri.resolve("/api/diagnostico/pinning");
+            HttpResponse<String> diagnostico = http.send(HttpRequest.newBuilder(pinning).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            System.out.printf("[%s] pinning: %s%n", etiqueta, diagnostico.body());
+        }
+    }
+
+    private static long[] cliente(HttpClient http, HttpRequest peticion, long fin, LongAdder errores) {
+        long[] latencias = new long[256];
+        int total = 0;
+        while (System.nanoTime() - fin < 0) {
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<Void> respuesta = http.send(peticion, HttpResponse.BodyHandlers.discarding());
+                if (respuesta.statusCode() >= 400) {
+                    errores.increment();
+                    continue;
+                }
+            } catch (Exception e) {
+                errores.increment();
+                continue;
+            }
+            if (total == latencias.length) {
+                latencias = Arrays.copyOf(latencias, total * 2);
+            }
+            latencias[total++] = System.nanoTime() - inicio;
+        }
+        return Arrays.copyOf(latencias, total);
+    }
+
+    private static long[] unir(List<Future<long[]>> resultados) throws Exception {
+        List<long[]> partes = new ArrayList<>(resultados.size());
+        int total = 0;
+        for (Future<long[]> resultado : resultados) {
+            long[] parte = resultado.get();
+            partes.add(parte);
+            total += parte.length;
+        }
+        long[] todas = new long[total];
+        int posicion = 0;
+        for (long[] parte : partes) {
+            System.arraycopy(parte, 0, todas, posicion, parte.length);
+            posicion += parte.length;
+        }
+        return todas;
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+    }
+}
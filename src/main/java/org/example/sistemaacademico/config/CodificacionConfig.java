@@ -0,0 +1,114 @@
+package org.example.sistemaacademico.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codificaciones de las respuestas de la API.
+ * <p>
+ * Además de JSON, cualquier endpoint responde en CBOR (RFC 8949) si el cliente envía Accept: application/cbor;
+ * el ObjectMapper de CBOR sale del mismo Jackson2ObjectMapperBuilder que el de JSON, así que fechas, módulos y
+ * opciones spring.jackson.* son iguales en ambos. La compresión gzip la negocia Tomcat con Accept-Encoding según
+ * server.compression.* en application.properties. {@link #medir(Object)} compara los bytes y el tiempo de
+ * serialización de cada combinación para una respuesta dada (/api/diagnostico/codificaciones).
+ */
+@Configuration
+public class CodificacionConfig {
+
+    private static final int REPETICIONES = 10;
+    private static final HeaderContentNegotiationStrategy NEGOCIACION = new HeaderContentNegotiationStrategy();
+
+    public record Medicion(long bytes, double microsegundos) {
+    }
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+
+    public CodificacionConfig(ObjectMapper json, Jackson2ObjectMapperBuilder builder) {
+        this.json = json;
+        this.cbor = builder.factory(new CBORFactory()).build();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cbor);
+    }
+
+    /**
+     * true si el Accept de la solicitud elige CBOR. Igual que la negociación de Spring MVC: gana el primer tipo
+     * aceptado (por calidad y especificidad); los comodines resuelven a JSON porque su convertidor va antes que
+     * el de CBOR.
+     */
+    public static boolean prefiereCbor(HttpServletRequest request) {
+        try {
+            for (MediaType tipo : NEGOCIACION.resolveMediaTypes(new ServletWebRequest(request))) {
+                if (tipo.includes(MediaType.APPLICATION_JSON)) {
+                    return false;
+                }
+                if (tipo.includes(MediaType.APPLICATION_CBOR)) {
+                    return true;
+                }
+            }
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            // Accept inválido: Spring responderá el error correspondiente
+        }
+        return false;
+    }
+
+    /**
+     * Bytes y tiempo medio de serialización (más compresión en las variantes gzip) del cuerpo en cada codificación.
+     */
+    public Map<String, Medicion> medir(Object cuerpo) {
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        medir(mediciones, "json", json, cuerpo);
+        medir(mediciones, "cbor", cbor, cuerpo);
+        return mediciones;
+    }
+
+    private static void medir(Map<String, Medicion> mediciones, String nombre, ObjectMapper mapper, Object cuerpo) {
+        try {
+            // La primera pasada calienta la serialización de los tipos involucrados
+            byte[] bytes = mapper.writeValueAsBytes(cuerpo);
+            byte[] comprimido = gzip(bytes);
+            long serializacion = 0;
+            long compresion = 0;
+            for (int i = 0; i < REPETICIONES; i++) {
+                long inicio = System.nanoTime();
+                bytes = mapper.writeValueAsBytes(cuerpo);
+                long medio = System.nanoTime();
+                comprimido = gzip(bytes);
+                serializacion += medio - inicio;
+                compresion += System.nanoTime() - medio;
+            }
+            mediciones.put(nombre, new Medicion(bytes.length, serializacion / 1000.0 / REPETICIONES));
+            mediciones.put(nombre + "+gzip", new Medicion(comprimido.length,
+                    (serializacion + compresion) / 1000.0 / REPETICIONES));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(bytes);
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.sistemaacademico.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.sistemaacademico.database.CatalogoCache;
+import org.example.sistemaacademico.database.VersionesTablas;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET condicional sobre los listados y búsquedas que dependen de una sola tabla, con ETag armado a partir de
+ * la versión de la tabla (VersionesTablas).
+ * <p>
+ * Como interceptor, antes de llamar al controlador compara If-None-Match con la versión actual y responde 304
+ * sin consultar Oracle ni serializar JSON. Como advice, agrega el ETag a las respuestas 200 de esas rutas. La
+ * versión se lee antes de ejecutar el controlador: si una escritura ocurre en medio, la respuesta queda con la
+ * versión anterior y la siguiente solicitud la descarga de nuevo. Si la copia en memoria de un catálogo venció,
+ * la solicitud pasa al controlador para que la recarga detecte cambios hechos fuera de la aplicación. JSON y
+ * CBOR son representaciones distintas de la misma ruta, así que cada una tiene su propio ETag y se agrega
+ * Accept al Vary de la respuesta.
+ */
+@ControllerAdvice
+public class EtagVersiones implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    private static final String ATRIBUTO_ETAG = EtagVersiones.class.getName() + ".etag";
+
+    // Patrón de la ruta -> tabla de la que depende por completo la respuesta
+    private static final Map<String, String> RUTAS = Map.of(
+            "/api/carreras/listar", CatalogoCache.CARRERAS,
+            "/api/carreras/buscarPorCodigo", CatalogoCache.CARRERAS,
+            "/api/cursos/listar", CatalogoCache.CURSOS,
+            "/api/cursos/buscarPorCodigo", CatalogoCache.CURSOS,
+            "/api/ciclos/listar", CatalogoCache.CICLOS,
+            "/api/ciclos/buscarPorAnnio", CatalogoCache.CICLOS,
+            "/api/ciclos/buscarPorId/{id}", CatalogoCache.CICLOS,
+            "/api/carrera-curso/listar", CatalogoCache.CARRERA_CURSO,
+            "/api/grupos/listar", VersionesTablas.GRUPOS);
+
+    private final VersionesTablas versiones;
+
+    public EtagVersiones(VersionesTablas versiones) {
+        this.versiones = versiones;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) || !(handler instanceof HandlerMethod metodo)
+                || esStreaming(metodo)) {
+            return true;
+        }
+        String tabla = RUTAS.get((String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        if (tabla == null) {
+            return true;
+        }
+        String etag = versiones.etag(tabla);
+        if (CodificacionConfig.prefiereCbor(request)) {
+            etag = etag.substring(0, etag.length() - 1) + "-cbor\"";
+        }
+        if (versiones.vigente(tabla) && coincide(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        request.setAttribute(ATRIBUTO_ETAG, etag);
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && servletRequest.getServletRequest().getAttribute(ATRIBUTO_ETAG) instanceof String etag
+                && servletResponse.getServletResponse().getStatus() == HttpServletResponse.SC_OK) {
+            HttpHeaders headers = response.getHeaders();
+            // Un cuerpo ya comprimido (listados precodificados) es otra representación: ETag débil, como lo
+            // deja Tomcat cuando comprime él mismo
+            headers.setETag(headers.containsKey(HttpHeaders.CONTENT_ENCODING) ? "W/" + etag : etag);
+            headers.setCacheControl("no-cache");
+            List<String> vary = new ArrayList<>(headers.getVary());
+            vary.add(HttpHeaders.ACCEPT);
+            headers.setVary(vary);
+        }
+        return body;
+    }
+
+    // Las variantes NDJSON de /listar comparten ruta con la JSON pero no se etiquetan
+    private static boolean esStreaming(HandlerMethod metodo) {
+        ResolvableType tipo = ResolvableType.forMethodReturnType(metodo.getMethod());
+        if (ResponseEntity.class.isAssignableFrom(tipo.toClass())) {
+            tipo = tipo.getGeneric(0);
+        }
+        return StreamingResponseBody.class.isAssignableFrom(tipo.toClass());
+    }
+
+    // Comparación débil, la que corresponde a If-None-Match
+    private static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.sistemaacademico.config;
+
+import org.example.sistemaacademico.database.DataSourceInstrumentado;
+import org.example.sistemaacademico.database.QueryTimings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Métricas de acceso a datos. Envuelve el DataSource del pool con DataSourceInstrumentado para que todas las
+ * llamadas PL/SQL queden medidas en QueryTimings, sin tocar cada servicio.
+ * <p>
+ * Las métricas del pool (hikaricp.connections.acquire, .active, .pending, .timeout) las registra Actuator
+ * directamente sobre Hikari; todo se expone para Prometheus en /actuator/prometheus.
+ */
+@Configuration
+public class MetricasConfig {
+
+    // static: los BeanPostProcessor se crean antes que el resto de la configuración
+    @Bean
+    public static BeanPostProcessor instrumentarDataSource(ObjectProvider<QueryTimings> timings) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceInstrumentado)) {
+                    return new DataSourceInstrumentado(dataSource, timings::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
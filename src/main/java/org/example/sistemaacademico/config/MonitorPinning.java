@@ -0,0 +1,132 @@
+package org.example.sistemaacademico.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detecta los hilos virtuales que quedan fijados a su hilo portador (pinning), por ejemplo al bloquearse
+ * dentro de un bloque synchronized del driver de Oracle o de nuestro propio código.
+ * <p>
+ * Solo se activa con spring.threads.virtual.enabled=true. Escucha el evento jdk.VirtualThreadPinned de JFR
+ * y agrupa las ocurrencias por el primer marco de la pila que pertenece al driver, al pool o a la aplicación.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class MonitorPinning {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitorPinning.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final List<String> PAQUETES_DE_INTERES = List.of("oracle.", "com.zaxxer.hikari.", "org.example.sistemaacademico.");
+
+    public record Fijacion(long eventos, double totalMs, double maximoMs, String traza) {
+    }
+
+    private final Map<String, Acumulado> porOrigen = new ConcurrentHashMap<>();
+    private final Duration umbral;
+    private RecordingStream stream;
+
+    public MonitorPinning(@Value("${sistema.hilos.pinning-umbral-ms:20}") long umbralMs) {
+        this.umbral = Duration.ofMillis(umbralMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        logger.info("Monitor de pinning de hilos virtuales activo (umbral {} ms)", umbral.toMillis());
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Eventos, tiempo total y máximo fijado por origen, ordenado por origen.
+     */
+    public Map<String, Fijacion> estadisticas() {
+        Map<String, Fijacion> resumen = new TreeMap<>();
+        porOrigen.forEach((origen, acumulado) -> resumen.put(origen, acumulado.resumir()));
+        return resumen;
+    }
+
+    private void registrar(RecordedEvent evento) {
+        RecordedStackTrace pila = evento.getStackTrace();
+        List<RecordedFrame> marcos = pila == null ? List.of() : pila.getFrames();
+        String origen = origen(marcos);
+        long nanos = evento.getDuration().toNanos();
+        Acumulado acumulado = porOrigen.computeIfAbsent(origen, o -> {
+            logger.warn("Hilo virtual fijado a su portador en {} ({} ms)", o, nanos / 1_000_000);
+            return new Acumulado(traza(marcos));
+        });
+        acumulado.eventos.increment();
+        acumulado.nanosTotales.add(nanos);
+        acumulado.nanosMaximo.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static String origen(List<RecordedFrame> marcos) {
+        for (RecordedFrame marco : marcos) {
+            String tipo = marco.getMethod().getType().getName();
+            for (String paquete : PAQUETES_DE_INTERES) {
+                if (tipo.startsWith(paquete)) {
+                    return describir(marco);
+                }
+            }
+        }
+        return marcos.isEmpty() ? "desconocido" : describir(marcos.get(0));
+    }
+
+    private static String traza(List<RecordedFrame> marcos) {
+        StringBuilder traza = new StringBuilder();
+        for (int i = 0; i < Math.min(marcos.size(), 12); i++) {
+            if (i > 0) {
+                traza.append(" <- ");
+            }
+            traza.append(describir(marcos.get(i)));
+        }
+        return traza.toString();
+    }
+
+    private static String describir(RecordedFrame marco) {
+        return marco.getMethod().getType().getName() + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+    }
+
+    private static final class Acumulado {
+        private final String traza;
+        private final LongAdder eventos = new LongAdder();
+        private final LongAdder nanosTotales = new LongAdder();
+        private final AtomicLong nanosMaximo = new AtomicLong();
+
+        private Acumulado(String traza) {
+            this.traza = traza;
+        }
+
+        private Fijacion resumir() {
+            return new Fijacion(eventos.sum(), nanosTotales.sum() / 1_000_000.0, nanosMaximo.get() / 1_000_000.0, traza);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.example.sistemaacademico.config;
 
+import org.example.sistemaacademico.database.Paginacion;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -12,6 +15,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final EtagVersiones etagVersiones;
+
+    public WebConfig(EtagVersiones etagVersiones) {
+        this.etagVersiones = etagVersiones;
+    }
+
     /**
      * Configura las políticas CORS para permitir solicitudes desde orígenes específicos.
      *
@@ -23,7 +32,18 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:5173", "*") // Restaura el acceso a todos los orígenes
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Incluye OPTIONS
                 .allowedHeaders("*") // Restaura todos los encabezados para compatibilidad
+                .exposedHeaders(Paginacion.TOTAL_COUNT, HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.ETAG) // Total paginado, nombre de las exportaciones y ETag
                 .allowCredentials(false) // Desactiva credenciales para alinearse con el comportamiento original
                 .maxAge(3600); // Añade cache de preflight por 1 hora
     }
+
+    /**
+     * Responde 304 a los GET condicionales de los listados versionados sin llegar al controlador.
+     *
+     * @param registry El registro de interceptores.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(etagVersiones).addPathPatterns("/api/**");
+    }
 }
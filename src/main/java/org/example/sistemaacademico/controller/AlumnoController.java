@@ -3,11 +3,15 @@ package org.example.sistemaacademico.controller;
 import org.example.sistemaacademico.data.AlumnoService;
 import org.example.sistemaacademico.logic.Alumno;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,9 +21,11 @@ public class AlumnoController {
 
     private static final Logger logger = LoggerFactory.getLogger(AlumnoController.class);
     private final AlumnoService alumnoService;
+    private final NdjsonStream ndjsonStream;
 
-    public AlumnoController(AlumnoService alumnoService) {
+    public AlumnoController(AlumnoService alumnoService, NdjsonStream ndjsonStream) {
         this.alumnoService = alumnoService;
+        this.ndjsonStream = ndjsonStream;
     }
 
     @PostMapping("/insertar")
@@ -30,6 +36,17 @@ public class AlumnoController {
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    @PostMapping("/insertarLote")
+    public ResponseEntity<List<ResultadoLote>> insertarLote(
+            @RequestBody List<Alumno> alumnos,
+            @RequestParam(value = "bloque", required = false) Integer bloque) {
+        logger.debug("Insertando lote de {} alumnos", alumnos.size());
+        List<ResultadoLote> resultados = alumnoService.insertarAlumnosLote(alumnos, bloque);
+        long fallidos = resultados.stream().filter(r -> !r.isExito()).count();
+        logger.info("Lote de alumnos procesado: {} insertados, {} rechazados", resultados.size() - fallidos, fallidos);
+        return new ResponseEntity<>(resultados, HttpStatus.OK);
+    }
+
     @PutMapping("/modificar")
     public ResponseEntity<Void> modificar(@RequestBody Alumno alumno) {
         logger.debug("Actualizando alumno con id: {}", alumno.getIdAlumno());
@@ -64,6 +81,28 @@ public class AlumnoController {
         return new ResponseEntity<>(alumnos, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/listar", produces = NdjsonStream.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        logger.debug("Listando todos los alumnos en modo streaming");
+        return ndjsonStream.respuesta(alumnoService::recorrerAlumnos);
+    }
+
+    @GetMapping(value = "/listar", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> listarStreamPorParametro() {
+        return listarStream();
+    }
+
+    @GetMapping("/listarPaginado")
+    public ResponseEntity<Pagina<Alumno>> listarPaginado(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Listando alumnos paginados: limit {}, after {}", limit, after);
+        Pagina<Alumno> pagina = alumnoService.listarAlumnosPaginado(after, limit);
+        logger.info("Página de alumnos obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? alumnoService::contarAlumnos : null);
+    }
+
     @GetMapping("/buscarPorId/{id}")
     public ResponseEntity<Alumno> buscarPorId(@PathVariable("id") Long id) {
         logger.debug("Buscando alumno por id: {}", id);
@@ -96,6 +135,17 @@ public class AlumnoController {
         return new ResponseEntity<>(alumno, HttpStatus.OK);
     }
 
+    @GetMapping("/buscarPorNombreAproximado")
+    public ResponseEntity<Pagina<Alumno>> buscarPorNombreAproximado(
+            @RequestParam("q") String texto,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        logger.debug("Buscando alumnos por nombre aproximado: {}", texto);
+        Pagina<Alumno> pagina = alumnoService.buscarAlumnosPorNombreAproximado(texto, after, limit);
+        logger.info("Alumnos encontrados por nombre aproximado '{}': {}", texto, pagina.getItems().size());
+        return new ResponseEntity<>(pagina, HttpStatus.OK);
+    }
+
     @GetMapping("/buscarPorCarrera")
     public ResponseEntity<List<Alumno>> buscarPorCarrera(@RequestParam("carrera") Long idCarrera) {
         logger.debug("Buscando alumnos por carrera: {}", idCarrera);
@@ -104,6 +154,18 @@ public class AlumnoController {
         return new ResponseEntity<>(alumnos, HttpStatus.OK);
     }
 
+    @GetMapping("/buscarPorCarreraPaginado")
+    public ResponseEntity<Pagina<Alumno>> buscarPorCarreraPaginado(
+            @RequestParam("carrera") Long idCarrera,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Buscando alumnos por carrera {} paginados: limit {}, after {}", idCarrera, limit, after);
+        Pagina<Alumno> pagina = alumnoService.buscarAlumnosPorCarreraPaginado(idCarrera, after, limit);
+        logger.info("Página de alumnos por carrera obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? () -> alumnoService.contarAlumnosPorCarrera(idCarrera) : null);
+    }
+
     @GetMapping("/alumnosConOfertaEnCiclo")
     public ResponseEntity<List<Alumno>> alumnosConOfertaEnCiclo(@RequestParam("idCiclo") Long idCiclo) {
         logger.debug("Buscando alumnos con oferta en ciclo: {}", idCiclo);
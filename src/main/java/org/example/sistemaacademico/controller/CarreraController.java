@@ -3,6 +3,8 @@ package org.example.sistemaacademico.controller;
 import org.example.sistemaacademico.data.CarreraService;
 import org.example.sistemaacademico.logic.Carrera;
 import org.example.sistemaacademico.database.NoDataException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -17,9 +19,11 @@ public class CarreraController {
 
     private static final Logger logger = LoggerFactory.getLogger(CarreraController.class);
     private final CarreraService carreraService;
+    private final ListadoSerializado listadoSerializado;
 
-    public CarreraController(CarreraService carreraService) {
+    public CarreraController(CarreraService carreraService, ListadoSerializado listadoSerializado) {
         this.carreraService = carreraService;
+        this.listadoSerializado = listadoSerializado;
     }
 
     @PostMapping("/insertar")
@@ -41,24 +45,27 @@ public class CarreraController {
     @DeleteMapping("/eliminar/{id}")
     public ResponseEntity<Void> eliminar(@PathVariable("id") Long id) {
         logger.debug("Eliminando carrera con id: {}", id);
-        if (carreraService.tieneCursosAsociados(id)) {
-            logger.warn("No se puede eliminar carrera con id {}: tiene cursos asociados", id);
-            throw new RuntimeException("No se puede eliminar carrera: tiene cursos asociados.");
-        }
-        if (carreraService.tieneAlumnosAsociados(id)) {
-            logger.warn("No se puede eliminar carrera con id {}: tiene alumnos asociados", id);
-            throw new RuntimeException("No se puede eliminar carrera: tiene alumnos inscritos.");
-        }
+        carreraService.verificarEliminar(id); // Verificación proactiva
         carreraService.eliminarCarrera(id);
         logger.info("Carrera eliminada exitosamente: id {}", id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping("/listar")
-    public ResponseEntity<List<Carrera>> listar() {
+    public ResponseEntity<?> listar(HttpServletRequest request) {
         logger.debug("Listando todas las carreras");
         List<Carrera> carreras = carreraService.listarCarreras();
         logger.info("Listado de carreras obtenido: total {}", carreras.size());
+        return listadoSerializado.respuesta(CatalogoCache.CARRERAS, carreras, request);
+    }
+
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<Carrera>> autocompletar(
+            @RequestParam("prefijo") String prefijo,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        logger.debug("Autocompletando carreras: prefijo {}", prefijo);
+        List<Carrera> carreras = carreraService.autocompletarCarreras(prefijo, limit);
+        logger.info("Sugerencias de carreras para '{}': {}", prefijo, carreras.size());
         return new ResponseEntity<>(carreras, HttpStatus.OK);
     }
 
@@ -4,11 +4,14 @@ import org.example.sistemaacademico.data.CarreraCursoService;
 import org.example.sistemaacademico.logic.CarreraCurso;
 import org.example.sistemaacademico.logic.dto.CursoDto;
 import org.example.sistemaacademico.database.GlobalException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,9 +21,14 @@ public class CarreraCursoController {
 
     private static final Logger logger = LoggerFactory.getLogger(CarreraCursoController.class);
     private final CarreraCursoService carreraCursoService;
+    private final NdjsonStream ndjsonStream;
+    private final ListadoSerializado listadoSerializado;
 
-    public CarreraCursoController(CarreraCursoService carreraCursoService) {
+    public CarreraCursoController(CarreraCursoService carreraCursoService, NdjsonStream ndjsonStream,
+                                  ListadoSerializado listadoSerializado) {
         this.carreraCursoService = carreraCursoService;
+        this.ndjsonStream = ndjsonStream;
+        this.listadoSerializado = listadoSerializado;
     }
 
     @PostMapping("/insertar")
@@ -63,11 +71,22 @@ public class CarreraCursoController {
     }
 
     @GetMapping("/listar")
-    public ResponseEntity<List<CarreraCurso>> listar() {
+    public ResponseEntity<?> listar(HttpServletRequest request) {
         logger.debug("Listando todas las relaciones Carrera-Curso");
         List<CarreraCurso> relaciones = carreraCursoService.listar();
         logger.info("Listado de relaciones Carrera-Curso obtenido: total {}", relaciones.size());
-        return new ResponseEntity<>(relaciones, HttpStatus.OK);
+        return listadoSerializado.respuesta(CatalogoCache.CARRERA_CURSO, relaciones, request);
+    }
+
+    @GetMapping(value = "/listar", produces = NdjsonStream.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        logger.debug("Listando todas las relaciones Carrera-Curso en modo streaming");
+        return ndjsonStream.respuesta(carreraCursoService::recorrer);
+    }
+
+    @GetMapping(value = "/listar", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> listarStreamPorParametro() {
+        return listarStream();
     }
 
     @GetMapping("/cursos")
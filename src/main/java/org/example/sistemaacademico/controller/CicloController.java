@@ -3,6 +3,8 @@ package org.example.sistemaacademico.controller;
 import org.example.sistemaacademico.data.CicloService;
 import org.example.sistemaacademico.logic.Ciclo;
 import org.example.sistemaacademico.database.NoDataException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -17,9 +19,11 @@ public class CicloController {
 
     private static final Logger logger = LoggerFactory.getLogger(CicloController.class);
     private final CicloService cicloService;
+    private final ListadoSerializado listadoSerializado;
 
-    public CicloController(CicloService cicloService) {
+    public CicloController(CicloService cicloService, ListadoSerializado listadoSerializado) {
         this.cicloService = cicloService;
+        this.listadoSerializado = listadoSerializado;
     }
 
     @PostMapping("/insertar")
@@ -48,11 +52,11 @@ public class CicloController {
     }
 
     @GetMapping("/listar")
-    public ResponseEntity<List<Ciclo>> listar() {
+    public ResponseEntity<?> listar(HttpServletRequest request) {
         logger.debug("Listando todos los ciclos");
         List<Ciclo> ciclos = cicloService.listarCiclos();
         logger.info("Listado de ciclos obtenido: total {}", ciclos.size());
-        return new ResponseEntity<>(ciclos, HttpStatus.OK);
+        return listadoSerializado.respuesta(CatalogoCache.CICLOS, ciclos, request);
     }
 
     @GetMapping("/buscarPorAnnio")
@@ -79,6 +83,14 @@ public class CicloController {
         return new ResponseEntity<>(ciclo, HttpStatus.OK);
     }
 
+    @GetMapping("/activo")
+    public ResponseEntity<Ciclo> activo() {
+        logger.debug("Consultando ciclo activo");
+        Ciclo ciclo = cicloService.buscarCicloActivo();
+        logger.info("Ciclo activo: id {}", ciclo.getIdCiclo());
+        return new ResponseEntity<>(ciclo, HttpStatus.OK);
+    }
+
     @PostMapping("/activarCiclo/{id}")
     public ResponseEntity<Void> activar(@PathVariable("id") Long id) {
         logger.debug("Activando ciclo con id: {}", id);
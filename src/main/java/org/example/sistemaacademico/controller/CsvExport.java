@@ -0,0 +1,97 @@
+package org.example.sistemaacademico.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Construye respuestas CSV que se escriben a medida que el servicio recorre el cursor.
+ * La salida pasa por un búfer de tamaño fijo y, si se solicita, se comprime con gzip
+ * sobre la marcha; en ningún momento se arma el resultado completo en memoria.
+ */
+@Component
+public class CsvExport {
+
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    public static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    /**
+     * Origen de filas: recibe el consumidor que escribe cada fila en la respuesta.
+     */
+    @FunctionalInterface
+    public interface Fuente {
+        void recorrer(Consumer<Object[]> consumidor);
+    }
+
+    private final int tamanoBuffer;
+
+    public CsvExport(@Value("${sistema.export.buffer-bytes:65536}") int tamanoBuffer) {
+        this.tamanoBuffer = tamanoBuffer;
+    }
+
+    public ResponseEntity<StreamingResponseBody> respuesta(String nombre, String[] encabezados, boolean gzip, Fuente fuente) {
+        StreamingResponseBody cuerpo = out -> {
+            GZIPOutputStream comprimido = gzip ? new GZIPOutputStream(out, tamanoBuffer) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? comprimido : out, StandardCharsets.UTF_8), tamanoBuffer);
+            try {
+                escribir(writer, encabezados);
+                fuente.recorrer(fila -> escribir(writer, fila));
+                writer.flush();
+                if (comprimido != null) {
+                    comprimido.finish();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        ContentDisposition disposicion = ContentDisposition.attachment()
+                .filename(nombre + (gzip ? ".csv.gz" : ".csv"))
+                .build();
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposicion.toString())
+                .body(cuerpo);
+    }
+
+    private static void escribir(Writer writer, Object[] fila) {
+        try {
+            for (int i = 0; i < fila.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                escribirCampo(writer, fila[i]);
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escribirCampo(Writer writer, Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor.toString();
+        boolean requiereComillas = false;
+        for (int i = 0; i < texto.length() && !requiereComillas; i++) {
+            char c = texto.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            writer.write(texto);
+            return;
+        }
+        writer.write('"');
+        writer.write(texto.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -4,6 +4,10 @@ import org.example.sistemaacademico.data.CursoService;
 import org.example.sistemaacademico.logic.Curso;
 import org.example.sistemaacademico.logic.dto.CursoDto;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -18,9 +22,11 @@ public class CursoController {
 
     private static final Logger logger = LoggerFactory.getLogger(CursoController.class);
     private final CursoService cursoService;
+    private final ListadoSerializado listadoSerializado;
 
-    public CursoController(CursoService cursoService) {
+    public CursoController(CursoService cursoService, ListadoSerializado listadoSerializado) {
         this.cursoService = cursoService;
+        this.listadoSerializado = listadoSerializado;
     }
 
     @PostMapping("/insertar")
@@ -49,10 +55,31 @@ public class CursoController {
     }
 
     @GetMapping("/listar")
-    public ResponseEntity<List<Curso>> listar() {
+    public ResponseEntity<?> listar(HttpServletRequest request) {
         logger.debug("Listando todos los cursos");
         List<Curso> cursos = cursoService.listarCursos();
         logger.info("Listado de cursos obtenido: total {}", cursos.size());
+        return listadoSerializado.respuesta(CatalogoCache.CURSOS, cursos, request);
+    }
+
+    @GetMapping("/listarPaginado")
+    public ResponseEntity<Pagina<Curso>> listarPaginado(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Listando cursos paginados: limit {}, after {}", limit, after);
+        Pagina<Curso> pagina = cursoService.listarCursosPaginado(after, limit);
+        logger.info("Página de cursos obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? cursoService::contarCursos : null);
+    }
+
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<Curso>> autocompletar(
+            @RequestParam("prefijo") String prefijo,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        logger.debug("Autocompletando cursos: prefijo {}", prefijo);
+        List<Curso> cursos = cursoService.autocompletarCursos(prefijo, limit);
+        logger.info("Sugerencias de cursos para '{}': {}", prefijo, cursos.size());
         return new ResponseEntity<>(cursos, HttpStatus.OK);
     }
 
@@ -88,6 +115,18 @@ public class CursoController {
         return new ResponseEntity<>(cursos, HttpStatus.OK);
     }
 
+    @GetMapping("/buscarCursosPorCarreraPaginado")
+    public ResponseEntity<Pagina<CursoDto>> buscarCursosPorCarreraPaginado(
+            @RequestParam("idCarrera") Long idCarrera,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Buscando cursos por carrera {} paginados: limit {}, after {}", idCarrera, limit, after);
+        Pagina<CursoDto> pagina = cursoService.buscarCursosPorCarreraPaginado(idCarrera, after, limit);
+        logger.info("Página de cursos por carrera obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? () -> cursoService.contarCursosPorCarrera(idCarrera) : null);
+    }
+
     @GetMapping("/buscarCursosPorCarreraYCiclo/{idCarrera}/{idCiclo}")
     public ResponseEntity<List<CursoDto>> buscarCursosPorCarreraYCiclo(
             @PathVariable("idCarrera") Long idCarrera,
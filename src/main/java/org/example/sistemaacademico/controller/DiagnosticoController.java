@@ -0,0 +1,128 @@
+package org.example.sistemaacademico.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.example.sistemaacademico.config.CodificacionConfig;
+import org.example.sistemaacademico.config.MonitorPinning;
+import org.example.sistemaacademico.data.AlumnoService;
+import org.example.sistemaacademico.data.MatriculaService;
+import org.example.sistemaacademico.data.UsuarioService;
+import org.example.sistemaacademico.database.CatalogoCache;
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryTimings;
+import org.example.sistemaacademico.database.TablaCatalogo;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Estadísticas internas para el monitoreo de la aplicación.
+ */
+@RestController
+@RequestMapping("/api/diagnostico")
+public class DiagnosticoController {
+
+    private final CatalogoCache catalogoCache;
+    private final QueryTimings queryTimings;
+    private final ObjectProvider<MonitorPinning> monitorPinning;
+    private final CodificacionConfig codificaciones;
+    private final AlumnoService alumnoService;
+    private final UsuarioService usuarioService;
+    private final MatriculaService matriculaService;
+    private final DataSource dataSource;
+
+    public DiagnosticoController(CatalogoCache catalogoCache, QueryTimings queryTimings,
+                                 ObjectProvider<MonitorPinning> monitorPinning, CodificacionConfig codificaciones,
+                                 AlumnoService alumnoService, UsuarioService usuarioService,
+                                 MatriculaService matriculaService, DataSource dataSource) {
+        this.catalogoCache = catalogoCache;
+        this.queryTimings = queryTimings;
+        this.monitorPinning = monitorPinning;
+        this.codificaciones = codificaciones;
+        this.alumnoService = alumnoService;
+        this.usuarioService = usuarioService;
+        this.matriculaService = matriculaService;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Aciertos, fallos, cargas e invalidaciones de cada tabla de catálogo en memoria.
+     */
+    @GetMapping("/catalogo")
+    public ResponseEntity<Map<String, TablaCatalogo.Estadisticas>> catalogo() {
+        return new ResponseEntity<>(catalogoCache.estadisticas(), HttpStatus.OK);
+    }
+
+    /**
+     * Llamadas, errores por código de Oracle, filas y tiempos acumulados por función almacenada; p95 y p99 son
+     * de la ventana reciente del histograma. Para Prometheus: sistema.plsql.* en /actuator/prometheus.
+     */
+    @GetMapping("/consultas")
+    public ResponseEntity<Map<String, QueryTimings.Resumen>> consultas() {
+        return new ResponseEntity<>(queryTimings.snapshot(), HttpStatus.OK);
+    }
+
+    /**
+     * Estado actual del pool de conexiones: en uso, libres, total e hilos esperando una conexión.
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Integer>> pool() {
+        HikariPoolMXBean pool;
+        try {
+            pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        } catch (SQLException e) {
+            throw new GlobalException("No se pudo leer el estado del pool: " + e.getMessage());
+        }
+        Map<String, Integer> estado = new LinkedHashMap<>();
+        if (pool != null) {
+            estado.put("activas", pool.getActiveConnections());
+            estado.put("libres", pool.getIdleConnections());
+            estado.put("total", pool.getTotalConnections());
+            estado.put("esperando", pool.getThreadsAwaitingConnection());
+        }
+        return new ResponseEntity<>(estado, HttpStatus.OK);
+    }
+
+    /**
+     * Hilos virtuales fijados a su portador, agrupados por origen. Vacío si los hilos virtuales no están activos.
+     */
+    @GetMapping("/pinning")
+    public ResponseEntity<Map<String, MonitorPinning.Fijacion>> pinning() {
+        MonitorPinning monitor = monitorPinning.getIfAvailable();
+        return new ResponseEntity<>(monitor == null ? Map.of() : monitor.estadisticas(), HttpStatus.OK);
+    }
+
+    /**
+     * Bytes en la red y tiempo de serialización en JSON, CBOR y sus variantes gzip para los listados más grandes
+     * (matrículas de un grupo solo si se indica idGrupo).
+     */
+    @GetMapping("/codificaciones")
+    public ResponseEntity<Map<String, Map<String, CodificacionConfig.Medicion>>> codificaciones(
+            @RequestParam(value = "idGrupo", required = false) Long idGrupo) {
+        Map<String, Map<String, CodificacionConfig.Medicion>> resultado = new LinkedHashMap<>();
+        resultado.put("listarAlumnos", codificaciones.medir(filas(alumnoService::listarAlumnos)));
+        resultado.put("listarUsuarios", codificaciones.medir(filas(usuarioService::listar)));
+        if (idGrupo != null) {
+            resultado.put("listarMatriculasPorGrupo",
+                    codificaciones.medir(filas(() -> matriculaService.listarMatriculasPorGrupo(idGrupo))));
+        }
+        return new ResponseEntity<>(resultado, HttpStatus.OK);
+    }
+
+    private static List<?> filas(Supplier<List<?>> listado) {
+        try {
+            return listado.get();
+        } catch (NoDataException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.sistemaacademico.controller;
+
+import org.example.sistemaacademico.data.ExportacionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportacionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionController.class);
+    private final ExportacionService exportacionService;
+    private final CsvExport csvExport;
+
+    public ExportacionController(ExportacionService exportacionService, CsvExport csvExport) {
+        this.exportacionService = exportacionService;
+        this.csvExport = csvExport;
+    }
+
+    @GetMapping("/matriculas")
+    public ResponseEntity<StreamingResponseBody> matriculas(
+            @RequestParam("ciclo") Long idCiclo,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        logger.debug("Exportando matrículas del ciclo {} (gzip: {})", idCiclo, gzip);
+        return csvExport.respuesta("matriculas-ciclo-" + idCiclo, ExportacionService.ENCABEZADOS_MATRICULAS, gzip,
+                fila -> exportacionService.exportarMatriculasPorCiclo(idCiclo, fila));
+    }
+
+    @GetMapping("/grupos")
+    public ResponseEntity<StreamingResponseBody> grupos(
+            @RequestParam("ciclo") Long idCiclo,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        logger.debug("Exportando grupos del ciclo {} (gzip: {})", idCiclo, gzip);
+        return csvExport.respuesta("grupos-ciclo-" + idCiclo, ExportacionService.ENCABEZADOS_GRUPOS, gzip,
+                fila -> exportacionService.exportarGruposPorCiclo(idCiclo, fila));
+    }
+
+    @GetMapping("/alumnos")
+    public ResponseEntity<StreamingResponseBody> alumnos(
+            @RequestParam(value = "carrera", required = false) Long idCarrera,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        logger.debug("Exportando alumnos de la carrera {} (gzip: {})", idCarrera, gzip);
+        String nombre = idCarrera != null ? "alumnos-carrera-" + idCarrera : "alumnos";
+        return csvExport.respuesta(nombre, ExportacionService.ENCABEZADOS_ALUMNOS, gzip,
+                fila -> exportacionService.exportarAlumnos(idCarrera, fila));
+    }
+}
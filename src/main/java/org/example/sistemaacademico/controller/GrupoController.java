@@ -1,15 +1,20 @@
 package org.example.sistemaacademico.controller;
 
+import org.example.sistemaacademico.data.EstadisticasGrupoService;
 import org.example.sistemaacademico.data.GrupoService;
+import org.example.sistemaacademico.database.Paginacion;
 import org.example.sistemaacademico.logic.Grupo;
 import org.example.sistemaacademico.logic.dto.CursoDto;
+import org.example.sistemaacademico.logic.dto.EstadisticasGrupoDto;
 import org.example.sistemaacademico.logic.dto.GrupoDto;
 import org.example.sistemaacademico.logic.dto.GrupoProfesorDto;
+import org.example.sistemaacademico.logic.dto.Pagina;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,9 +24,13 @@ public class GrupoController {
 
     private static final Logger logger = LoggerFactory.getLogger(GrupoController.class);
     private final GrupoService grupoService;
+    private final NdjsonStream ndjsonStream;
+    private final EstadisticasGrupoService estadisticasGrupo;
 
-    public GrupoController(GrupoService grupoService) {
+    public GrupoController(GrupoService grupoService, NdjsonStream ndjsonStream, EstadisticasGrupoService estadisticasGrupo) {
         this.grupoService = grupoService;
+        this.ndjsonStream = ndjsonStream;
+        this.estadisticasGrupo = estadisticasGrupo;
     }
 
     @PostMapping("/insertar")
@@ -35,9 +44,11 @@ public class GrupoController {
     }
 
     @PutMapping("/modificar")
-    public ResponseEntity<Void> modificar(@RequestBody Grupo grupo) {
+    public ResponseEntity<Void> modificar(
+            @RequestBody Grupo grupo,
+            @RequestParam(value = "sinCupo", defaultValue = "false") boolean sinCupo) {
         logger.debug("Actualizando grupo con id: {}", grupo.getIdGrupo());
-        grupoService.modificarGrupo(grupo);
+        grupoService.modificarGrupo(grupo, sinCupo);
         logger.info("Grupo actualizado exitosamente: id {}", grupo.getIdGrupo());
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -59,6 +70,28 @@ public class GrupoController {
         return new ResponseEntity<>(grupos, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/listar", produces = NdjsonStream.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        logger.debug("Listando todos los grupos en modo streaming");
+        return ndjsonStream.respuesta(grupoService::recorrerGrupos);
+    }
+
+    @GetMapping(value = "/listar", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> listarStreamPorParametro() {
+        return listarStream();
+    }
+
+    @GetMapping("/listarPaginado")
+    public ResponseEntity<Pagina<Grupo>> listarPaginado(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Listando grupos paginados: limit {}, after {}", limit, after);
+        Pagina<Grupo> pagina = grupoService.listarGruposPaginado(after, limit);
+        logger.info("Página de grupos obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? grupoService::contarGrupos : null);
+    }
+
     @GetMapping("/buscarGruposPorCarreraCurso/{idCarrera}/{idCurso}")
     public ResponseEntity<List<GrupoDto>> buscarGruposPorCarreraCurso(
             @PathVariable("idCarrera") Long idCarrera, @PathVariable("idCurso") Long idCurso) {
@@ -85,6 +118,18 @@ public class GrupoController {
         return new ResponseEntity<>(grupos, HttpStatus.OK);
     }
 
+    @GetMapping("/buscarGruposPorProfesorPaginado")
+    public ResponseEntity<Pagina<GrupoDto>> buscarGruposPorProfesorPaginado(
+            @RequestParam("cedula") String cedula,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Buscando grupos por profesor con cédula {} paginados: limit {}, after {}", cedula, limit, after);
+        Pagina<GrupoDto> pagina = grupoService.buscarGruposPorProfesorPaginado(cedula, after, limit);
+        logger.info("Página de grupos por profesor obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? () -> grupoService.contarGruposPorProfesor(cedula) : null);
+    }
+
     @GetMapping("/buscarGruposPorProfesorEnCicloActivo/{cedula}")
     public ResponseEntity<List<GrupoProfesorDto>> buscarGruposPorProfesorEnCicloActivo(
             @PathVariable String cedula) {
@@ -109,4 +154,16 @@ public class GrupoController {
         logger.info("Curso encontrado para grupo: {}", idGrupo);
         return new ResponseEntity<>(curso, HttpStatus.OK);
     }
+
+    /**
+     * Conteo, promedio, varianza, tasa de aprobación e histograma de notas del grupo, desde memoria.
+     */
+    @GetMapping("/{id}/estadisticas")
+    public ResponseEntity<EstadisticasGrupoDto> estadisticas(@PathVariable("id") Long id) {
+        logger.debug("Consultando estadísticas del grupo: {}", id);
+        EstadisticasGrupoDto estadisticas = estadisticasGrupo.obtener(id);
+        logger.info("Estadísticas del grupo {}: {} calificados de {} inscritos", id,
+                estadisticas.getCalificados(), estadisticas.getInscritos());
+        return new ResponseEntity<>(estadisticas, HttpStatus.OK);
+    }
 }
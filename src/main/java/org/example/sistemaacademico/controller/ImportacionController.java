@@ -0,0 +1,50 @@
+package org.example.sistemaacademico.controller;
+
+import org.example.sistemaacademico.data.ImportacionService;
+import org.example.sistemaacademico.logic.dto.ErrorImportacion;
+import org.example.sistemaacademico.logic.dto.EstadoImportacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/importar")
+public class ImportacionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionController.class);
+    private final ImportacionService importacionService;
+
+    public ImportacionController(ImportacionService importacionService) {
+        this.importacionService = importacionService;
+    }
+
+    /**
+     * Recibe un CSV de alumnos, profesores, cursos o usuarios y responde de inmediato con el id del trabajo.
+     */
+    @PostMapping(value = "/{entidad}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<EstadoImportacion> importar(@PathVariable("entidad") String entidad,
+                                                      @RequestParam("archivo") MultipartFile archivo) {
+        logger.debug("Iniciando importación de {}: {}", entidad, archivo.getOriginalFilename());
+        EstadoImportacion estado = importacionService.iniciar(entidad, archivo);
+        logger.info("Importación de {} aceptada con id {}", entidad, estado.getId());
+        return new ResponseEntity<>(estado, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<EstadoImportacion> estado(@PathVariable("id") String id) {
+        logger.debug("Consultando avance de la importación {}", id);
+        return new ResponseEntity<>(importacionService.estado(id), HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/errores")
+    public ResponseEntity<List<ErrorImportacion>> errores(@PathVariable("id") String id) {
+        logger.debug("Consultando errores de la importación {}", id);
+        return new ResponseEntity<>(importacionService.errores(id), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.sistemaacademico.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.sistemaacademico.config.CodificacionConfig;
+import org.example.sistemaacademico.database.GlobalException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respuestas de los listados completos de catálogo (carreras, cursos, ciclos y Carrera_Curso) con el JSON ya
+ * serializado, y también comprimido con gzip si supera server.compression.min-response-size.
+ * <p>
+ * TablaCatalogo publica una lista inmutable por instantánea, así que la lista que devuelve el servicio identifica
+ * la versión de la tabla: mientras sea la misma instancia se reutilizan los bytes, y la primera solicitud después
+ * de una escritura o de una recarga por TTL los genera de nuevo una sola vez. El byte[] se copia tal cual a la
+ * respuesta; la variante gzip sale con Content-Encoding y Tomcat no la vuelve a comprimir. Los clientes que
+ * eligen CBOR reciben la lista por el convertidor de siempre.
+ */
+@Component
+public class ListadoSerializado {
+
+    private record Serializado(List<?> filas, byte[] json, byte[] gzip) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean comprimir;
+    private final long minimoComprimido;
+    private final Map<String, Serializado> serializados = new ConcurrentHashMap<>();
+
+    public ListadoSerializado(ObjectMapper objectMapper,
+                              @Value("${server.compression.enabled:false}") boolean comprimir,
+                              @Value("${server.compression.min-response-size:2KB}") DataSize minimoComprimido) {
+        this.objectMapper = objectMapper;
+        this.comprimir = comprimir;
+        this.minimoComprimido = minimoComprimido.toBytes();
+    }
+
+    /**
+     * @param tabla nombre de la tabla en CatalogoCache
+     * @param filas la lista tal como la devolvió el servicio desde TablaCatalogo
+     */
+    public ResponseEntity<?> respuesta(String tabla, List<?> filas, HttpServletRequest request) {
+        if (CodificacionConfig.prefiereCbor(request)) {
+            return new ResponseEntity<>(filas, HttpStatus.OK);
+        }
+        Serializado serializado = serializado(tabla, filas);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (serializado.gzip() == null) {
+            return respuesta.body(serializado.json());
+        }
+        respuesta.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (aceptaGzip(request)) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serializado.gzip());
+        }
+        return respuesta.body(serializado.json());
+    }
+
+    // Dos solicitudes simultáneas sobre una instantánea nueva pueden serializarla las dos; gana la última
+    private Serializado serializado(String tabla, List<?> filas) {
+        Serializado actual = serializados.get(tabla);
+        if (actual != null && actual.filas() == filas) {
+            return actual;
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(filas);
+            byte[] gzip = comprimir && json.length >= minimoComprimido ? CodificacionConfig.gzip(json) : null;
+            Serializado nuevo = new Serializado(filas, json, gzip);
+            serializados.put(tabla, nuevo);
+            return nuevo;
+        } catch (JsonProcessingException e) {
+            throw new GlobalException("Error al serializar el listado de " + tabla + ": " + e.getMessage());
+        } catch (IOException e) {
+            throw new GlobalException("Error al comprimir el listado de " + tabla + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean aceptaGzip(HttpServletRequest request) {
+        Enumeration<String> valores = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (valores != null && valores.hasMoreElements()) {
+            for (String codificacion : valores.nextElement().split(",")) {
+                String[] partes = codificacion.split(";");
+                String nombre = partes[0].trim();
+                if (!nombre.equalsIgnoreCase("gzip") && !nombre.equals("*")) {
+                    continue;
+                }
+                double calidad = 1;
+                for (int i = 1; i < partes.length; i++) {
+                    String parametro = partes[i].trim();
+                    if (parametro.startsWith("q=")) {
+                        try {
+                            calidad = Double.parseDouble(parametro.substring(2));
+                        } catch (NumberFormatException e) {
+                            calidad = 0;
+                        }
+                    }
+                }
+                return calidad > 0;
+            }
+        }
+        return false;
+    }
+}
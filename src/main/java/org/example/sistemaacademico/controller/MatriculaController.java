@@ -1,8 +1,15 @@
 package org.example.sistemaacademico.controller;
 
+import org.example.sistemaacademico.data.ColaMatriculaService;
+import org.example.sistemaacademico.data.KardexService;
 import org.example.sistemaacademico.data.MatriculaService;
+import org.example.sistemaacademico.database.Paginacion;
 import org.example.sistemaacademico.logic.Matricula;
+import org.example.sistemaacademico.logic.dto.KardexDto;
 import org.example.sistemaacademico.logic.dto.MatriculaAlumnoDto;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.example.sistemaacademico.logic.dto.TicketMatricula;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -17,9 +24,14 @@ public class MatriculaController {
 
     private static final Logger logger = LoggerFactory.getLogger(MatriculaController.class);
     private final MatriculaService matriculaService;
+    private final KardexService kardexService;
+    private final ColaMatriculaService colaMatricula;
 
-    public MatriculaController(MatriculaService matriculaService) {
+    public MatriculaController(MatriculaService matriculaService, KardexService kardexService,
+                               ColaMatriculaService colaMatricula) {
         this.matriculaService = matriculaService;
+        this.kardexService = kardexService;
+        this.colaMatricula = colaMatricula;
     }
 
     @PostMapping("/insertar")
@@ -30,6 +42,40 @@ public class MatriculaController {
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    /**
+     * Recibe la matrícula en la cola de admisión y responde de inmediato con un ticket (solo con sistema.matricula.cola.habilitada).
+     */
+    @PostMapping("/cola")
+    public ResponseEntity<TicketMatricula> encolar(@RequestBody Matricula matricula) {
+        logger.debug("Encolando matrícula para alumno: {}, grupo: {}", matricula.getPkAlumno(), matricula.getPkGrupo());
+        TicketMatricula ticket = colaMatricula.encolar(matricula);
+        logger.info("Matrícula encolada para alumno: {}, grupo: {}, ticket {}", matricula.getPkAlumno(),
+                matricula.getPkGrupo(), ticket.getId());
+        return new ResponseEntity<>(ticket, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Estado del ticket; con esperarMs la respuesta se retiene hasta que la matrícula se resuelva o venza la espera.
+     */
+    @GetMapping("/cola/{ticket}")
+    public ResponseEntity<TicketMatricula> consultarTicket(
+            @PathVariable("ticket") String ticket,
+            @RequestParam(value = "esperarMs", defaultValue = "0") long esperarMs) {
+        logger.debug("Consultando ticket de matrícula {} (espera {} ms)", ticket, esperarMs);
+        return new ResponseEntity<>(colaMatricula.consultar(ticket, esperarMs), HttpStatus.OK);
+    }
+
+    @PostMapping("/insertarLote")
+    public ResponseEntity<List<ResultadoLote>> insertarLote(
+            @RequestBody List<Matricula> matriculas,
+            @RequestParam(value = "bloque", required = false) Integer bloque) {
+        logger.debug("Insertando lote de {} matrículas", matriculas.size());
+        List<ResultadoLote> resultados = matriculaService.insertarMatriculasLote(matriculas, bloque);
+        long fallidas = resultados.stream().filter(r -> !r.isExito()).count();
+        logger.info("Lote de matrículas procesado: {} creadas, {} rechazadas", resultados.size() - fallidas, fallidas);
+        return new ResponseEntity<>(resultados, HttpStatus.OK);
+    }
+
     @PutMapping("/modificar")
     public ResponseEntity<Void> modificar(@RequestBody Matricula matricula) {
         logger.debug("Actualizando matrícula con id: {}", matricula.getIdMatricula());
@@ -63,6 +109,18 @@ public class MatriculaController {
         return new ResponseEntity<>(matriculas, HttpStatus.OK);
     }
 
+    @GetMapping("/listarMatriculasPorAlumnoPaginado/{cedula}")
+    public ResponseEntity<Pagina<MatriculaAlumnoDto>> listarMatriculasPorAlumnoPaginado(
+            @PathVariable("cedula") String cedula,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Listando matrículas paginadas para alumno con cédula {}: limit {}, after {}", cedula, limit, after);
+        Pagina<MatriculaAlumnoDto> pagina = matriculaService.listarMatriculasPorAlumnoPaginado(cedula, after, limit);
+        logger.info("Página de matrículas por alumno obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? () -> matriculaService.contarMatriculasPorAlumno(cedula) : null);
+    }
+
     @GetMapping("/listarMatriculasPorAlumnoYCiclo/{idAlumno}/{idCiclo}")
     public ResponseEntity<List<MatriculaAlumnoDto>> listarMatriculasPorAlumnoYCiclo(
             @PathVariable("idAlumno") Long idAlumno,
@@ -81,6 +139,18 @@ public class MatriculaController {
         return new ResponseEntity<>(matriculas, HttpStatus.OK);
     }
 
+    @GetMapping("/listarMatriculasPorGrupoPaginado/{idGrupo}")
+    public ResponseEntity<Pagina<MatriculaAlumnoDto>> listarMatriculasPorGrupoPaginado(
+            @PathVariable("idGrupo") Long idGrupo,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Listando matrículas paginadas para grupo {}: limit {}, after {}", idGrupo, limit, after);
+        Pagina<MatriculaAlumnoDto> pagina = matriculaService.listarMatriculasPorGrupoPaginado(idGrupo, after, limit);
+        logger.info("Página de matrículas por grupo obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? () -> matriculaService.contarMatriculasPorGrupo(idGrupo) : null);
+    }
+
     @GetMapping("/existeMatricula")
     public ResponseEntity<Boolean> existeMatriculaPorAlumnoYGrupo(
             @RequestParam("idAlumno") Long idAlumno,
@@ -108,4 +178,12 @@ public class MatriculaController {
         logger.info("Matrícula encontrada para grupo: {}", idGrupo);
         return new ResponseEntity<>(matricula, HttpStatus.OK);
     }
+
+    @GetMapping("/kardex/{cedula}")
+    public ResponseEntity<KardexDto> kardex(@PathVariable("cedula") String cedula) {
+        logger.debug("Consultando kardex del alumno con cédula: {}", cedula);
+        KardexDto kardex = kardexService.kardexPorAlumno(cedula);
+        logger.info("Kardex del alumno {}: {} ciclos, promedio {}", cedula, kardex.getCiclos().size(), kardex.getPromedio());
+        return new ResponseEntity<>(kardex, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,65 @@
+package org.example.sistemaacademico.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Construye respuestas en formato NDJSON (un objeto JSON por línea) que se escriben
+ * a medida que el servicio recorre el cursor, sin armar una lista intermedia en memoria.
+ * Un listado vacío produce una respuesta 200 sin cuerpo.
+ */
+@Component
+public class NdjsonStream {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    /**
+     * Origen de filas: recibe el consumidor que escribe cada fila en la respuesta.
+     */
+    @FunctionalInterface
+    public interface Fuente {
+        void recorrer(Consumer<Object> consumidor);
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public NdjsonStream(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // El contenedor vacía su búfer por bloques; forzar flush por fila generaría un chunk HTTP por fila
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public ResponseEntity<StreamingResponseBody> respuesta(Fuente fuente) {
+        StreamingResponseBody cuerpo = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                fuente.recorrer(fila -> escribir(generator, fila));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(cuerpo);
+    }
+
+    private void escribir(JsonGenerator generator, Object fila) {
+        try {
+            writer.writeValue(generator, fila);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
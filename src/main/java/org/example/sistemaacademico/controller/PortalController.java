@@ -0,0 +1,33 @@
+package org.example.sistemaacademico.controller;
+
+import org.example.sistemaacademico.data.PortalService;
+import org.example.sistemaacademico.logic.dto.PortalAlumnoDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/portal")
+public class PortalController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortalController.class);
+    private final PortalService portalService;
+
+    public PortalController(PortalService portalService) {
+        this.portalService = portalService;
+    }
+
+    /**
+     * Datos del alumno, matrículas, ciclos y oferta del ciclo activo en una sola respuesta.
+     */
+    @GetMapping("/alumno/{cedula}")
+    public ResponseEntity<PortalAlumnoDto> portalAlumno(@PathVariable("cedula") String cedula) {
+        logger.debug("Armando portal del alumno con cédula: {}", cedula);
+        PortalAlumnoDto portal = portalService.portalAlumno(cedula);
+        logger.info("Portal del alumno {} armado: {} matrículas, {} cursos en oferta",
+                cedula, portal.getMatriculas().size(), portal.getOferta().size());
+        return new ResponseEntity<>(portal, HttpStatus.OK);
+    }
+}
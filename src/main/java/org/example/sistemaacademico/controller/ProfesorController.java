@@ -1,8 +1,12 @@
 package org.example.sistemaacademico.controller;
 
+import org.example.sistemaacademico.data.AgendaProfesores;
 import org.example.sistemaacademico.data.ProfesorService;
 import org.example.sistemaacademico.logic.Profesor;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.logic.dto.DisponibilidadProfesorDto;
+import org.example.sistemaacademico.logic.dto.Pagina;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -17,9 +21,11 @@ public class ProfesorController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProfesorController.class);
     private final ProfesorService profesorService;
+    private final AgendaProfesores agendaProfesores;
 
-    public ProfesorController(ProfesorService profesorService) {
+    public ProfesorController(ProfesorService profesorService, AgendaProfesores agendaProfesores) {
         this.profesorService = profesorService;
+        this.agendaProfesores = agendaProfesores;
     }
 
     @PostMapping("/insertar")
@@ -64,6 +70,17 @@ public class ProfesorController {
         return new ResponseEntity<>(profesores, HttpStatus.OK);
     }
 
+    @GetMapping("/listarPaginado")
+    public ResponseEntity<Pagina<Profesor>> listarPaginado(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        logger.debug("Listando profesores paginados: limit {}, after {}", limit, after);
+        Pagina<Profesor> pagina = profesorService.listarPaginado(after, limit);
+        logger.info("Página de profesores obtenida: {} elementos", pagina.getItems().size());
+        return Paginacion.respuesta(pagina, count ? profesorService::contar : null);
+    }
+
     @GetMapping("/buscarPorCedula")
     public ResponseEntity<Profesor> buscarPorCedula(@RequestParam("cedula") String cedula) {
         logger.debug("Buscando profesor por cédula: {}", cedula);
@@ -87,4 +104,18 @@ public class ProfesorController {
         logger.info("Profesor encontrado: nombre {}", nombre);
         return new ResponseEntity<>(profesor, HttpStatus.OK);
     }
+
+    /**
+     * Franjas libres del profesor por día en el ciclo indicado o, si no se indica, en el ciclo activo.
+     */
+    @GetMapping("/{cedula}/disponibilidad")
+    public ResponseEntity<DisponibilidadProfesorDto> disponibilidad(
+            @PathVariable("cedula") String cedula,
+            @RequestParam(value = "idCiclo", required = false) Long idCiclo) {
+        logger.debug("Consultando disponibilidad del profesor con cédula {} (ciclo {})", cedula, idCiclo);
+        DisponibilidadProfesorDto disponibilidad = agendaProfesores.disponibilidad(cedula, idCiclo);
+        logger.info("Disponibilidad del profesor con cédula {}: {} grupos asignados en el ciclo {}", cedula,
+                disponibilidad.getHorariosAsignados().size(), disponibilidad.getIdCiclo());
+        return new ResponseEntity<>(disponibilidad, HttpStatus.OK);
+    }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,9 +17,11 @@ public class UsuarioController {
 
     private static final Logger logger = LoggerFactory.getLogger(UsuarioController.class);
     private final UsuarioService usuarioService;
+    private final NdjsonStream ndjsonStream;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, NdjsonStream ndjsonStream) {
         this.usuarioService = usuarioService;
+        this.ndjsonStream = ndjsonStream;
     }
 
     @PostMapping("/insertar")
@@ -53,6 +56,17 @@ public class UsuarioController {
         return new ResponseEntity<>(usuarios, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/listar", produces = NdjsonStream.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        logger.debug("Listando todos los usuarios en modo streaming");
+        return ndjsonStream.respuesta(usuarioService::recorrer);
+    }
+
+    @GetMapping(value = "/listar", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> listarStreamPorParametro() {
+        return listarStream();
+    }
+
     @GetMapping("/buscarPorCedula")
     public ResponseEntity<Usuario> buscarPorCedula(@RequestParam("cedula") String cedula) {
         logger.debug("Buscando usuario por cédula: {}", cedula);
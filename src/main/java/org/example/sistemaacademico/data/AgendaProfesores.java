@@ -0,0 +1,241 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.Ciclo;
+import org.example.sistemaacademico.logic.Horario;
+import org.example.sistemaacademico.logic.Profesor;
+import org.example.sistemaacademico.logic.dto.DisponibilidadProfesorDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agenda en memoria de los grupos de cada profesor por ciclo, con sus horarios interpretados como franjas.
+ * <p>
+ * GrupoService reserva el horario antes de insertar o modificar un grupo: la verificación y la reserva se hacen
+ * juntas bajo la agenda del profesor, así que dos asignaciones simultáneas no pueden chocar entre sí. Después de
+ * la escritura la reserva se confirma con el id real o se descarta. La agenda se carga completa al iniciar y un
+ * grupo se relee de la base de datos cuando su escritura falla.
+ */
+@Component
+public class AgendaProfesores {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaProfesores.class);
+
+    private static final String AGENDA_PROFESORES = "{?=call agendaProfesores(?)}";
+    private static final String CICLO_POR_CARRERA_CURSO = "{?=call cicloPorCarreraCurso(?)}";
+
+    private record Clave(long idProfesor, long idCiclo) {
+    }
+
+    private record Asignacion(Long idGrupo, Clave clave, String horario) {
+    }
+
+    private final QueryEngine queryEngine;
+    private final ProfesorService profesorService;
+    private final CicloActivo cicloActivo;
+    private final int inicioJornada;
+    private final int finJornada;
+    // (profesor, ciclo) -> grupo -> horario; cada mapa interno se usa solo bajo el monitor del propio mapa
+    private final Map<Clave, Map<Long, Horario>> agendas = new ConcurrentHashMap<>();
+    private final Map<Long, Clave> claveDeGrupo = new ConcurrentHashMap<>();
+    // ids negativos para los grupos que aún no tienen id
+    private final AtomicLong provisionales = new AtomicLong();
+    private final ReentrantLock carga = new ReentrantLock();
+    private volatile boolean cargada;
+
+    @Autowired
+    public AgendaProfesores(QueryEngine queryEngine, ProfesorService profesorService, CicloActivo cicloActivo,
+                            @Value("${sistema.profesores.jornada-inicio:7}") int inicioJornada,
+                            @Value("${sistema.profesores.jornada-fin:22}") int finJornada) {
+        this.queryEngine = queryEngine;
+        this.profesorService = profesorService;
+        this.cicloActivo = cicloActivo;
+        this.inicioJornada = inicioJornada;
+        this.finJornada = finJornada;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            asegurarCarga();
+        } catch (GlobalException e) {
+            logger.warn("No se pudo cargar la agenda de profesores al iniciar; se reintentará en la primera consulta: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica que el horario no choque con otro grupo del profesor en el ciclo de la oferta y lo aparta.
+     *
+     * @param idGrupo el grupo que se modifica, o null si es nuevo
+     * @param horario el horario nuevo; al modificar, null conserva el que el grupo ya tiene guardado, igual que
+     *                modificarGrupo
+     * @return la reserva, que debe confirmarse o descartarse después de escribir el grupo
+     */
+    public Long reservar(Long idGrupo, Long idProfesor, Long idCarreraCurso, String horario) throws GlobalException {
+        asegurarCarga();
+        long idCiclo;
+        try {
+            idCiclo = queryEngine.queryForLong(CICLO_POR_CARRERA_CURSO, cs -> cs.setLong(2, idCarreraCurso));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al buscar el ciclo de la oferta: " + e.getMessage());
+        }
+        String texto = horario == null && idGrupo != null ? horarioGuardado(idGrupo) : horario;
+        Long reserva = idGrupo != null ? idGrupo : -provisionales.incrementAndGet();
+        Horario nuevo = Horario.parsear(texto);
+        Clave clave = new Clave(idProfesor, idCiclo);
+        Map<Long, Horario> agenda = agendas.computeIfAbsent(clave, c -> new HashMap<>());
+        synchronized (agenda) {
+            for (Map.Entry<Long, Horario> grupo : agenda.entrySet()) {
+                if (!grupo.getKey().equals(reserva) && grupo.getValue().chocaCon(nuevo)) {
+                    throw new GlobalException("El profesor ya tiene asignado el grupo " + describir(grupo.getKey())
+                            + " en ese horario (" + grupo.getValue().getTexto() + ").");
+                }
+            }
+            agenda.put(reserva, nuevo);
+        }
+        Clave anterior = claveDeGrupo.put(reserva, clave);
+        if (anterior != null && !anterior.equals(clave)) {
+            quitarDe(anterior, reserva);
+        }
+        return reserva;
+    }
+
+    /**
+     * El grupo reservado con un id provisional quedó insertado con idGrupo.
+     */
+    public void confirmar(Long reserva, Long idGrupo) {
+        if (reserva.equals(idGrupo)) {
+            return;
+        }
+        Clave clave = claveDeGrupo.remove(reserva);
+        if (clave == null) {
+            return;
+        }
+        Map<Long, Horario> agenda = agendas.get(clave);
+        synchronized (agenda) {
+            Horario horario = agenda.remove(reserva);
+            if (horario != null) {
+                agenda.put(idGrupo, horario);
+            }
+        }
+        claveDeGrupo.put(idGrupo, clave);
+    }
+
+    /**
+     * La escritura falló: quita la reserva y, si era un grupo existente, lo relee de la base de datos.
+     */
+    public void descartar(Long reserva) {
+        quitar(reserva);
+        if (reserva > 0) {
+            try {
+                cargar(reserva);
+            } catch (GlobalException e) {
+                logger.warn("No se pudo releer el grupo {} para la agenda de profesores: {}", reserva, e.getMessage());
+            }
+        }
+    }
+
+    public void quitar(Long idGrupo) {
+        Clave clave = claveDeGrupo.remove(idGrupo);
+        if (clave != null) {
+            quitarDe(clave, idGrupo);
+        }
+    }
+
+    /**
+     * Franjas libres del profesor en el ciclo (el activo si idCiclo es null) dentro de la jornada configurada.
+     */
+    public DisponibilidadProfesorDto disponibilidad(String cedula, Long idCiclo) throws GlobalException, NoDataException {
+        Profesor profesor = profesorService.buscarPorCedula(cedula);
+        Long ciclo = idCiclo;
+        if (ciclo == null) {
+            Ciclo activo = cicloActivo.requerido();
+            ciclo = activo.getIdCiclo();
+        }
+        asegurarCarga();
+        List<Horario> horarios;
+        Map<Long, Horario> agenda = agendas.get(new Clave(profesor.getIdProfesor(), ciclo));
+        if (agenda == null) {
+            horarios = List.of();
+        } else {
+            synchronized (agenda) {
+                horarios = new ArrayList<>(agenda.values());
+            }
+        }
+        Horario ocupado = Horario.union(horarios);
+        Map<String, List<String>> libres = new LinkedHashMap<>();
+        for (int dia = 0; dia < Horario.NOMBRES_DIAS.size(); dia++) {
+            libres.put(Horario.NOMBRES_DIAS.get(dia), ocupado.libres(dia, inicioJornada, finJornada));
+        }
+        return new DisponibilidadProfesorDto(cedula, ciclo, horarios.stream().map(Horario::getTexto).toList(), libres);
+    }
+
+    private void quitarDe(Clave clave, Long idGrupo) {
+        Map<Long, Horario> agenda = agendas.get(clave);
+        if (agenda != null) {
+            synchronized (agenda) {
+                agenda.remove(idGrupo);
+            }
+        }
+    }
+
+    private void asegurarCarga() throws GlobalException {
+        if (cargada) {
+            return;
+        }
+        carga.lock();
+        try {
+            if (!cargada) {
+                long grupos = cargar(null);
+                cargada = true;
+                logger.info("Agenda de profesores cargada: {} grupos", grupos);
+            }
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    private long cargar(Long idGrupo) throws GlobalException {
+        try {
+            return queryEngine.forEach(AGENDA_PROFESORES, cs -> cs.setObject(2, idGrupo, Types.NUMERIC),
+                    rs -> new Asignacion(rs.getLong("id_grupo"),
+                            new Clave(rs.getLong("pk_profesor"), rs.getLong("pk_ciclo")), rs.getString("horario")),
+                    asignacion -> {
+                        Map<Long, Horario> agenda = agendas.computeIfAbsent(asignacion.clave(), c -> new HashMap<>());
+                        synchronized (agenda) {
+                            agenda.put(asignacion.idGrupo(), Horario.parsear(asignacion.horario()));
+                        }
+                        claveDeGrupo.put(asignacion.idGrupo(), asignacion.clave());
+                    });
+        } catch (SQLException e) {
+            throw new GlobalException("Error al cargar la agenda de profesores: " + e.getMessage());
+        }
+    }
+
+    private String horarioGuardado(Long idGrupo) throws GlobalException {
+        try {
+            return queryEngine.queryForFirst(AGENDA_PROFESORES, cs -> cs.setLong(2, idGrupo),
+                    rs -> rs.getString("horario"));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al leer el horario del grupo: " + e.getMessage());
+        }
+    }
+
+    private static String describir(Long idGrupo) {
+        return idGrupo > 0 ? String.valueOf(idGrupo) : "en proceso de creación";
+    }
+}
@@ -1,8 +1,13 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.BatchExecutor;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
 import org.example.sistemaacademico.logic.Alumno;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,15 +15,18 @@ import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class AlumnoService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlumnoService.class);
 
-    private static final String INSERTAR_ALUMNO = "{call insertarAlumno(?,?,?,?,?,?)}";
+    private static final String INSERTAR_ALUMNO = "{call insertarAlumno(?,?,?,?,?,?,?)}";
+    // insertarAlumno confirma por sí mismo; el lote inserta directo para controlar la transacción por bloque
+    private static final String INSERTAR_ALUMNO_LOTE = "INSERT INTO Alumno (cedula, nombre, telefono, email, fecha_nacimiento, pk_carrera) VALUES (?, ?, ?, ?, ?, ?)";
     private static final String MODIFICAR_ALUMNO = "{call modificarAlumno(?,?,?,?,?,?,?)}";
     private static final String ELIMINAR_ALUMNO = "{call eliminarAlumno(?)}";
     private static final String ELIMINAR_ALUMNO_POR_CEDULA = "{call eliminarAlumnoPorCedula(?)}";
@@ -28,34 +36,79 @@ public class AlumnoService {
     private static final String BUSCAR_POR_NOMBRE = "{?=call buscarAlumnoPorNombre(?)}";
     private static final String BUSCAR_ALUMNOS_POR_CARRERA = "{?=call buscarAlumnosPorCarrera(?)}";
     private static final String BUSCAR_ALUMNOS_CON_OFERTA = "{?=call buscarAlumnosConOfertaEnCiclo(?)}";
+    private static final String LISTAR_ALUMNOS_PAGINA = "{?=call listarAlumnosPagina(?,?)}";
+    private static final String CONTAR_ALUMNOS = "{?=call contarAlumnos()}";
+    private static final String BUSCAR_ALUMNOS_POR_CARRERA_PAGINA = "{?=call buscarAlumnosPorCarreraPagina(?,?,?)}";
+    private static final String CONTAR_ALUMNOS_POR_CARRERA = "{?=call contarAlumnosPorCarrera(?)}";
+    private static final String EXISTE_USUARIO_POR_CEDULA = "{?=call existeUsuarioPorCedula(?)}";
+    private static final String EXISTE_MATRICULAS_POR_ALUMNO = "{?=call existeMatriculasPorAlumno(?)}";
+    private static final String BLOQUEO_ELIMINAR_ALUMNO = "{?=call bloqueoEliminarAlumno(?)}";
+    private static final String BLOQUEO_ELIMINAR_ALUMNO_POR_CEDULA = "{?=call bloqueoEliminarAlumnoPorCedula(?)}";
 
     private final DataSource dataSource;
-
-    private final UsuarioService usuarioService;
-    private final MatriculaService matriculaService;
+    private final QueryEngine queryEngine;
+    private final BatchExecutor batchExecutor;
+    private final IndiceNombresAlumno indiceNombres;
+    private final RegistroIdentidades identidades;
 
     @Autowired
-    public AlumnoService(DataSource dataSource, UsuarioService usuarioService, MatriculaService matriculaService) {
+    public AlumnoService(DataSource dataSource, QueryEngine queryEngine, BatchExecutor batchExecutor,
+                         IndiceNombresAlumno indiceNombres, RegistroIdentidades identidades) {
         this.dataSource = dataSource;
-        this.usuarioService = usuarioService;
-        this.matriculaService = matriculaService;
+        this.queryEngine = queryEngine;
+        this.batchExecutor = batchExecutor;
+        this.indiceNombres = indiceNombres;
+        this.identidades = identidades;
     }
 
     public void insertarAlumno(Alumno alumno) throws GlobalException, NoDataException {
+        if (identidades.conocida(RegistroIdentidades.Tabla.ALUMNO, alumno.getCedula(), alumno.getEmail())) {
+            throw new GlobalException("Cédula o correo duplicados.");
+        }
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(INSERTAR_ALUMNO)) {
             setAlumnoParameters(pstmt, alumno, false);
+            pstmt.registerOutParameter(7, Types.NUMERIC);
             int filasAfectadas = pstmt.executeUpdate();
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la inserción");
             }
+            alumno.setIdAlumno(pstmt.getLong(7));
+            identidades.registrar(RegistroIdentidades.Tabla.ALUMNO, alumno.getCedula(), alumno.getEmail());
         } catch (SQLException e) {
             logger.error("Error al insertar alumno: {}", e.getMessage(), e);
             handleSQLException(e, "Error al insertar alumno");
         }
+        // El índice guarda la instancia; se indexa una copia para que el objeto del request no lo altere
+        indiceNombres.poner(new Alumno(alumno.getIdAlumno(), alumno.getCedula(), alumno.getNombre(), alumno.getTelefono(),
+                alumno.getEmail(), alumno.getFechaNacimiento(), alumno.getPkCarrera()));
+    }
+
+    /**
+     * Inserta los alumnos en bloques sobre una sola conexión. Cada fila rechazada por los triggers
+     * o por restricciones únicas se reporta en su resultado sin detener el resto del lote.
+     */
+    public List<ResultadoLote> insertarAlumnosLote(List<Alumno> alumnos, Integer tamanoBloque) throws GlobalException {
+        if (alumnos == null || alumnos.isEmpty()) {
+            throw new GlobalException("La lista de alumnos no puede estar vacía.");
+        }
+        try {
+            List<ResultadoLote> resultados = batchExecutor.ejecutar(INSERTAR_ALUMNO_LOTE, alumnos, tamanoBloque,
+                    (ps, alumno) -> setAlumnoParameters(ps, alumno, false),
+                    e -> traducirSQLException(e, "Error al insertar alumno"));
+            identidades.registrarExitosas(RegistroIdentidades.Tabla.ALUMNO, alumnos, resultados,
+                    Alumno::getCedula, Alumno::getEmail);
+            return resultados;
+        } catch (SQLException e) {
+            logger.error("Error al insertar lote de alumnos: {}", e.getMessage(), e);
+            throw new GlobalException("Error al insertar lote de alumnos: " + e.getMessage());
+        } finally {
+            indiceNombres.invalidar();
+        }
     }
 
     public void modificarAlumno(Alumno alumno) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.ALUMNO, alumno.getIdAlumno(), null);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_ALUMNO)) {
             pstmt.setLong(1, alumno.getIdAlumno());
@@ -64,13 +117,16 @@ public class AlumnoService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la actualización");
             }
+            identidades.reemplazar(RegistroIdentidades.Tabla.ALUMNO, anterior, alumno.getCedula(), alumno.getEmail());
         } catch (SQLException e) {
             logger.error("Error al modificar alumno: {}", e.getMessage(), e);
             handleSQLException(e, "Error al modificar alumno");
         }
+        indexar(() -> buscarAlumnoPorId(alumno.getIdAlumno()));
     }
 
     public void eliminarAlumno(Long idAlumno) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.ALUMNO, idAlumno, null);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(ELIMINAR_ALUMNO)) {
             pstmt.setLong(1, idAlumno);
@@ -82,9 +138,12 @@ public class AlumnoService {
             logger.error("Error al eliminar alumno: {}", e.getMessage(), e);
             handleDeleteSQLException(e, "Error al eliminar alumno");
         }
+        identidades.quitar(RegistroIdentidades.Tabla.ALUMNO, anterior);
+        indiceNombres.quitar(idAlumno);
     }
 
     public void eliminarAlumnoPorCedula(String cedula) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.ALUMNO, null, cedula);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(ELIMINAR_ALUMNO_POR_CEDULA)) {
             pstmt.setString(1, cedula);
@@ -96,19 +155,14 @@ public class AlumnoService {
             logger.error("Error al eliminar alumno por cédula: {}", e.getMessage(), e);
             handleDeleteSQLException(e, "Error al eliminar alumno por cédula");
         }
+        identidades.quitar(RegistroIdentidades.Tabla.ALUMNO, anterior);
+        indiceNombres.quitarPorCedula(cedula);
     }
 
     public List<Alumno> listarAlumnos() throws GlobalException, NoDataException {
-        List<Alumno> alumnos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_ALUMNOS)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    alumnos.add(mapResultSetToAlumno(rs));
-                }
-            }
+        List<Alumno> alumnos;
+        try {
+            alumnos = queryEngine.queryForList(LISTAR_ALUMNOS, QueryEngine.SIN_PARAMETROS, AlumnoService::mapResultSetToAlumno);
         } catch (SQLException e) {
             logger.error("Error al listar alumnos: {}", e.getMessage(), e);
             throw new GlobalException("Error al listar alumnos: " + e.getMessage());
@@ -119,72 +173,84 @@ public class AlumnoService {
         return alumnos;
     }
 
+    /**
+     * Entrega cada alumno al consumidor a medida que se lee del cursor, sin materializar la lista.
+     */
+    public long recorrerAlumnos(Consumer<? super Alumno> consumidor) throws GlobalException {
+        try {
+            return queryEngine.forEach(LISTAR_ALUMNOS, QueryEngine.SIN_PARAMETROS, AlumnoService::mapResultSetToAlumno, consumidor);
+        } catch (SQLException e) {
+            logger.error("Error al recorrer alumnos: {}", e.getMessage(), e);
+            throw new GlobalException("Error al listar alumnos: " + e.getMessage());
+        }
+    }
+
+    public Pagina<Alumno> listarAlumnosPaginado(String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<Alumno> filas = queryEngine.queryForList(LISTAR_ALUMNOS_PAGINA, limite + 1, cs -> {
+                cs.setObject(2, despues, Types.NUMERIC);
+                cs.setInt(3, limite + 1);
+            }, AlumnoService::mapResultSetToAlumno);
+            return Paginacion.armar(filas, limite, Alumno::getIdAlumno);
+        } catch (SQLException e) {
+            logger.error("Error al listar alumnos paginados: {}", e.getMessage(), e);
+            throw new GlobalException("Error al listar alumnos paginados: " + e.getMessage());
+        }
+    }
+
+    public long contarAlumnos() throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_ALUMNOS, "alumnos", QueryEngine.SIN_PARAMETROS);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar alumnos: " + e.getMessage());
+        }
+    }
+
     public Alumno buscarAlumnoPorId(Long id) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_ID)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, id);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToAlumno(rs);
-                }
-            }
+        Alumno alumno;
+        try {
+            alumno = queryEngine.queryForFirst(BUSCAR_POR_ID, cs -> cs.setLong(2, id), AlumnoService::mapResultSetToAlumno);
         } catch (SQLException e) {
             logger.error("Error al buscar alumno por id: {}", e.getMessage(), e);
             throw new GlobalException("Error al buscar alumno por id: " + e.getMessage());
         }
-        throw new NoDataException("No se encontró alumno con id: " + id);
+        if (alumno == null) {
+            throw new NoDataException("No se encontró alumno con id: " + id);
+        }
+        return alumno;
     }
 
     public Alumno buscarAlumnoPorCedula(String cedula) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_CEDULA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, cedula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToAlumno(rs);
-                }
-            }
+        try {
+            return queryEngine.queryForFirst(BUSCAR_POR_CEDULA, cs -> cs.setString(2, cedula), AlumnoService::mapResultSetToAlumno);
         } catch (SQLException e) {
             logger.error("Error al buscar alumno por cédula: {}", e.getMessage(), e);
             throw new GlobalException("Error al buscar alumno por cédula: " + e.getMessage());
         }
-        return null;
     }
 
     public Alumno buscarAlumnoPorNombre(String nombre) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_NOMBRE)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, nombre);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToAlumno(rs);
-                }
-            }
+        try {
+            return queryEngine.queryForFirst(BUSCAR_POR_NOMBRE, cs -> cs.setString(2, nombre), AlumnoService::mapResultSetToAlumno);
         } catch (SQLException e) {
             logger.error("Error al buscar alumno por nombre: {}", e.getMessage(), e);
             throw new GlobalException("Error al buscar alumno por nombre: " + e.getMessage());
         }
-        return null;
+    }
+
+    /**
+     * Alumnos con nombre parecido al texto, ordenados por similitud; usa el índice de trigramas en memoria.
+     */
+    public Pagina<Alumno> buscarAlumnosPorNombreAproximado(String texto, String cursor, Integer limit) throws GlobalException {
+        return indiceNombres.buscar(texto, cursor, limit);
     }
 
     public List<Alumno> buscarAlumnosPorCarrera(Long carrera) throws GlobalException, NoDataException {
-        List<Alumno> alumnos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_ALUMNOS_POR_CARRERA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, carrera);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    alumnos.add(mapResultSetToAlumno(rs));
-                }
-            }
+        List<Alumno> alumnos;
+        try {
+            alumnos = queryEngine.queryForList(BUSCAR_ALUMNOS_POR_CARRERA, cs -> cs.setLong(2, carrera), AlumnoService::mapResultSetToAlumno);
         } catch (SQLException e) {
             logger.error("Error al buscar alumnos por carrera: {}", e.getMessage(), e);
             throw new GlobalException("Error al buscar alumnos por carrera: " + e.getMessage());
@@ -195,18 +261,34 @@ public class AlumnoService {
         return alumnos;
     }
 
+    public Pagina<Alumno> buscarAlumnosPorCarreraPaginado(Long carrera, String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<Alumno> filas = queryEngine.queryForList(BUSCAR_ALUMNOS_POR_CARRERA_PAGINA, limite + 1, cs -> {
+                cs.setLong(2, carrera);
+                cs.setObject(3, despues, Types.NUMERIC);
+                cs.setInt(4, limite + 1);
+            }, AlumnoService::mapResultSetToAlumno);
+            return Paginacion.armar(filas, limite, Alumno::getIdAlumno);
+        } catch (SQLException e) {
+            logger.error("Error al buscar alumnos por carrera paginados: {}", e.getMessage(), e);
+            throw new GlobalException("Error al buscar alumnos por carrera paginados: " + e.getMessage());
+        }
+    }
+
+    public long contarAlumnosPorCarrera(Long carrera) throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_ALUMNOS_POR_CARRERA, "alumnos:carrera:" + carrera, cs -> cs.setLong(2, carrera));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar alumnos por carrera: " + e.getMessage());
+        }
+    }
+
     public List<Alumno> alumnosConOfertaEnCiclo(Long idCiclo) throws GlobalException, NoDataException {
-        List<Alumno> alumnos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_ALUMNOS_CON_OFERTA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCiclo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    alumnos.add(mapResultSetToAlumno(rs));
-                }
-            }
+        List<Alumno> alumnos;
+        try {
+            alumnos = queryEngine.queryForList(BUSCAR_ALUMNOS_CON_OFERTA, cs -> cs.setLong(2, idCiclo), AlumnoService::mapResultSetToAlumno);
         } catch (SQLException e) {
             logger.error("Error al buscar alumnos con oferta en ciclo: {}", e.getMessage(), e);
             throw new GlobalException("Error al buscar alumnos con oferta en ciclo: " + e.getMessage());
@@ -219,76 +301,62 @@ public class AlumnoService {
 
     public boolean tieneUsuarioAsociado(String cedula) throws GlobalException {
         try {
-            usuarioService.buscarPorCedula(cedula);
-            return true;
-        } catch (NoDataException e) {
-            return false;
+            return queryEngine.existe(EXISTE_USUARIO_POR_CEDULA, cs -> cs.setString(2, cedula));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al verificar usuario del alumno: " + e.getMessage());
         }
     }
 
     public boolean tieneMatriculasAsociadas(Long idAlumno) throws GlobalException {
         try {
-            matriculaService.listarMatriculasPorAlumno(String.valueOf(idAlumno));
-            return true;
-        } catch (NoDataException e) {
-            return false;
+            return queryEngine.existe(EXISTE_MATRICULAS_POR_ALUMNO, cs -> cs.setLong(2, idAlumno));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al verificar matrículas del alumno: " + e.getMessage());
         }
     }
 
     // Métodos utilitarios
     public void verificarEliminar(Long idAlumno) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM Matricula WHERE pk_alumno = ? " +
-                             "UNION ALL " +
-                             "SELECT COUNT(*) FROM Usuario WHERE cedula = (SELECT cedula FROM Alumno WHERE id_alumno = ?) AND tipo = 'Alumno'")) {
-            pstmt.setLong(1, idAlumno);
-            pstmt.setLong(2, idAlumno);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el alumno: tiene matrículas asociadas.");
-                }
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el alumno: existe un usuario asociado.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_ALUMNO, cs -> cs.setLong(2, idAlumno));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de alumno: " + e.getMessage());
         }
+        rechazarEliminacion(bloqueo);
     }
 
     public void verificarEliminarPorCedula(String cedula) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM Matricula m JOIN Alumno a ON m.pk_alumno = a.id_alumno WHERE a.cedula = ? " +
-                             "UNION ALL " +
-                             "SELECT COUNT(*) FROM Usuario WHERE cedula = ? AND tipo = 'Alumno'")) {
-            pstmt.setString(1, cedula);
-            pstmt.setString(2, cedula);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el alumno: tiene matrículas asociadas.");
-                }
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el alumno: existe un usuario asociado.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_ALUMNO_POR_CEDULA, cs -> cs.setString(2, cedula));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de alumno por cédula: " + e.getMessage());
         }
+        rechazarEliminacion(bloqueo);
     }
 
-    private void setAlumnoParameters(CallableStatement pstmt, Alumno alumno, boolean isUpdate) throws SQLException {
+    // Códigos de bloqueoEliminarAlumno y bloqueoEliminarAlumnoPorCedula
+    private void rechazarEliminacion(long bloqueo) throws GlobalException {
+        if (bloqueo == 1) {
+            throw new GlobalException("No se puede eliminar el alumno: tiene matrículas asociadas.");
+        }
+        if (bloqueo == 2) {
+            throw new GlobalException("No se puede eliminar el alumno: existe un usuario asociado.");
+        }
+    }
+
+    private void setAlumnoParameters(PreparedStatement pstmt, Alumno alumno, boolean isUpdate) throws SQLException {
         int startIndex = isUpdate ? 2 : 1;
         pstmt.setString(startIndex, alumno.getCedula());
         pstmt.setString(startIndex + 1, alumno.getNombre());
         pstmt.setString(startIndex + 2, alumno.getTelefono());
         pstmt.setString(startIndex + 3, alumno.getEmail());
-        pstmt.setDate(startIndex + 4, Date.valueOf(alumno.getFechaNacimiento()));
-        pstmt.setLong(startIndex + 5, alumno.getPkCarrera());
+        pstmt.setDate(startIndex + 4, alumno.getFechaNacimiento() != null ? Date.valueOf(alumno.getFechaNacimiento()) : null);
+        pstmt.setObject(startIndex + 5, alumno.getPkCarrera(), Types.NUMERIC);
     }
 
-    private Alumno mapResultSetToAlumno(ResultSet rs) throws SQLException {
+    static Alumno mapResultSetToAlumno(ResultSet rs) throws SQLException {
         return new Alumno(
                 rs.getLong("id_alumno"),
                 rs.getString("cedula"),
@@ -300,18 +368,34 @@ public class AlumnoService {
         );
     }
 
+    // La escritura ya se confirmó: si no se puede releer el alumno, el índice se reconstruye en la siguiente búsqueda
+    private void indexar(Supplier<Alumno> lectura) {
+        try {
+            Alumno alumno = lectura.get();
+            if (alumno != null) {
+                indiceNombres.poner(alumno);
+            }
+        } catch (GlobalException | NoDataException e) {
+            logger.warn("No se pudo actualizar el índice de nombres de alumnos: {}", e.getMessage());
+            indiceNombres.invalidar();
+        }
+    }
+
     private void handleSQLException(SQLException e, String message) throws GlobalException {
-        int errorCode = e.getErrorCode();
-        String errorMessage = switch (errorCode) {
-            case -20021 -> "El nombre del alumno no puede estar vacío.";
-            case -20022 -> "El correo del alumno no tiene un formato válido.";
-            case -20023 -> "La fecha de nacimiento no puede ser futura.";
-            case -20036 -> "La cédula del alumno debe tener 9 dígitos numéricos.";
-            case -20037 -> "El teléfono del alumno debe tener 8 dígitos numéricos.";
+        throw new GlobalException(traducirSQLException(e, message));
+    }
+
+    private String traducirSQLException(SQLException e, String message) {
+        int errorCode = Math.abs(e.getErrorCode());
+        return switch (errorCode) {
+            case 20021 -> "El nombre del alumno no puede estar vacío.";
+            case 20022 -> "El correo del alumno no tiene un formato válido.";
+            case 20023 -> "La fecha de nacimiento no puede ser futura.";
+            case 20036 -> "La cédula del alumno debe tener 9 dígitos numéricos.";
+            case 20037 -> "El teléfono del alumno debe tener 8 dígitos numéricos.";
             case 1 -> "Cédula o correo duplicados.";
             default -> message + ": " + e.getMessage();
         };
-        throw new GlobalException(errorMessage);
     }
 
 
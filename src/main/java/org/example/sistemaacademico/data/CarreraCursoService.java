@@ -1,7 +1,10 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.database.TablaCatalogo;
 import org.example.sistemaacademico.logic.CarreraCurso;
 import org.example.sistemaacademico.logic.dto.CursoDto;
 import org.slf4j.Logger;
@@ -11,8 +14,8 @@ import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class CarreraCursoService {
@@ -25,15 +28,19 @@ public class CarreraCursoService {
     private static final String BUSCAR_CURSOS_POR_CARRERA = "{?=call buscarCursosPorCarrera(?)}";
     private static final String BUSCAR_CURSOS_POR_CARRERA_Y_CICLO = "{?=call buscarCursosPorCarreraYCiclo(?,?)}";
     private static final String LISTAR_CARRERA_CURSO = "{?=call listarCarreraCurso()}";
+    private static final String EXISTE_GRUPOS_POR_CARRERA_CURSO = "{?=call existeGruposPorCarreraCurso(?,?)}";
 
     private final DataSource dataSource;
-
-    private final GrupoService grupoService;
+    private final QueryEngine queryEngine;
+    private final TablaCatalogo<CarreraCurso> relaciones;
 
     @Autowired
-    public CarreraCursoService(DataSource dataSource, GrupoService grupoService) {
+    public CarreraCursoService(DataSource dataSource, QueryEngine queryEngine, CatalogoCache catalogoCache) {
         this.dataSource = dataSource;
-        this.grupoService = grupoService;
+        this.queryEngine = queryEngine;
+        this.relaciones = catalogoCache.registrar(CatalogoCache.CARRERA_CURSO,
+                () -> queryEngine.queryForList(LISTAR_CARRERA_CURSO, QueryEngine.SIN_PARAMETROS, this::mapResultSetToCarreraCurso),
+                CarreraCurso::getIdCarreraCurso, null);
     }
 
     public void insertar(CarreraCurso carreraCurso) throws GlobalException, NoDataException {
@@ -46,6 +53,7 @@ public class CarreraCursoService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la inserción de la relación Carrera-Curso");
             }
+            relaciones.invalidar();
         } catch (SQLException e) {
             logger.error("Error al insertar relación Carrera-Curso: {}", e.getMessage(), e);
             handleSQLException(e, "Error al insertar relación Carrera-Curso");
@@ -61,6 +69,7 @@ public class CarreraCursoService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó el borrado: la relación Carrera-Curso no existe");
             }
+            relaciones.invalidar();
         } catch (SQLException e) {
             logger.error("Error al eliminar relación Carrera-Curso: {}", e.getMessage(), e);
             handleDeleteSQLException(e);
@@ -77,6 +86,7 @@ public class CarreraCursoService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la actualización de la relación Carrera-Curso");
             }
+            relaciones.invalidar();
         } catch (SQLException e) {
             logger.error("Error al modificar relación Carrera-Curso: {}", e.getMessage(), e);
             handleSQLException(e, "Error al modificar relación Carrera-Curso");
@@ -88,35 +98,31 @@ public class CarreraCursoService {
             throw new GlobalException("El ID de la carrera no puede ser nulo.");
         }
 
-        List<CursoDto> cursos = new ArrayList<>();
+        List<CursoDto> cursos;
         String query = (idCiclo != null) ? BUSCAR_CURSOS_POR_CARRERA_Y_CICLO : BUSCAR_CURSOS_POR_CARRERA;
 
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(query)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCarrera);
-            if (idCiclo != null) {
-                pstmt.setLong(3, idCiclo);
-            }
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    CursoDto curso = new CursoDto();
-                    curso.setIdCurso(rs.getLong("id_curso"));
-                    curso.setCodigo(rs.getString("codigo"));
-                    curso.setNombre(rs.getString("nombre"));
-                    curso.setCreditos(rs.getLong("creditos"));
-                    curso.setHorasSemanales(rs.getLong("horas_semanales"));
-                    curso.setIdCarreraCurso(rs.getLong("id_carrera_curso"));
-                    // Campos adicionales para buscarCursosPorCarrera
-                    if (idCiclo == null) {
-                        curso.setAnio(rs.getLong("anio"));
-                        curso.setNumero(rs.getLong("numero"));
-                        curso.setIdCiclo(rs.getLong("id_ciclo"));
-                    }
-                    cursos.add(curso);
+        try {
+            cursos = queryEngine.queryForList(query, cs -> {
+                cs.setLong(2, idCarrera);
+                if (idCiclo != null) {
+                    cs.setLong(3, idCiclo);
                 }
-            }
+            }, rs -> {
+                CursoDto curso = new CursoDto();
+                curso.setIdCurso(rs.getLong("id_curso"));
+                curso.setCodigo(rs.getString("codigo"));
+                curso.setNombre(rs.getString("nombre"));
+                curso.setCreditos(rs.getLong("creditos"));
+                curso.setHorasSemanales(rs.getLong("horas_semanales"));
+                curso.setIdCarreraCurso(rs.getLong("id_carrera_curso"));
+                // Campos adicionales para buscarCursosPorCarrera
+                if (idCiclo == null) {
+                    curso.setAnio(rs.getLong("anio"));
+                    curso.setNumero(rs.getLong("numero"));
+                    curso.setIdCiclo(rs.getLong("id_ciclo"));
+                }
+                return curso;
+            });
         } catch (SQLException e) {
             logger.error("Error al buscar cursos por carrera {} y ciclo {}: {}", idCarrera, idCiclo, e.getMessage(), e);
             throw new GlobalException("Error al buscar cursos por carrera y ciclo: " + e.getMessage());
@@ -128,16 +134,9 @@ public class CarreraCursoService {
     }
 
     public List<CarreraCurso> listar() throws GlobalException, NoDataException {
-        List<CarreraCurso> lista = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_CARRERA_CURSO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    lista.add(mapResultSetToCarreraCurso(rs));
-                }
-            }
+        List<CarreraCurso> lista;
+        try {
+            lista = relaciones.listar();
         } catch (SQLException e) {
             throw new GlobalException("Error al listar relaciones Carrera-Curso: " + e.getMessage());
         }
@@ -147,12 +146,27 @@ public class CarreraCursoService {
         return lista;
     }
 
+    /**
+     * Entrega cada relación Carrera-Curso al consumidor desde el catálogo en memoria.
+     */
+    public long recorrer(Consumer<? super CarreraCurso> consumidor) throws GlobalException {
+        try {
+            List<CarreraCurso> lista = relaciones.listar();
+            lista.forEach(consumidor);
+            return lista.size();
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar relaciones Carrera-Curso: " + e.getMessage());
+        }
+    }
+
     public boolean tieneGruposAsociados(Long idCarrera, Long idCurso) throws GlobalException {
         try {
-            grupoService.buscarGruposPorCarreraCurso(idCarrera, idCurso);
-            return true;
-        } catch (NoDataException e) {
-            return false;
+            return queryEngine.existe(EXISTE_GRUPOS_POR_CARRERA_CURSO, cs -> {
+                cs.setLong(2, idCarrera);
+                cs.setLong(3, idCurso);
+            });
+        } catch (SQLException e) {
+            throw new GlobalException("Error al verificar grupos de la relación Carrera-Curso: " + e.getMessage());
         }
     }
 
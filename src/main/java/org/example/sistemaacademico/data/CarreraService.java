@@ -1,7 +1,11 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.Autocompletado;
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.database.TablaCatalogo;
 import org.example.sistemaacademico.logic.Carrera;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +14,6 @@ import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -23,24 +26,28 @@ public class CarreraService {
     private static final String MODIFICAR_CARRERA = "{call modificarCarrera(?,?,?,?)}";
     private static final String ELIMINAR_CARRERA = "{call eliminarCarrera(?)}";
     private static final String LISTAR_CARRERAS = "{?=call listarCarreras()}";
-    private static final String BUSCAR_CARRERA_POR_CODIGO = "{?=call buscarCarreraPorCodigo(?)}";
     private static final String BUSCAR_CARRERA_POR_NOMBRE = "{?=call buscarCarreraPorNombre(?)}";
     private static final String INSERTAR_CURSO_A_CARRERA = "{call insertarCursoACarrera(?,?,?)}";
     private static final String ELIMINAR_CURSO_DE_CARRERA = "{call eliminarCursoDeCarrera(?,?)}";
     private static final String MODIFICAR_ORDEN_CURSO_CARRERA = "{call modificarOrdenCursoCarrera(?,?,?)}";
+    private static final String EXISTE_CURSOS_POR_CARRERA = "{?=call existeCursosPorCarrera(?)}";
+    private static final String EXISTE_ALUMNOS_POR_CARRERA = "{?=call existeAlumnosPorCarrera(?)}";
+    private static final String EXISTE_GRUPOS_POR_CARRERA_CURSO = "{?=call existeGruposPorCarreraCurso(?,?)}";
+    private static final String BLOQUEO_ELIMINAR_CARRERA = "{?=call bloqueoEliminarCarrera(?)}";
 
     private final DataSource dataSource;
-
-    private final AlumnoService alumnoService;
-    private final CarreraCursoService carreraCursoService;
-    private final GrupoService grupoService;
+    private final QueryEngine queryEngine;
+    private final CatalogoCache catalogoCache;
+    private final TablaCatalogo<Carrera> carreras;
 
     @Autowired
-    public CarreraService(DataSource dataSource, AlumnoService alumnoService, CarreraCursoService carreraCursoService, GrupoService grupoService) {
+    public CarreraService(DataSource dataSource, QueryEngine queryEngine, CatalogoCache catalogoCache) {
         this.dataSource = dataSource;
-        this.alumnoService = alumnoService;
-        this.carreraCursoService = carreraCursoService;
-        this.grupoService = grupoService;
+        this.queryEngine = queryEngine;
+        this.catalogoCache = catalogoCache;
+        this.carreras = catalogoCache.registrar(CatalogoCache.CARRERAS,
+                () -> queryEngine.queryForList(LISTAR_CARRERAS, QueryEngine.SIN_PARAMETROS, this::mapResultSetToCarrera),
+                Carrera::getIdCarrera, Carrera::getCodigo, c -> Autocompletado.codigoYNombre(c.getCodigo(), c.getNombre()));
     }
 
     public void insertarCarrera(Carrera carrera) throws GlobalException, NoDataException {
@@ -53,6 +60,7 @@ public class CarreraService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la inserción");
             }
+            recargarCarreras();
         } catch (SQLException e) {
             logger.error("Error al insertar carrera: {}", e.getMessage(), e);
             handleSQLException(e, "Error al insertar carrera");
@@ -70,6 +78,7 @@ public class CarreraService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la actualización");
             }
+            recargarCarreras();
         } catch (SQLException e) {
             logger.error("Error al modificar carrera: {}", e.getMessage(), e);
             handleSQLException(e, "Error al modificar carrera");
@@ -84,6 +93,7 @@ public class CarreraService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó el borrado: la carrera no existe");
             }
+            carreras.quitar(idCarrera);
         } catch (SQLException e) {
             logger.error("Error al eliminar carrera: {}", e.getMessage(), e);
             handleDeleteSQLException(e, "Error al eliminar carrera");
@@ -91,57 +101,44 @@ public class CarreraService {
     }
 
     public List<Carrera> listarCarreras() throws GlobalException, NoDataException {
-        List<Carrera> carreras = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_CARRERAS)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    carreras.add(mapResultSetToCarrera(rs));
-                }
-            }
+        List<Carrera> lista;
+        try {
+            lista = carreras.listar();
         } catch (SQLException e) {
             throw new GlobalException("Error al listar carreras: " + e.getMessage());
         }
-        if (carreras.isEmpty()) {
+        if (lista.isEmpty()) {
             throw new NoDataException("No hay carreras registradas");
         }
-        return carreras;
+        return lista;
+    }
+
+    /**
+     * Hasta limit carreras cuyo código o nombre empieza con el prefijo, servidos desde el trie del catálogo.
+     */
+    public List<Carrera> autocompletarCarreras(String prefijo, Integer limit) throws GlobalException {
+        int limite = Autocompletado.limite(limit);
+        try {
+            return carreras.autocompletar(prefijo, limite);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al autocompletar carreras: " + e.getMessage());
+        }
     }
 
     public Carrera buscarCarreraPorCodigo(String codigo) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CARRERA_POR_CODIGO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, codigo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToCarrera(rs);
-                }
-            }
+        try {
+            return carreras.porCodigo(codigo);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar carrera por código: " + e.getMessage());
         }
-        return null;
     }
 
     public Carrera buscarCarreraPorNombre(String nombre) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CARRERA_POR_NOMBRE)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, nombre);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToCarrera(rs);
-                }
-            }
+        try {
+            return queryEngine.queryForFirst(BUSCAR_CARRERA_POR_NOMBRE, cs -> cs.setString(2, nombre), this::mapResultSetToCarrera);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar carrera por nombre: " + e.getMessage());
         }
-        return null;
     }
 
     public void insertarCursoACarrera(Long carreraId, Long cursoId, Long cicloId) throws GlobalException, NoDataException {
@@ -154,6 +151,7 @@ public class CarreraService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la inserción");
             }
+            catalogoCache.invalidar(CatalogoCache.CARRERA_CURSO);
         } catch (SQLException e) {
             logger.error("Error al insertar curso en carrera: {}", e.getMessage(), e);
             handleSQLException(e, "Error al insertar curso en carrera");
@@ -169,6 +167,7 @@ public class CarreraService {
             if (resultado == 0) {
                 throw new NoDataException("No se realizó el borrado: relación no encontrada");
             }
+            catalogoCache.invalidar(CatalogoCache.CARRERA_CURSO);
         } catch (SQLException e) {
             handleDeleteSQLException(e, "Error al eliminar curso de carrera");
         }
@@ -184,6 +183,7 @@ public class CarreraService {
             if (filasAfectadas == 0) {
                 throw new NoDataException("No se realizó la actualización");
             }
+            catalogoCache.invalidar(CatalogoCache.CARRERA_CURSO);
         } catch (SQLException e) {
             logger.error("Error al modificar ciclo de curso en carrera: {}", e.getMessage(), e);
             handleSQLException(e, "Error al modificar ciclo de curso en carrera");
@@ -191,29 +191,42 @@ public class CarreraService {
     }
 
     public boolean tieneCursosAsociados(Long idCarrera) throws GlobalException {
-        try {
-            carreraCursoService.buscarCursosPorCarreraYCiclo(idCarrera, null);
-            return true;
-        } catch (NoDataException e) {
-            return false;
-        }
+        return existe(EXISTE_CURSOS_POR_CARRERA, cs -> cs.setLong(2, idCarrera), "Error al verificar cursos de la carrera");
     }
 
     public boolean tieneAlumnosAsociados(Long idCarrera) throws GlobalException {
+        return existe(EXISTE_ALUMNOS_POR_CARRERA, cs -> cs.setLong(2, idCarrera), "Error al verificar alumnos de la carrera");
+    }
+
+    public boolean tieneGruposAsociados(Long idCarrera, Long idCurso) throws GlobalException {
+        return existe(EXISTE_GRUPOS_POR_CARRERA_CURSO, cs -> {
+            cs.setLong(2, idCarrera);
+            cs.setLong(3, idCurso);
+        }, "Error al verificar grupos del curso en la carrera");
+    }
+
+    // Métodos utilitarios
+
+    public void verificarEliminar(Long idCarrera) throws GlobalException, NoDataException {
+        long bloqueo;
         try {
-            alumnoService.buscarAlumnosPorCarrera(idCarrera);
-            return true;
-        } catch (NoDataException e) {
-            return false;
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_CARRERA, cs -> cs.setLong(2, idCarrera));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al verificar eliminación de carrera: " + e.getMessage());
+        }
+        if (bloqueo == 1) {
+            throw new GlobalException("No se puede eliminar carrera: tiene cursos asociados.");
+        }
+        if (bloqueo == 2) {
+            throw new GlobalException("No se puede eliminar carrera: tiene alumnos inscritos.");
         }
     }
 
-    public boolean tieneGruposAsociados(Long idCarrera, Long idCurso) throws GlobalException {
+    private boolean existe(String call, QueryEngine.ParameterBinder binder, String mensaje) throws GlobalException {
         try {
-            grupoService.buscarGruposPorCarreraCurso(idCarrera, idCurso);
-            return true;
-        } catch (NoDataException e) {
-            return false;
+            return queryEngine.existe(call, binder);
+        } catch (SQLException e) {
+            throw new GlobalException(mensaje + ": " + e.getMessage());
         }
     }
 
@@ -226,6 +239,15 @@ public class CarreraService {
         );
     }
 
+    // La escritura ya se confirmó; si la recarga falla, la siguiente lectura del catálogo la reintenta
+    private void recargarCarreras() {
+        try {
+            carreras.recargar();
+        } catch (SQLException e) {
+            logger.warn("No se pudo recargar el catálogo de carreras: {}", e.getMessage());
+        }
+    }
+
     private void handleSQLException(SQLException e, String message) throws GlobalException {
         int errorCode = Math.abs(e.getErrorCode());
         String errorMessage = switch (errorCode) {
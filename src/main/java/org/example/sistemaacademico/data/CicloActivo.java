@@ -0,0 +1,101 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.Ciclo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ciclo activo resuelto una sola vez y compartido por las consultas del "ciclo actual".
+ * Se carga al iniciar la aplicación y CicloService lo recarga después de cada escritura
+ * confirmada sobre Ciclo (si la recarga falla, lo invalida y la siguiente consulta lo vuelve a leer);
+ * las consultas reciben el id como parámetro en lugar de buscar estado = 'Activo' en cada llamada.
+ */
+@Component
+public class CicloActivo {
+
+    private static final Logger logger = LoggerFactory.getLogger(CicloActivo.class);
+    private static final String BUSCAR_CICLO_ACTIVO = "{?=call buscarCicloActivo()}";
+
+    private final QueryEngine queryEngine;
+    // null: aún no cargado; vacío: no hay ciclo activo
+    private final AtomicReference<Optional<Ciclo>> actual = new AtomicReference<>();
+    private final ReentrantLock recarga = new ReentrantLock();
+    // Cambia con cada invalidación; una lectura que empezó antes no se publica
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public CicloActivo(QueryEngine queryEngine) {
+        this.queryEngine = queryEngine;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            recargar();
+        } catch (GlobalException e) {
+            logger.warn("No se pudo cargar el ciclo activo al iniciar; se reintentará en la primera consulta: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return el ciclo activo, o null si ningún ciclo está activo
+     */
+    public Ciclo obtener() throws GlobalException {
+        Optional<Ciclo> ciclo = actual.get();
+        if (ciclo == null) {
+            ciclo = recargar();
+        }
+        return ciclo.orElse(null);
+    }
+
+    public Ciclo requerido() throws GlobalException, NoDataException {
+        Ciclo ciclo = obtener();
+        if (ciclo == null) {
+            throw new NoDataException("No hay un ciclo activo");
+        }
+        return ciclo;
+    }
+
+    /**
+     * Descarta el ciclo publicado; la siguiente consulta lo vuelve a leer.
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        actual.set(null);
+    }
+
+    /**
+     * Vuelve a leer el ciclo activo y lo publica de forma atómica. Las recargas se serializan
+     * para que una lectura anterior no reemplace a una posterior.
+     */
+    public Optional<Ciclo> recargar() throws GlobalException {
+        recarga.lock();
+        try {
+            long versionInicial = version.get();
+            Optional<Ciclo> ciclo = Optional.ofNullable(
+                    queryEngine.queryForFirst(BUSCAR_CICLO_ACTIVO, QueryEngine.SIN_PARAMETROS, CicloService::mapResultSetToCiclo));
+            if (version.get() == versionInicial) {
+                actual.set(ciclo);
+            }
+            logger.info("Ciclo activo: {}", ciclo.map(c -> c.getAnio() + "-" + c.getNumero() + " (id " + c.getIdCiclo() + ")").orElse("ninguno"));
+            return ciclo;
+        } catch (SQLException e) {
+            throw new GlobalException("Error al cargar el ciclo activo: " + e.getMessage());
+        } finally {
+            recarga.unlock();
+        }
+    }
+}
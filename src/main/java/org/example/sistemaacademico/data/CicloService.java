@@ -1,32 +1,48 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.database.TablaCatalogo;
 import org.example.sistemaacademico.logic.Ciclo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class CicloService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CicloService.class);
+
     private static final String INSERTAR_CICLO = "{call insertarCiclo(?,?,?,?,?)}";
     private static final String MODIFICAR_CICLO = "{call modificarCiclo(?,?,?,?,?,?)}";
     private static final String ELIMINAR_CICLO = "{call eliminarCiclo(?)}";
     private static final String LISTAR_CICLOS = "{?=call listarCiclos()}";
-    private static final String BUSCAR_POR_ANNIO = "{?=call buscarCicloPorAnnio(?)}";
     private static final String ACTIVAR_CICLO = "{call activarCiclo(?)}";
-    private static final String BUSCAR_POR_ID = "{?=call buscarCicloPorId(?)}";
+    private static final String BLOQUEO_ELIMINAR_CICLO = "{?=call bloqueoEliminarCiclo(?)}";
 
     private final DataSource dataSource;
+    private final QueryEngine queryEngine;
+    private final TablaCatalogo<Ciclo> ciclos;
+    private final CicloActivo cicloActivo;
+    private final KardexService kardexService;
 
     @Autowired
-    public CicloService(DataSource dataSource) {
+    public CicloService(DataSource dataSource, QueryEngine queryEngine, CatalogoCache catalogoCache, CicloActivo cicloActivo,
+                        KardexService kardexService) {
         this.dataSource = dataSource;
+        this.queryEngine = queryEngine;
+        this.cicloActivo = cicloActivo;
+        this.kardexService = kardexService;
+        this.ciclos = catalogoCache.registrar(CatalogoCache.CICLOS,
+                () -> queryEngine.queryForList(LISTAR_CICLOS, QueryEngine.SIN_PARAMETROS, CicloService::mapResultSetToCiclo),
+                Ciclo::getIdCiclo, null);
     }
 
     public void insertarCiclo(Ciclo ciclo) throws GlobalException, NoDataException {
@@ -41,9 +57,11 @@ public class CicloService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la inserción del ciclo");
             }
+            ciclos.invalidar();
         } catch (SQLException e) {
             handleSQLException(e, "Error al insertar ciclo");
         }
+        recargarCicloActivo();
     }
 
     public void modificarCiclo(Ciclo ciclo) throws GlobalException, NoDataException {
@@ -59,9 +77,15 @@ public class CicloService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la actualización del ciclo");
             }
+            // modificarCiclo conserva el estado cuando llega null; las demás columnas son obligatorias
+            ciclos.reemplazar(ciclo.getIdCiclo(), anterior -> new Ciclo(ciclo.getIdCiclo(), ciclo.getAnio(),
+                    ciclo.getNumero(), ciclo.getFechaInicio(), ciclo.getFechaFin(),
+                    ciclo.getEstado() == null ? anterior.getEstado() : ciclo.getEstado()));
         } catch (SQLException e) {
             handleSQLException(e, "Error al modificar ciclo");
         }
+        kardexService.invalidar();
+        recargarCicloActivo();
     }
 
     public void eliminarCiclo(Long idCiclo) throws GlobalException, NoDataException {
@@ -72,63 +96,48 @@ public class CicloService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó el borrado: el ciclo no existe");
             }
+            ciclos.quitar(idCiclo);
         } catch (SQLException e) {
             handleSQLException(e, "Error al eliminar ciclo");
         }
+        kardexService.invalidar();
+        recargarCicloActivo();
     }
 
     public List<Ciclo> listarCiclos() throws GlobalException, NoDataException {
-        List<Ciclo> ciclos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_CICLOS)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    ciclos.add(mapResultSetToCiclo(rs));
-                }
-            }
+        List<Ciclo> lista;
+        try {
+            lista = ciclos.listar();
         } catch (SQLException e) {
             throw new GlobalException("Error al listar ciclos: " + e.getMessage());
         }
-        if (ciclos.isEmpty()) {
+        if (lista.isEmpty()) {
             throw new NoDataException("No hay ciclos registrados");
         }
-        return ciclos;
+        return lista;
     }
 
     public Ciclo buscarCicloPorAnio(Long anio) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_ANNIO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, anio);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToCiclo(rs);
-                }
-            }
+        try {
+            return ciclos.primero(ciclo -> anio != null && anio.equals(ciclo.getAnio()));
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar ciclo por año: " + e.getMessage());
         }
-        return null;
     }
 
     public Ciclo buscarCicloPorId(Long id) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_ID)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, id);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToCiclo(rs);
-                }
-            }
+        try {
+            return ciclos.porId(id);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar ciclo por ID: " + e.getMessage());
         }
-        return null;
+    }
+
+    /**
+     * Ciclo activo desde el contexto compartido, sin consultar la base de datos.
+     */
+    public Ciclo buscarCicloActivo() throws GlobalException, NoDataException {
+        return cicloActivo.requerido();
     }
 
     public void activarCiclo(Long idCiclo) throws GlobalException, NoDataException {
@@ -139,28 +148,39 @@ public class CicloService {
             if (filas == 0) {
                 throw new NoDataException("No se activó el ciclo: ID no válido");
             }
+            ciclos.invalidar();
         } catch (SQLException e) {
             handleSQLException(e, "Error al activar ciclo");
         }
+        kardexService.invalidar();
+        recargarCicloActivo();
     }
 
     // Métodos utilitarios
 
+    // La escritura ya se confirmó: si la recarga falla no se reporta como error, el ciclo activo se invalida y se lee en la siguiente consulta
+    private void recargarCicloActivo() {
+        try {
+            cicloActivo.recargar();
+        } catch (GlobalException e) {
+            cicloActivo.invalidar();
+            logger.warn("No se pudo recargar el ciclo activo; se leerá en la siguiente consulta: {}", e.getMessage());
+        }
+    }
+
     public void verificarEliminar(Long idCiclo) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Carrera_Curso WHERE pk_ciclo = ?")) {
-            pstmt.setLong(1, idCiclo);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el ciclo: tiene cursos asociados.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_CICLO, cs -> cs.setLong(2, idCiclo));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de ciclo: " + e.getMessage());
         }
+        if (bloqueo == 1) {
+            throw new GlobalException("No se puede eliminar el ciclo: tiene cursos asociados.");
+        }
     }
 
-    private Ciclo mapResultSetToCiclo(ResultSet rs) throws SQLException {
+    static Ciclo mapResultSetToCiclo(ResultSet rs) throws SQLException {
         return new Ciclo(
                 rs.getLong("id_ciclo"),
                 rs.getLong("anio"),
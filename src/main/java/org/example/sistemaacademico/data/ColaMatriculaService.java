@@ -0,0 +1,287 @@
+package org.example.sistemaacademico.data;
+
+import jakarta.annotation.PreDestroy;
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.database.SaturacionException;
+import org.example.sistemaacademico.logic.Matricula;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.example.sistemaacademico.logic.dto.TicketMatricula;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de admisión para la apertura de matrícula.
+ * <p>
+ * Las solicitudes no toman una conexión del pool: se validan contra el cupo en memoria, se encolan en una cola
+ * acotada por carrera y el cliente recibe un ticket que puede consultar o esperar. Unos pocos escritores toman
+ * lotes de las colas por turno (una solicitud de cada carrera a la vez, en orden de llegada dentro de cada una)
+ * y los insertan con una sola conexión y un commit por lote, así que las conexiones usadas nunca pasan del
+ * número de escritores aunque lleguen miles de solicitudes en el mismo minuto. Si la cola de una carrera está
+ * llena la solicitud se rechaza con 503 en lugar de esperar un timeout del pool.
+ */
+@Service
+public class ColaMatriculaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColaMatriculaService.class);
+
+    public static final String EN_COLA = "EN_COLA";
+    public static final String CONFIRMADA = "CONFIRMADA";
+    public static final String RECHAZADA = "RECHAZADA";
+
+    private static final String CARRERA_POR_GRUPO = "{?=call carreraPorGrupo(?)}";
+    private static final Duration RETENCION = Duration.ofMinutes(10);
+    private static final long REINTENTAR_SEGUNDOS = 2;
+
+    private final MatriculaService matriculaService;
+    private final CuposGrupo cuposGrupo;
+    private final QueryEngine queryEngine;
+    private final boolean habilitada;
+    private final int capacidadPorCarrera;
+    private final int tamanoLote;
+    private final long esperaMaximaMs;
+    private final ExecutorService escritores;
+    private final int numeroEscritores;
+
+    // carrera -> solicitudes en orden de llegada; rueda: carreras con solicitudes, en turno
+    private final Map<Long, ArrayDeque<Solicitud>> colas = new HashMap<>();
+    private final ArrayDeque<Long> rueda = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayTrabajo = lock.newCondition();
+    private final Map<Long, Long> carreraDeGrupo = new ConcurrentHashMap<>();
+    private final Map<String, Solicitud> tickets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ColaMatriculaService(MatriculaService matriculaService, CuposGrupo cuposGrupo, QueryEngine queryEngine,
+                                @Value("${sistema.matricula.cola.habilitada:false}") boolean habilitada,
+                                @Value("${sistema.matricula.cola.capacidad-por-carrera:2000}") int capacidadPorCarrera,
+                                @Value("${sistema.matricula.cola.escritores:2}") int escritores,
+                                @Value("${sistema.matricula.cola.tamano-lote:200}") int tamanoLote,
+                                @Value("${sistema.matricula.cola.espera-maxima-ms:20000}") long esperaMaximaMs) {
+        this.matriculaService = matriculaService;
+        this.cuposGrupo = cuposGrupo;
+        this.queryEngine = queryEngine;
+        this.habilitada = habilitada;
+        this.capacidadPorCarrera = capacidadPorCarrera;
+        this.tamanoLote = tamanoLote;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.numeroEscritores = escritores;
+        this.escritores = Executors.newFixedThreadPool(escritores,
+                Thread.ofPlatform().name("matricula-cola-", 0).daemon().factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        for (int i = 0; i < numeroEscritores; i++) {
+            escritores.execute(this::escribir);
+        }
+        logger.info("Cola de matrícula activa: {} escritores, lotes de hasta {}, {} solicitudes por carrera",
+                numeroEscritores, tamanoLote, capacidadPorCarrera);
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Reserva el asiento y encola la matrícula.
+     *
+     * @return el ticket inicial, con su id para consultar el resultado
+     */
+    public TicketMatricula encolar(Matricula matricula) throws GlobalException, SaturacionException {
+        if (!habilitada) {
+            throw new GlobalException("La cola de matrícula no está habilitada.");
+        }
+        if (matricula.getPkAlumno() == null || matricula.getPkGrupo() == null) {
+            throw new GlobalException("La matrícula debe indicar alumno y grupo.");
+        }
+        purgarTerminados();
+        Long carrera = carreraDe(matricula.getPkGrupo());
+        if (!cuposGrupo.reservar(matricula.getPkGrupo())) {
+            throw new GlobalException("El grupo no tiene cupo disponible.");
+        }
+
+        Solicitud solicitud = new Solicitud(UUID.randomUUID().toString(), matricula);
+        lock.lock();
+        try {
+            ArrayDeque<Solicitud> cola = colas.computeIfAbsent(carrera, c -> new ArrayDeque<>());
+            if (cola.size() >= capacidadPorCarrera) {
+                cuposGrupo.liberar(matricula.getPkGrupo());
+                throw new SaturacionException("La cola de matrícula de la carrera está llena. Intente de nuevo en unos segundos.",
+                        REINTENTAR_SEGUNDOS);
+            }
+            if (cola.isEmpty()) {
+                rueda.addLast(carrera);
+            }
+            cola.addLast(solicitud);
+            tickets.put(solicitud.id, solicitud);
+            hayTrabajo.signal();
+        } finally {
+            lock.unlock();
+        }
+        return solicitud.ticket();
+    }
+
+    /**
+     * Estado del ticket; si sigue en cola espera hasta esperaMs (acotado por sistema.matricula.cola.espera-maxima-ms)
+     * a que se resuelva.
+     */
+    public TicketMatricula consultar(String id, long esperaMs) throws NoDataException {
+        Solicitud solicitud = tickets.get(id);
+        if (solicitud == null) {
+            throw new NoDataException("No existe el ticket de matrícula: " + id);
+        }
+        long espera = Math.min(Math.max(0, esperaMs), esperaMaximaMs);
+        if (espera > 0) {
+            try {
+                solicitud.resuelta.get(espera, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // Se responde con el estado actual
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return solicitud.ticket();
+    }
+
+    /**
+     * El grupo se modificó o se eliminó: su carrera se vuelve a consultar en la siguiente solicitud.
+     */
+    public void olvidarGrupo(Long idGrupo) {
+        carreraDeGrupo.remove(idGrupo);
+    }
+
+    private Long carreraDe(Long idGrupo) throws GlobalException {
+        Long carrera = carreraDeGrupo.get(idGrupo);
+        if (carrera == null) {
+            try {
+                carrera = queryEngine.queryForLong(CARRERA_POR_GRUPO, cs -> cs.setLong(2, idGrupo));
+            } catch (SQLException e) {
+                throw new GlobalException("Error al buscar la carrera del grupo: " + e.getMessage());
+            }
+            // 0: grupo inexistente; no se guarda porque el grupo puede crearse después, y la inserción
+            // lo rechazará por la llave foránea
+            if (carrera != 0) {
+                carreraDeGrupo.put(idGrupo, carrera);
+            }
+        }
+        return carrera;
+    }
+
+    private void escribir() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Solicitud> lote;
+            try {
+                lote = tomarLote();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            procesar(lote);
+        }
+    }
+
+    /**
+     * Espera a que haya solicitudes y toma hasta tamanoLote, una por carrera en cada vuelta de la rueda.
+     */
+    private List<Solicitud> tomarLote() throws InterruptedException {
+        lock.lock();
+        try {
+            while (rueda.isEmpty()) {
+                hayTrabajo.await();
+            }
+            List<Solicitud> lote = new ArrayList<>(tamanoLote);
+            while (lote.size() < tamanoLote && !rueda.isEmpty()) {
+                Long carrera = rueda.pollFirst();
+                ArrayDeque<Solicitud> cola = colas.get(carrera);
+                lote.add(cola.pollFirst());
+                if (!cola.isEmpty()) {
+                    rueda.addLast(carrera);
+                }
+            }
+            return lote;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void procesar(List<Solicitud> lote) {
+        List<Matricula> matriculas = new ArrayList<>(lote.size());
+        for (Solicitud solicitud : lote) {
+            matriculas.add(solicitud.matricula);
+        }
+        try {
+            List<ResultadoLote> resultados = matriculaService.insertarMatriculasReservadas(matriculas);
+            for (ResultadoLote resultado : resultados) {
+                Solicitud solicitud = lote.get(resultado.getIndice());
+                if (resultado.isExito()) {
+                    solicitud.resolver(CONFIRMADA, null, null);
+                } else {
+                    solicitud.resolver(RECHAZADA, resultado.getCodigo(), resultado.getMensaje());
+                }
+            }
+            logger.debug("Lote de la cola de matrícula escrito: {} solicitudes", lote.size());
+        } catch (RuntimeException e) {
+            logger.error("Error al escribir un lote de la cola de matrícula: {}", e.getMessage(), e);
+            for (Solicitud solicitud : lote) {
+                solicitud.resolver(RECHAZADA, null, e.getMessage());
+            }
+        }
+    }
+
+    private void purgarTerminados() {
+        LocalDateTime limite = LocalDateTime.now().minus(RETENCION);
+        tickets.values().removeIf(s -> s.fin != null && s.fin.isBefore(limite));
+    }
+
+    @PreDestroy
+    public void detener() {
+        escritores.shutdownNow();
+    }
+
+    private static final class Solicitud {
+        private final String id;
+        private final Matricula matricula;
+        private final LocalDateTime recibido = LocalDateTime.now();
+        private final CompletableFuture<Void> resuelta = new CompletableFuture<>();
+        private volatile String estado = EN_COLA;
+        private volatile Integer codigo;
+        private volatile String mensaje;
+        private volatile LocalDateTime fin;
+
+        private Solicitud(String id, Matricula matricula) {
+            this.id = id;
+            this.matricula = matricula;
+        }
+
+        private void resolver(String estadoFinal, Integer codigoFinal, String mensajeFinal) {
+            codigo = codigoFinal;
+            mensaje = mensajeFinal;
+            fin = LocalDateTime.now();
+            estado = estadoFinal;
+            resuelta.complete(null);
+        }
+
+        private TicketMatricula ticket() {
+            return new TicketMatricula(id, estado, matricula.getPkAlumno(), matricula.getPkGrupo(), codigo, mensaje,
+                    recibido, fin);
+        }
+    }
+}
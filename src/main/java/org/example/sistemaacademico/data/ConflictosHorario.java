@@ -0,0 +1,160 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.Horario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rechaza una matrícula o un cambio de grupo cuando el horario del grupo choca con otro grupo del alumno
+ * en el mismo ciclo.
+ * <p>
+ * El horario interpretado se guarda por id_grupo junto con el texto del que salió; si el grupo cambia de
+ * horario el texto ya no coincide y se vuelve a interpretar. Comparar dos grupos son siete AND por día.
+ * <p>
+ * Los lotes verifican cada fila con un {@link Lote}, que además compara la fila con las ya aceptadas del mismo
+ * alumno y ciclo dentro del lote, porque esas todavía no están en la base de datos.
+ */
+@Component
+public class ConflictosHorario {
+
+    private static final String HORARIOS_ALUMNO_EN_CICLO_DE_GRUPO = "{?=call horariosAlumnoEnCicloDeGrupo(?,?,?)}";
+
+    private final QueryEngine queryEngine;
+    private final Map<Long, Horario> horarios = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConflictosHorario(QueryEngine queryEngine) {
+        this.queryEngine = queryEngine;
+    }
+
+    /**
+     * Antes de matricular al alumno en el grupo.
+     */
+    public void verificarMatricula(Long idAlumno, Long idGrupo) throws GlobalException {
+        verificar(idAlumno, idGrupo, null);
+    }
+
+    /**
+     * Antes de pasar la matrícula al grupo; la matrícula no choca consigo misma.
+     */
+    public void verificarCambioDeGrupo(Long idMatricula, Long idGrupo) throws GlobalException {
+        verificar(null, idGrupo, idMatricula);
+    }
+
+    /**
+     * Antes de modificar la matrícula, que puede cambiar de alumno y de grupo; se compara con las demás
+     * matrículas del alumno nuevo.
+     */
+    public void verificarModificacion(Long idMatricula, Long idAlumno, Long idGrupo) throws GlobalException {
+        verificar(idAlumno, idGrupo, idMatricula);
+    }
+
+    public Lote nuevoLote() {
+        return new Lote();
+    }
+
+    /**
+     * Verificación de las filas de un lote de matrículas; una instancia por lote, usada por un solo hilo.
+     */
+    public final class Lote {
+        private final Map<List<Long>, List<Aceptada>> porAlumnoYCiclo = new HashMap<>();
+
+        private Lote() {
+        }
+
+        /**
+         * Verifica la fila contra la base de datos y contra las filas aceptadas antes en el lote; si no choca,
+         * la agrega a las aceptadas.
+         */
+        public void verificarMatricula(Long idAlumno, Long idGrupo) throws GlobalException {
+            if (idAlumno == null || idGrupo == null) {
+                // La base de datos rechaza la fila al insertarla
+                return;
+            }
+            Solicitado solicitado = verificar(idAlumno, idGrupo, null);
+            if (solicitado.horario().isVacio()) {
+                return;
+            }
+            List<Aceptada> aceptadas = porAlumnoYCiclo.computeIfAbsent(
+                    List.of(idAlumno, solicitado.idCiclo()), k -> new ArrayList<>());
+            for (Aceptada aceptada : aceptadas) {
+                if (!aceptada.idGrupo().equals(idGrupo) && solicitado.horario().chocaCon(aceptada.horario())) {
+                    throw new GlobalException("El horario del grupo (" + solicitado.horario().getTexto()
+                            + ") choca con el grupo " + aceptada.idGrupo() + " (" + aceptada.horario().getTexto()
+                            + ") de otra fila del mismo lote.");
+                }
+            }
+            aceptadas.add(new Aceptada(idGrupo, solicitado.horario()));
+        }
+    }
+
+    private Solicitado verificar(Long idAlumno, Long idGrupo, Long idMatricula) throws GlobalException {
+        Horario horarioGrupo = Horario.VACIO;
+        long idCiclo = 0;
+        List<Long> grupos = new ArrayList<>();
+        List<Horario> horariosAlumno = new ArrayList<>();
+        try {
+            for (Fila fila : queryEngine.queryForList(HORARIOS_ALUMNO_EN_CICLO_DE_GRUPO, cs -> {
+                cs.setObject(2, idAlumno, Types.NUMERIC);
+                cs.setLong(3, idGrupo);
+                cs.setObject(4, idMatricula, Types.NUMERIC);
+            }, rs -> {
+                long matricula = rs.getLong("id_matricula");
+                boolean grupoSolicitado = rs.wasNull();
+                return new Fila(rs.getLong("id_grupo"), rs.getString("horario"), grupoSolicitado ? null : matricula,
+                        rs.getLong("pk_ciclo"));
+            })) {
+                Horario horario = interpretar(fila.idGrupo(), fila.horario());
+                if (fila.idMatricula() == null) {
+                    horarioGrupo = horario;
+                    idCiclo = fila.idCiclo();
+                } else if (!fila.idGrupo().equals(idGrupo)) {
+                    grupos.add(fila.idGrupo());
+                    horariosAlumno.add(horario);
+                }
+            }
+        } catch (SQLException e) {
+            throw new GlobalException("Error al verificar choque de horario: " + e.getMessage());
+        }
+        if (horarioGrupo.isVacio()) {
+            return new Solicitado(idCiclo, horarioGrupo);
+        }
+        for (int i = 0; i < horariosAlumno.size(); i++) {
+            if (horarioGrupo.chocaCon(horariosAlumno.get(i))) {
+                throw new GlobalException("El horario del grupo (" + horarioGrupo.getTexto()
+                        + ") choca con el grupo " + grupos.get(i) + " (" + horariosAlumno.get(i).getTexto()
+                        + ") en el que el alumno ya está matriculado este ciclo.");
+            }
+        }
+        return new Solicitado(idCiclo, horarioGrupo);
+    }
+
+    private Horario interpretar(Long idGrupo, String texto) {
+        Horario horario = horarios.get(idGrupo);
+        String actual = texto == null ? "" : texto;
+        if (horario == null || !horario.getTexto().equals(actual)) {
+            horario = Horario.parsear(actual);
+            horarios.put(idGrupo, horario);
+        }
+        return horario;
+    }
+
+    private record Fila(Long idGrupo, String horario, Long idMatricula, long idCiclo) {
+    }
+
+    private record Solicitado(long idCiclo, Horario horario) {
+    }
+
+    private record Aceptada(Long idGrupo, Horario horario) {
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Contadores de asientos por grupo para rechazar matrículas en grupos llenos sin bloquear filas en Oracle.
+ * <p>
+ * El estado de cada grupo es un valor inmutable en su propia AtomicReference y cada operación lo reemplaza con
+ * compareAndSet, así que una reserva nunca espera a otra ni a la base de datos. Los contadores se concilian con
+ * el conteo de Matricula al iniciar, al cambiar una matrícula de grupo y al modificar el grupo; un grupo que no
+ * se ha visto se carga en su primera reserva. La consulta se hace sin candado y su resultado se publica con CAS:
+ * la conciliación reemplaza cupo e inscritos y deja las reservas pendientes como están. Las confirmaciones que
+ * llegan mientras corre la consulta se suman a los inscritos leídos; ante la duda el contador cuenta de más y
+ * nunca permite sobrepasar el cupo.
+ */
+@Component
+public class CuposGrupo {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuposGrupo.class);
+    private static final String OCUPACION_GRUPOS = "{?=call ocupacionGrupos(?)}";
+
+    private final QueryEngine queryEngine;
+    private final Map<Long, AtomicReference<Asientos>> grupos = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CuposGrupo(QueryEngine queryEngine) {
+        this.queryEngine = queryEngine;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            // Un grupo que ya se cargó por su cuenta tiene datos más recientes que esta consulta
+            long cargados = consultar(null, fila -> grupos.putIfAbsent(fila.idGrupo(), nuevo(fila)));
+            logger.info("Contadores de cupo conciliados para {} grupos", cargados);
+        } catch (GlobalException e) {
+            logger.warn("No se pudieron cargar los cupos al iniciar; cada grupo se cargará en su primera matrícula: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aparta un asiento en el grupo si queda cupo. Quien reserva debe llamar después a confirmar o a liberar.
+     *
+     * @return false si el grupo está lleno
+     */
+    public boolean reservar(Long idGrupo) throws GlobalException {
+        AtomicReference<Asientos> asientos = grupos.get(idGrupo);
+        if (asientos == null) {
+            Ocupacion fila = leer(idGrupo);
+            if (fila == null) {
+                // El grupo no existe; la inserción fallará por la llave foránea
+                return true;
+            }
+            asientos = grupos.computeIfAbsent(idGrupo, id -> nuevo(fila));
+        }
+        while (true) {
+            Asientos actual = asientos.get();
+            if (actual.lleno()) {
+                return false;
+            }
+            if (asientos.compareAndSet(actual, actual.con(actual.inscritos(), actual.pendientes() + 1,
+                    actual.confirmadas()))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * La matrícula reservada quedó confirmada en la base de datos.
+     */
+    public void confirmar(Long idGrupo) {
+        actualizar(idGrupo, a -> a.con(a.inscritos() + 1, Math.max(0, a.pendientes() - 1), a.confirmadas() + 1));
+    }
+
+    /**
+     * La matrícula reservada no se insertó; devuelve el asiento.
+     */
+    public void liberar(Long idGrupo) {
+        actualizar(idGrupo, a -> a.con(a.inscritos(), Math.max(0, a.pendientes() - 1), a.confirmadas()));
+    }
+
+    /**
+     * Se borró una matrícula confirmada del grupo.
+     */
+    public void desocupar(Long idGrupo) {
+        if (idGrupo != null) {
+            actualizar(idGrupo, a -> a.con(Math.max(0, a.inscritos() - 1), a.pendientes(), a.confirmadas()));
+        }
+    }
+
+    /**
+     * Vuelve a leer cupo e inscritos del grupo desde la base de datos; las reservas pendientes se conservan.
+     */
+    public void conciliar(Long idGrupo) throws GlobalException {
+        if (idGrupo == null) {
+            return;
+        }
+        AtomicReference<Asientos> asientos = grupos.get(idGrupo);
+        if (asientos == null) {
+            // Aún no se ha visto; se cargará en su primera reserva
+            return;
+        }
+        long confirmadasAntes = asientos.get().confirmadas();
+        Ocupacion fila = leer(idGrupo);
+        if (fila == null) {
+            grupos.remove(idGrupo, asientos);
+            return;
+        }
+        // Las confirmaciones durante la consulta pueden estar o no en el conteo leído: se suman por si acaso
+        asientos.updateAndGet(a -> new Asientos(fila.cupo(), fila.inscritos() + (a.confirmadas() - confirmadasAntes),
+                a.pendientes(), a.confirmadas()));
+    }
+
+    public void olvidar(Long idGrupo) {
+        grupos.remove(idGrupo);
+    }
+
+    private void actualizar(Long idGrupo, UnaryOperator<Asientos> cambio) {
+        AtomicReference<Asientos> asientos = grupos.get(idGrupo);
+        if (asientos != null) {
+            asientos.updateAndGet(cambio);
+        }
+    }
+
+    private Ocupacion leer(Long idGrupo) throws GlobalException {
+        Ocupacion[] fila = new Ocupacion[1];
+        consultar(idGrupo, o -> fila[0] = o);
+        return fila[0];
+    }
+
+    private long consultar(Long idGrupo, Consumer<Ocupacion> consumidor) throws GlobalException {
+        try {
+            return queryEngine.forEach(OCUPACION_GRUPOS, cs -> cs.setObject(2, idGrupo, Types.NUMERIC), rs -> {
+                long cupo = rs.getLong("cupo");
+                return new Ocupacion(rs.getLong("id_grupo"), rs.wasNull() ? -1 : cupo, rs.getLong("inscritos"));
+            }, consumidor);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al cargar la ocupación de grupos: " + e.getMessage());
+        }
+    }
+
+    private static AtomicReference<Asientos> nuevo(Ocupacion fila) {
+        return new AtomicReference<>(new Asientos(fila.cupo(), fila.inscritos(), 0, 0));
+    }
+
+    private record Ocupacion(long idGrupo, long cupo, long inscritos) {
+    }
+
+    /**
+     * Estado de un grupo en un instante.
+     *
+     * @param cupo        -1: sin límite
+     * @param pendientes  reservas hechas que aún no se confirman ni se liberan
+     * @param confirmadas total de confirmaciones, para saber cuáles llegaron durante una conciliación
+     */
+    private record Asientos(long cupo, long inscritos, long pendientes, long confirmadas) {
+
+        private boolean lleno() {
+            return cupo >= 0 && inscritos + pendientes >= cupo;
+        }
+
+        private Asientos con(long inscritos, long pendientes, long confirmadas) {
+            return new Asientos(cupo, inscritos, pendientes, confirmadas);
+        }
+    }
+}
@@ -1,35 +1,59 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.BatchExecutor;
+import org.example.sistemaacademico.database.Autocompletado;
+import org.example.sistemaacademico.database.CatalogoCache;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.database.TablaCatalogo;
 import org.example.sistemaacademico.logic.Curso;
 import org.example.sistemaacademico.logic.dto.CursoDto;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class CursoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CursoService.class);
+
     private static final String INSERTAR_CURSO = "{call insertarCurso(?,?,?,?)}";
+    private static final String INSERTAR_CURSO_LOTE = "INSERT INTO Curso (codigo, nombre, creditos, horas_semanales) VALUES (?, ?, ?, ?)";
     private static final String MODIFICAR_CURSO = "{call modificarCurso(?,?,?,?,?)}";
     private static final String ELIMINAR_CURSO = "{call eliminarCurso(?)}";
     private static final String LISTAR_CURSOS = "{?=call listarCursos()}";
     private static final String BUSCAR_CURSO_POR_NOMBRE = "{?=call buscarCursoPorNombre(?)}";
-    private static final String BUSCAR_CURSO_POR_CODIGO = "{?=call buscarCursoPorCodigo(?)}";
     private static final String BUSCAR_CURSOS_POR_CARRERA = "{?=call buscarCursosPorCarrera(?)}";
     private static final String BUSCAR_CURSOS_POR_CARRERA_Y_CICLO = "{?=call buscarCursosPorCarreraYCiclo(?,?)}";
     private static final String BUSCAR_CURSOS_POR_CICLO = "{?=call buscarCursosPorCiclo(?)}";
+    private static final String LISTAR_CURSOS_PAGINA = "{?=call listarCursosPagina(?,?)}";
+    private static final String CONTAR_CURSOS = "{?=call contarCursos()}";
+    private static final String BUSCAR_CURSOS_POR_CARRERA_PAGINA = "{?=call buscarCursosPorCarreraPagina(?,?,?)}";
+    private static final String CONTAR_CURSOS_POR_CARRERA = "{?=call contarCursosPorCarrera(?)}";
+    private static final String BLOQUEO_ELIMINAR_CURSO = "{?=call bloqueoEliminarCurso(?)}";
 
     private final DataSource dataSource;
+    private final QueryEngine queryEngine;
+    private final BatchExecutor batchExecutor;
+    private final TablaCatalogo<Curso> cursos;
 
     @Autowired
-    public CursoService(DataSource dataSource) {
+    public CursoService(DataSource dataSource, QueryEngine queryEngine, BatchExecutor batchExecutor, CatalogoCache catalogoCache) {
         this.dataSource = dataSource;
+        this.queryEngine = queryEngine;
+        this.batchExecutor = batchExecutor;
+        this.cursos = catalogoCache.registrar(CatalogoCache.CURSOS,
+                () -> queryEngine.queryForList(LISTAR_CURSOS, QueryEngine.SIN_PARAMETROS, this::mapResultSetToCurso),
+                Curso::getIdCurso, Curso::getCodigo, c -> Autocompletado.codigoYNombre(c.getCodigo(), c.getNombre()));
     }
 
     public void insertarCurso(Curso curso) throws GlobalException, NoDataException {
@@ -43,11 +67,32 @@ public class CursoService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la inserción del curso");
             }
+            recargarCursos();
         } catch (SQLException e) {
             handleSQLException(e, "Error al insertar curso");
         }
     }
 
+    /**
+     * Inserta los cursos por bloques; cada fila rechazada se reporta sin detener el lote.
+     */
+    public List<ResultadoLote> insertarCursosLote(List<Curso> lote, Integer tamanoBloque) throws GlobalException {
+        try {
+            return batchExecutor.ejecutar(INSERTAR_CURSO_LOTE, lote, tamanoBloque,
+                    (ps, curso) -> {
+                        ps.setString(1, curso.getCodigo());
+                        ps.setString(2, curso.getNombre());
+                        ps.setObject(3, curso.getCreditos(), Types.NUMERIC);
+                        ps.setObject(4, curso.getHorasSemanales(), Types.NUMERIC);
+                    },
+                    e -> traducirSQLException(e, "Error al insertar curso"));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al insertar lote de cursos: " + e.getMessage());
+        } finally {
+            recargarCursos();
+        }
+    }
+
     public void modificarCurso(Curso curso) throws GlobalException, NoDataException {
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_CURSO)) {
@@ -60,6 +105,7 @@ public class CursoService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la actualización del curso");
             }
+            recargarCursos();
         } catch (SQLException e) {
             handleSQLException(e, "Error al modificar curso");
         }
@@ -73,77 +119,79 @@ public class CursoService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó el borrado: el curso no existe");
             }
+            cursos.quitar(idCurso);
         } catch (SQLException e) {
             handleSQLException(e, "Error al eliminar curso");
         }
     }
 
     public List<Curso> listarCursos() throws GlobalException, NoDataException {
-        List<Curso> cursos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_CURSOS)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    cursos.add(mapResultSetToCurso(rs));
-                }
-            }
+        List<Curso> lista;
+        try {
+            lista = cursos.listar();
         } catch (SQLException e) {
             throw new GlobalException("Error al listar cursos: " + e.getMessage());
         }
-        if (cursos.isEmpty()) {
+        if (lista.isEmpty()) {
             throw new NoDataException("No hay cursos registrados");
         }
-        return cursos;
+        return lista;
+    }
+
+    public Pagina<Curso> listarCursosPaginado(String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<Curso> filas = queryEngine.queryForList(LISTAR_CURSOS_PAGINA, limite + 1, cs -> {
+                cs.setObject(2, despues, Types.NUMERIC);
+                cs.setInt(3, limite + 1);
+            }, this::mapResultSetToCurso);
+            return Paginacion.armar(filas, limite, Curso::getIdCurso);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar cursos paginados: " + e.getMessage());
+        }
+    }
+
+    public long contarCursos() throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_CURSOS, "cursos", QueryEngine.SIN_PARAMETROS);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar cursos: " + e.getMessage());
+        }
     }
 
     public Curso buscarCursoPorNombre(String nombre) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CURSO_POR_NOMBRE)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, nombre);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToCurso(rs);
-                }
-            }
+        try {
+            return queryEngine.queryForFirst(BUSCAR_CURSO_POR_NOMBRE, cs -> cs.setString(2, nombre), this::mapResultSetToCurso);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar curso por nombre: " + e.getMessage());
         }
-        return null;
+    }
+
+    /**
+     * Hasta limit cursos cuyo código o nombre empieza con el prefijo, servidos desde el trie del catálogo.
+     */
+    public List<Curso> autocompletarCursos(String prefijo, Integer limit) throws GlobalException {
+        int limite = Autocompletado.limite(limit);
+        try {
+            return cursos.autocompletar(prefijo, limite);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al autocompletar cursos: " + e.getMessage());
+        }
     }
 
     public Curso buscarCursoPorCodigo(String codigo) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CURSO_POR_CODIGO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, codigo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToCurso(rs);
-                }
-            }
+        try {
+            return cursos.porCodigo(codigo);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar curso por código: " + e.getMessage());
         }
-        return null;
     }
 
     public List<CursoDto> buscarCursosPorCarrera(Long idCarrera) throws GlobalException, NoDataException {
-        List<CursoDto> cursos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CURSOS_POR_CARRERA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCarrera);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    cursos.add(mapResultSetToCursoDto(rs));
-                }
-            }
+        List<CursoDto> cursos;
+        try {
+            cursos = queryEngine.queryForList(BUSCAR_CURSOS_POR_CARRERA, cs -> cs.setLong(2, idCarrera), this::mapResultSetToCursoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar cursos por carrera: " + e.getMessage());
         }
@@ -153,19 +201,36 @@ public class CursoService {
         return cursos;
     }
 
+    public Pagina<CursoDto> buscarCursosPorCarreraPaginado(Long idCarrera, String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<CursoDto> filas = queryEngine.queryForList(BUSCAR_CURSOS_POR_CARRERA_PAGINA, limite + 1, cs -> {
+                cs.setLong(2, idCarrera);
+                cs.setObject(3, despues, Types.NUMERIC);
+                cs.setInt(4, limite + 1);
+            }, this::mapResultSetToCursoDto);
+            return Paginacion.armar(filas, limite, CursoDto::getIdCarreraCurso);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al buscar cursos por carrera paginados: " + e.getMessage());
+        }
+    }
+
+    public long contarCursosPorCarrera(Long idCarrera) throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_CURSOS_POR_CARRERA, "cursos:carrera:" + idCarrera, cs -> cs.setLong(2, idCarrera));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar cursos por carrera: " + e.getMessage());
+        }
+    }
+
     public List<CursoDto> buscarCursosPorCarreraYCiclo(Long idCarrera, Long idCiclo) throws GlobalException, NoDataException {
-        List<CursoDto> cursos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CURSOS_POR_CARRERA_Y_CICLO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCarrera);
-            pstmt.setLong(3, idCiclo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    cursos.add(mapResultSetToCursoDto(rs));
-                }
-            }
+        List<CursoDto> cursos;
+        try {
+            cursos = queryEngine.queryForList(BUSCAR_CURSOS_POR_CARRERA_Y_CICLO, cs -> {
+                cs.setLong(2, idCarrera);
+                cs.setLong(3, idCiclo);
+            }, this::mapResultSetToCursoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar cursos por carrera y ciclo: " + e.getMessage());
         }
@@ -176,17 +241,9 @@ public class CursoService {
     }
 
     public List<CursoDto> buscarCursosPorCiclo(Long idCiclo) throws GlobalException, NoDataException {
-        List<CursoDto> cursos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CURSOS_POR_CICLO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCiclo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    cursos.add(mapResultSetToCursoDto(rs));
-                }
-            }
+        List<CursoDto> cursos;
+        try {
+            cursos = queryEngine.queryForList(BUSCAR_CURSOS_POR_CICLO, cs -> cs.setLong(2, idCiclo), this::mapResultSetToCursoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar cursos por ciclo: " + e.getMessage());
         }
@@ -199,24 +256,18 @@ public class CursoService {
     // Utilitarios
 
     public void verificarEliminar(Long idCurso) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM Carrera_Curso WHERE pk_curso = ? " +
-                             "UNION ALL " +
-                             "SELECT COUNT(*) FROM Grupo g JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso WHERE cc.pk_curso = ?")) {
-            pstmt.setLong(1, idCurso);
-            pstmt.setLong(2, idCurso);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el curso: está asociado a una carrera.");
-                }
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el curso: tiene grupos asociados.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_CURSO, cs -> cs.setLong(2, idCurso));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de curso: " + e.getMessage());
         }
+        if (bloqueo == 1) {
+            throw new GlobalException("No se puede eliminar el curso: está asociado a una carrera.");
+        }
+        if (bloqueo == 2) {
+            throw new GlobalException("No se puede eliminar el curso: tiene grupos asociados.");
+        }
     }
 
     private Curso mapResultSetToCurso(ResultSet rs) throws SQLException {
@@ -240,14 +291,25 @@ public class CursoService {
         );
     }
 
+    // La escritura ya se confirmó; si la recarga falla, la siguiente lectura del catálogo la reintenta
+    private void recargarCursos() {
+        try {
+            cursos.recargar();
+        } catch (SQLException e) {
+            logger.warn("No se pudo recargar el catálogo de cursos: {}", e.getMessage());
+        }
+    }
+
     private void handleSQLException(SQLException e, String message) throws GlobalException {
+        throw new GlobalException(traducirSQLException(e, message));
+    }
+
+    private String traducirSQLException(SQLException e, String message) {
         int errorCode = Math.abs(e.getErrorCode());
-        String errorMessage;
-        if (errorCode == 20003) {
-            errorMessage = "No se puede eliminar el curso: está asociado a una carrera o tiene grupos.";
-        } else {
-            errorMessage = message + ": " + e.getMessage();
-        }
-        throw new GlobalException(errorMessage);
+        return switch (errorCode) {
+            case 20003 -> "No se puede eliminar el curso: está asociado a una carrera o tiene grupos.";
+            case 1 -> "Ya existe un curso con este código.";
+            default -> message + ": " + e.getMessage();
+        };
     }
 }
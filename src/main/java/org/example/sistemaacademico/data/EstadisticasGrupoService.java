@@ -0,0 +1,204 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.dto.EstadisticasGrupoDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estadísticas de notas por grupo mantenidas en memoria y actualizadas en cada escritura de matrícula.
+ * <p>
+ * Un grupo se carga con una sola consulta la primera vez que se piden sus estadísticas; desde entonces
+ * MatriculaService informa cada inserción, cambio de nota, cambio de grupo y borrado confirmados, y la
+ * lectura solo copia los acumulados. Cada grupo guarda la nota por matrícula, de modo que aplicar dos
+ * veces el mismo cambio (por ejemplo, uno que la carga inicial ya vio) no altera el resultado.
+ */
+@Service
+public class EstadisticasGrupoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasGrupoService.class);
+
+    private static final String NOTAS_POR_GRUPO = "{?=call notasPorGrupo(?)}";
+    private static final int CLASES = 10;
+
+    private final QueryEngine queryEngine;
+    private final double notaAprobacion;
+    private final Map<Long, Acumulado> grupos = new ConcurrentHashMap<>();
+    // matrícula -> grupo, solo para los grupos cargados
+    private final Map<Long, Long> grupoDeMatricula = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EstadisticasGrupoService(QueryEngine queryEngine,
+                                    @Value("${sistema.estadisticas.nota-aprobacion:70}") double notaAprobacion) {
+        this.queryEngine = queryEngine;
+        this.notaAprobacion = notaAprobacion;
+    }
+
+    public EstadisticasGrupoDto obtener(Long idGrupo) throws GlobalException {
+        Acumulado acumulado = grupos.computeIfAbsent(idGrupo, Acumulado::new);
+        acumulado.lock.lock();
+        try {
+            if (!acumulado.cargado) {
+                cargar(acumulado);
+            }
+            return acumulado.resumir();
+        } finally {
+            acumulado.lock.unlock();
+        }
+    }
+
+    /**
+     * Registra la nota actual de una matrícula (null si aún no tiene) en su grupo, moviéndola si cambió de grupo.
+     */
+    public void registrar(Long idMatricula, Long idGrupo, Double nota) {
+        Long anterior = grupoDeMatricula.get(idMatricula);
+        if (anterior != null && !anterior.equals(idGrupo)) {
+            quitar(idMatricula);
+        }
+        Acumulado acumulado = grupos.get(idGrupo);
+        if (acumulado == null) {
+            return;
+        }
+        acumulado.lock.lock();
+        try {
+            acumulado.poner(idMatricula, nota);
+            grupoDeMatricula.put(idMatricula, idGrupo);
+        } finally {
+            acumulado.lock.unlock();
+        }
+    }
+
+    /**
+     * Cambia una matrícula de grupo conservando su nota. Si el grupo de origen no estaba cargado la nota
+     * no se conoce, y el grupo de destino se recarga en la siguiente lectura.
+     */
+    public void mover(Long idMatricula, Long idGrupoNuevo) {
+        Long anterior = grupoDeMatricula.get(idMatricula);
+        Acumulado origen = anterior == null ? null : grupos.get(anterior);
+        if (origen == null) {
+            invalidar(idGrupoNuevo);
+            return;
+        }
+        Double nota;
+        origen.lock.lock();
+        try {
+            nota = origen.notas.get(idMatricula);
+        } finally {
+            origen.lock.unlock();
+        }
+        registrar(idMatricula, idGrupoNuevo, nota);
+    }
+
+    public void quitar(Long idMatricula) {
+        Long idGrupo = grupoDeMatricula.remove(idMatricula);
+        Acumulado acumulado = idGrupo == null ? null : grupos.get(idGrupo);
+        if (acumulado == null) {
+            return;
+        }
+        acumulado.lock.lock();
+        try {
+            acumulado.sacar(idMatricula);
+        } finally {
+            acumulado.lock.unlock();
+        }
+    }
+
+    /**
+     * Descarta un grupo para que se recargue en la siguiente lectura; se usa cuando el cambio no se
+     * conoce fila por fila, como en las inserciones por lote.
+     */
+    public void invalidar(Long idGrupo) {
+        Acumulado acumulado = grupos.remove(idGrupo);
+        if (acumulado != null) {
+            grupoDeMatricula.values().removeIf(idGrupo::equals);
+        }
+    }
+
+    private void cargar(Acumulado acumulado) throws GlobalException {
+        try {
+            queryEngine.forEach(NOTAS_POR_GRUPO, cs -> cs.setLong(2, acumulado.idGrupo), rs -> {
+                double nota = rs.getDouble("nota");
+                return new NotaMatricula(rs.getLong("id_matricula"), rs.wasNull() ? null : nota);
+            }, fila -> {
+                acumulado.poner(fila.idMatricula(), fila.nota());
+                grupoDeMatricula.put(fila.idMatricula(), acumulado.idGrupo);
+            });
+            acumulado.cargado = true;
+        } catch (SQLException e) {
+            grupos.remove(acumulado.idGrupo, acumulado);
+            logger.error("Error al cargar estadísticas del grupo {}: {}", acumulado.idGrupo, e.getMessage(), e);
+            throw new GlobalException("Error al cargar estadísticas del grupo: " + e.getMessage());
+        }
+    }
+
+    private record NotaMatricula(Long idMatricula, Double nota) {
+    }
+
+    private static int clase(double nota) {
+        return Math.min(CLASES - 1, Math.max(0, (int) (nota / 10)));
+    }
+
+    private final class Acumulado {
+        private final Long idGrupo;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Double> notas = new HashMap<>();
+        private final long[] histograma = new long[CLASES];
+        private boolean cargado;
+        private long calificados;
+        private long aprobados;
+        private double suma;
+        private double sumaCuadrados;
+
+        private Acumulado(Long idGrupo) {
+            this.idGrupo = idGrupo;
+        }
+
+        private void poner(Long idMatricula, Double nota) {
+            sacar(idMatricula);
+            notas.put(idMatricula, nota);
+            sumar(nota, 1);
+        }
+
+        private void sacar(Long idMatricula) {
+            if (notas.containsKey(idMatricula)) {
+                sumar(notas.remove(idMatricula), -1);
+            }
+        }
+
+        private void sumar(Double nota, int signo) {
+            if (nota == null) {
+                return;
+            }
+            calificados += signo;
+            suma += signo * nota;
+            sumaCuadrados += signo * nota * nota;
+            histograma[clase(nota)] += signo;
+            if (nota >= notaAprobacion) {
+                aprobados += signo;
+            }
+        }
+
+        private EstadisticasGrupoDto resumir() {
+            Double promedio = null;
+            Double varianza = null;
+            Double tasaAprobacion = null;
+            if (calificados > 0) {
+                promedio = suma / calificados;
+                varianza = Math.max(0, sumaCuadrados / calificados - promedio * promedio);
+                tasaAprobacion = aprobados / (double) calificados;
+            }
+            return new EstadisticasGrupoDto(idGrupo, (long) notas.size(), calificados, promedio, varianza,
+                    tasaAprobacion, histograma.clone());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.function.Consumer;
+
+/**
+ * Exportaciones masivas: cada una es una sola consulta por conjuntos cuyas filas se entregan
+ * al consumidor a medida que se leen del cursor.
+ */
+@Service
+public class ExportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionService.class);
+    private static final String EXPORTAR_MATRICULAS_POR_CICLO = "{?=call exportarMatriculasPorCiclo(?)}";
+    private static final String EXPORTAR_GRUPOS_POR_CICLO = "{?=call exportarGruposPorCiclo(?)}";
+    private static final String EXPORTAR_ALUMNOS = "{?=call exportarAlumnos(?)}";
+
+    public static final String[] ENCABEZADOS_MATRICULAS = {"id_matricula", "cedula_alumno", "nombre_alumno",
+            "codigo_carrera", "codigo_curso", "nombre_curso", "numero_grupo", "horario", "cedula_profesor",
+            "nombre_profesor", "nota"};
+    public static final String[] ENCABEZADOS_GRUPOS = {"id_grupo", "codigo_carrera", "codigo_curso", "nombre_curso",
+            "numero_grupo", "horario", "cedula_profesor", "nombre_profesor", "matriculados"};
+    public static final String[] ENCABEZADOS_ALUMNOS = {"id_alumno", "cedula", "nombre", "telefono", "email",
+            "fecha_nacimiento", "codigo_carrera", "nombre_carrera"};
+
+    private final QueryEngine queryEngine;
+
+    @Autowired
+    public ExportacionService(QueryEngine queryEngine) {
+        this.queryEngine = queryEngine;
+    }
+
+    public long exportarMatriculasPorCiclo(Long idCiclo, Consumer<Object[]> consumidor) throws GlobalException {
+        return exportar(EXPORTAR_MATRICULAS_POR_CICLO, idCiclo, ENCABEZADOS_MATRICULAS.length, consumidor);
+    }
+
+    public long exportarGruposPorCiclo(Long idCiclo, Consumer<Object[]> consumidor) throws GlobalException {
+        return exportar(EXPORTAR_GRUPOS_POR_CICLO, idCiclo, ENCABEZADOS_GRUPOS.length, consumidor);
+    }
+
+    /**
+     * @param idCarrera carrera a exportar; null exporta todos los alumnos
+     */
+    public long exportarAlumnos(Long idCarrera, Consumer<Object[]> consumidor) throws GlobalException {
+        return exportar(EXPORTAR_ALUMNOS, idCarrera, ENCABEZADOS_ALUMNOS.length, consumidor);
+    }
+
+    private long exportar(String call, Long filtro, int columnas, Consumer<Object[]> consumidor) throws GlobalException {
+        try {
+            long filas = queryEngine.forEach(call, cs -> cs.setObject(2, filtro, Types.NUMERIC),
+                    rs -> mapFila(rs, columnas), consumidor);
+            logger.debug("Exportación {} con filtro {}: {} filas", call, filtro, filas);
+            return filas;
+        } catch (SQLException e) {
+            throw new GlobalException("Error al exportar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee la fila en el orden de las columnas del cursor. Los números se entregan sin notación
+     * científica y las fechas en formato ISO.
+     */
+    private Object[] mapFila(ResultSet rs, int columnas) throws SQLException {
+        Object[] fila = new Object[columnas];
+        for (int i = 0; i < columnas; i++) {
+            Object valor = rs.getObject(i + 1);
+            if (valor instanceof BigDecimal numero) {
+                valor = numero.stripTrailingZeros().toPlainString();
+            } else if (valor instanceof Timestamp marca) {
+                valor = marca.toLocalDateTime().toLocalDate();
+            }
+            fila[i] = valor;
+        }
+        return fila;
+    }
+}
@@ -2,56 +2,98 @@ package org.example.sistemaacademico.data;
 
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.database.VersionesTablas;
+import org.example.sistemaacademico.logic.Ciclo;
 import org.example.sistemaacademico.logic.Grupo;
 import org.example.sistemaacademico.logic.dto.CursoDto;
 import org.example.sistemaacademico.logic.dto.GrupoDto;
 import org.example.sistemaacademico.logic.dto.GrupoProfesorDto;
+import org.example.sistemaacademico.logic.dto.Pagina;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class GrupoService {
 
-    private static final String INSERTAR_GRUPO = "{call insertarGrupo(?,?,?,?)}";
-    private static final String MODIFICAR_GRUPO = "{call modificarGrupo(?,?,?,?,?)}";
+    private static final String INSERTAR_GRUPO = "{call insertarGrupo(?,?,?,?,?,?)}";
+    private static final String MODIFICAR_GRUPO = "{call modificarGrupo(?,?,?,?,?,?,?)}";
     private static final String ELIMINAR_GRUPO = "{call eliminarGrupo(?)}";
     private static final String LISTAR_GRUPOS = "{?=call listarGrupos()}";
     private static final String BUSCAR_GRUPOS_POR_CARRERA_CURSO = "{?=call buscarGruposPorCarreraCurso(?,?)}";
     private static final String BUSCAR_GRUPOS_POR_CURSO_CICLO_CARRERA = "{?=call buscarGruposPorCursoCicloCarrera(?,?,?)}";
     private static final String BUSCAR_GRUPOS_POR_PROFESOR = "{?=call buscarGruposPorProfesor(?)}";
-    private static final String BUSCAR_GRUPOS_POR_PROFESOR_CICLO_ACTIVO = "{?=call buscarGruposPorProfesorCicloActivo(?)}";
+    private static final String BUSCAR_GRUPOS_POR_PROFESOR_CICLO_ACTIVO = "{?=call buscarGruposPorProfesorCicloActivo(?,?)}";
     private static final String BUSCAR_GRUPO_POR_MATRICULA = "{?=call buscarGrupoPorMatricula(?)}";
     private static final String BUSCAR_CURSO_POR_GRUPO = "{?=call buscarCursoPorGrupo(?)}";
+    private static final String LISTAR_GRUPOS_PAGINA = "{?=call listarGruposPagina(?,?)}";
+    private static final String CONTAR_GRUPOS = "{?=call contarGrupos()}";
+    private static final String BUSCAR_GRUPOS_POR_PROFESOR_PAGINA = "{?=call buscarGruposPorProfesorPagina(?,?,?)}";
+    private static final String CONTAR_GRUPOS_POR_PROFESOR = "{?=call contarGruposPorProfesor(?)}";
+    private static final String BLOQUEO_ELIMINAR_GRUPO = "{?=call bloqueoEliminarGrupo(?)}";
 
     private final DataSource dataSource;
+    private final QueryEngine queryEngine;
+    private final CicloActivo cicloActivo;
+    private final CuposGrupo cuposGrupo;
+    private final AgendaProfesores agendaProfesores;
+    private final VersionesTablas versiones;
+    private final ColaMatriculaService colaMatricula;
 
     @Autowired
-    public GrupoService(DataSource dataSource) {
+    public GrupoService(DataSource dataSource, QueryEngine queryEngine, CicloActivo cicloActivo, CuposGrupo cuposGrupo,
+                        AgendaProfesores agendaProfesores, VersionesTablas versiones,
+                        ColaMatriculaService colaMatricula) {
         this.dataSource = dataSource;
+        this.queryEngine = queryEngine;
+        this.cicloActivo = cicloActivo;
+        this.cuposGrupo = cuposGrupo;
+        this.agendaProfesores = agendaProfesores;
+        this.versiones = versiones;
+        this.colaMatricula = colaMatricula;
     }
 
     public void insertarGrupo(Grupo grupo) throws GlobalException, NoDataException {
+        // Rechaza en memoria la asignación si el profesor ya tiene otro grupo en ese horario
+        Long reserva = agendaProfesores.reservar(null, grupo.getIdProfesor(), grupo.getIdCarreraCurso(), grupo.getHorario());
+        boolean insertado = false;
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(INSERTAR_GRUPO)) {
             pstmt.setLong(1, grupo.getIdCarreraCurso());
             pstmt.setLong(2, grupo.getNumeroGrupo());
             pstmt.setString(3, grupo.getHorario());
             pstmt.setLong(4, grupo.getIdProfesor());
+            pstmt.setObject(5, grupo.getCupo(), Types.NUMERIC);
+            pstmt.registerOutParameter(6, Types.NUMERIC);
             int filas = pstmt.executeUpdate();
             if (filas == 0) {
                 throw new NoDataException("No se realizó la inserción del grupo");
             }
+            grupo.setIdGrupo(pstmt.getLong(6));
+            agendaProfesores.confirmar(reserva, grupo.getIdGrupo());
+            versiones.incrementar(VersionesTablas.GRUPOS);
+            insertado = true;
         } catch (SQLException e) {
             handleSQLException(e, "Error al insertar grupo");
+        } finally {
+            if (!insertado) {
+                agendaProfesores.descartar(reserva);
+            }
         }
     }
 
-    public void modificarGrupo(Grupo grupo) throws GlobalException, NoDataException {
+    /**
+     * Los campos null conservan su valor; el cupo solo se quita con sinCupo.
+     */
+    public void modificarGrupo(Grupo grupo, boolean sinCupo) throws GlobalException, NoDataException {
+        agendaProfesores.reservar(grupo.getIdGrupo(), grupo.getIdProfesor(), grupo.getIdCarreraCurso(), grupo.getHorario());
+        boolean modificado = false;
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_GRUPO)) {
             pstmt.setLong(1, grupo.getIdGrupo());
@@ -59,12 +101,22 @@ public class GrupoService {
             pstmt.setLong(3, grupo.getNumeroGrupo());
             pstmt.setString(4, grupo.getHorario());
             pstmt.setLong(5, grupo.getIdProfesor());
+            pstmt.setObject(6, grupo.getCupo(), Types.NUMERIC);
+            pstmt.setInt(7, sinCupo ? 1 : 0);
             int resultado = pstmt.executeUpdate();
             if (resultado == 0) {
                 throw new NoDataException("No se realizó la actualización del grupo");
             }
+            modificado = true;
+            versiones.incrementar(VersionesTablas.GRUPOS);
+            colaMatricula.olvidarGrupo(grupo.getIdGrupo());
+            cuposGrupo.conciliar(grupo.getIdGrupo());
         } catch (SQLException e) {
             throw new GlobalException("Error al modificar grupo: sentencia inválida: " + e.getMessage());
+        } finally {
+            if (!modificado) {
+                agendaProfesores.descartar(grupo.getIdGrupo());
+            }
         }
     }
 
@@ -76,22 +128,19 @@ public class GrupoService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó el borrado: el grupo no existe");
             }
+            versiones.incrementar(VersionesTablas.GRUPOS);
+            cuposGrupo.olvidar(idGrupo);
+            colaMatricula.olvidarGrupo(idGrupo);
+            agendaProfesores.quitar(idGrupo);
         } catch (SQLException e) {
             handleSQLException(e, "Error al eliminar grupo");
         }
     }
 
     public List<Grupo> listarGrupos() throws GlobalException, NoDataException {
-        List<Grupo> grupos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_GRUPOS)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    grupos.add(mapResultToGrupo(rs));
-                }
-            }
+        List<Grupo> grupos;
+        try {
+            grupos = queryEngine.queryForList(LISTAR_GRUPOS, QueryEngine.SIN_PARAMETROS, this::mapResultToGrupo);
         } catch (SQLException e) {
             throw new GlobalException("Error al listar grupos: " + e.getMessage());
         }
@@ -101,19 +150,46 @@ public class GrupoService {
         return grupos;
     }
 
+    /**
+     * Entrega cada grupo al consumidor a medida que se lee del cursor, sin materializar la lista.
+     */
+    public long recorrerGrupos(Consumer<? super Grupo> consumidor) throws GlobalException {
+        try {
+            return queryEngine.forEach(LISTAR_GRUPOS, QueryEngine.SIN_PARAMETROS, this::mapResultToGrupo, consumidor);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar grupos: " + e.getMessage());
+        }
+    }
+
+    public Pagina<Grupo> listarGruposPaginado(String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<Grupo> filas = queryEngine.queryForList(LISTAR_GRUPOS_PAGINA, limite + 1, cs -> {
+                cs.setObject(2, despues, Types.NUMERIC);
+                cs.setInt(3, limite + 1);
+            }, this::mapResultToGrupo);
+            return Paginacion.armar(filas, limite, Grupo::getIdGrupo);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar grupos paginados: " + e.getMessage());
+        }
+    }
+
+    public long contarGrupos() throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_GRUPOS, "grupos", QueryEngine.SIN_PARAMETROS);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar grupos: " + e.getMessage());
+        }
+    }
+
     public List<GrupoDto> buscarGruposPorCarreraCurso(Long idCarrera, Long idCurso) throws GlobalException, NoDataException {
-        List<GrupoDto> grupos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_GRUPOS_POR_CARRERA_CURSO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCarrera);
-            pstmt.setLong(3, idCurso);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    grupos.add(mapResultToGrupoDto(rs));
-                }
-            }
+        List<GrupoDto> grupos;
+        try {
+            grupos = queryEngine.queryForList(BUSCAR_GRUPOS_POR_CARRERA_CURSO, cs -> {
+                cs.setLong(2, idCarrera);
+                cs.setLong(3, idCurso);
+            }, this::mapResultToGrupoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar grupos por carrera y curso: " + e.getMessage());
         }
@@ -124,19 +200,13 @@ public class GrupoService {
     }
 
     public List<GrupoDto> buscarGruposPorCursoCicloCarrera(Long idCurso, Long idCiclo, Long idCarrera) throws GlobalException, NoDataException {
-        List<GrupoDto> grupos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_GRUPOS_POR_CURSO_CICLO_CARRERA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idCurso);
-            pstmt.setLong(3, idCiclo);
-            pstmt.setLong(4, idCarrera);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    grupos.add(mapResultToGrupoDto(rs));
-                }
-            }
+        List<GrupoDto> grupos;
+        try {
+            grupos = queryEngine.queryForList(BUSCAR_GRUPOS_POR_CURSO_CICLO_CARRERA, cs -> {
+                cs.setLong(2, idCurso);
+                cs.setLong(3, idCiclo);
+                cs.setLong(4, idCarrera);
+            }, this::mapResultToGrupoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar grupos por curso, ciclo y carrera: " + e.getMessage());
         }
@@ -147,17 +217,9 @@ public class GrupoService {
     }
 
     public List<GrupoDto> buscarGruposPorProfesor(String cedula) throws GlobalException, NoDataException {
-        List<GrupoDto> grupos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_GRUPOS_POR_PROFESOR)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, cedula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    grupos.add(mapResultToGrupoDto(rs));
-                }
-            }
+        List<GrupoDto> grupos;
+        try {
+            grupos = queryEngine.queryForList(BUSCAR_GRUPOS_POR_PROFESOR, cs -> cs.setString(2, cedula), this::mapResultToGrupoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar grupos por profesor: " + e.getMessage());
         }
@@ -167,28 +229,47 @@ public class GrupoService {
         return grupos;
     }
 
+    public Pagina<GrupoDto> buscarGruposPorProfesorPaginado(String cedula, String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<GrupoDto> filas = queryEngine.queryForList(BUSCAR_GRUPOS_POR_PROFESOR_PAGINA, limite + 1, cs -> {
+                cs.setString(2, cedula);
+                cs.setObject(3, despues, Types.NUMERIC);
+                cs.setInt(4, limite + 1);
+            }, this::mapResultToGrupoDto);
+            return Paginacion.armar(filas, limite, GrupoDto::getIdGrupo);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al buscar grupos por profesor paginados: " + e.getMessage());
+        }
+    }
+
+    public long contarGruposPorProfesor(String cedula) throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_GRUPOS_POR_PROFESOR, "grupos:profesor:" + cedula, cs -> cs.setString(2, cedula));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar grupos por profesor: " + e.getMessage());
+        }
+    }
+
     public List<GrupoProfesorDto> buscarGruposPorProfesorCicloActivo(String cedula) throws GlobalException, NoDataException {
-        List<GrupoProfesorDto> grupos = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_GRUPOS_POR_PROFESOR_CICLO_ACTIVO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, cedula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    grupos.add(new GrupoProfesorDto(
-                            rs.getLong("id_grupo"),
-                            rs.getLong("numero_grupo"),
-                            rs.getString("horario"),
-                            rs.getString("codigo_curso"),
-                            rs.getString("nombre_curso"),
-                            rs.getString("codigo_carrera"),
-                            rs.getString("nombre_carrera"),
-                            rs.getLong("anio"),
-                            rs.getLong("numero_ciclo")
-                    ));
-                }
-            }
+        Ciclo ciclo = cicloActivo.requerido();
+        List<GrupoProfesorDto> grupos;
+        try {
+            grupos = queryEngine.queryForList(BUSCAR_GRUPOS_POR_PROFESOR_CICLO_ACTIVO, cs -> {
+                cs.setString(2, cedula);
+                cs.setLong(3, ciclo.getIdCiclo());
+            }, rs -> new GrupoProfesorDto(
+                    rs.getLong("id_grupo"),
+                    rs.getLong("numero_grupo"),
+                    rs.getString("horario"),
+                    rs.getString("codigo_curso"),
+                    rs.getString("nombre_curso"),
+                    rs.getString("codigo_carrera"),
+                    rs.getString("nombre_carrera"),
+                    ciclo.getAnio(),
+                    ciclo.getNumero()
+            ));
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar grupos por profesor en ciclo activo: " + e.getMessage());
         }
@@ -199,68 +280,61 @@ public class GrupoService {
     }
 
     public GrupoDto buscarGrupoPorMatricula(Long idMatricula) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_GRUPO_POR_MATRICULA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idMatricula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultToGrupoDto(rs);
-                }
-            }
-            throw new NoDataException("No se encontró grupo para la matrícula: " + idMatricula);
+        GrupoDto grupo;
+        try {
+            grupo = queryEngine.queryForFirst(BUSCAR_GRUPO_POR_MATRICULA, cs -> cs.setLong(2, idMatricula), this::mapResultToGrupoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar grupo por matrícula: " + e.getMessage());
         }
+        if (grupo == null) {
+            throw new NoDataException("No se encontró grupo para la matrícula: " + idMatricula);
+        }
+        return grupo;
     }
 
     public CursoDto buscarCursoPorGrupo(Long idGrupo) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_CURSO_POR_GRUPO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idGrupo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return new CursoDto(
-                            rs.getLong("id_curso"),
-                            rs.getString("codigo"),
-                            rs.getString("nombre"),
-                            (long) rs.getInt("creditos"),
-                            (long) rs.getInt("horas_semanales"),
-                            rs.getLong("id_carrera_curso")
-                    );
-                }
-            }
-            throw new NoDataException("No se encontró curso para el grupo: " + idGrupo);
+        CursoDto curso;
+        try {
+            curso = queryEngine.queryForFirst(BUSCAR_CURSO_POR_GRUPO, cs -> cs.setLong(2, idGrupo), rs -> new CursoDto(
+                    rs.getLong("id_curso"),
+                    rs.getString("codigo"),
+                    rs.getString("nombre"),
+                    (long) rs.getInt("creditos"),
+                    (long) rs.getInt("horas_semanales"),
+                    rs.getLong("id_carrera_curso")
+            ));
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar curso por grupo: " + e.getMessage());
         }
+        if (curso == null) {
+            throw new NoDataException("No se encontró curso para el grupo: " + idGrupo);
+        }
+        return curso;
     }
 
     // Utilitarios
     public void verificarEliminar(Long idGrupo) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Matricula WHERE pk_grupo = ?")) {
-            pstmt.setLong(1, idGrupo);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el grupo: tiene estudiantes matriculados.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_GRUPO, cs -> cs.setLong(2, idGrupo));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de grupo: " + e.getMessage());
         }
+        if (bloqueo == 1) {
+            throw new GlobalException("No se puede eliminar el grupo: tiene estudiantes matriculados.");
+        }
     }
 
     private Grupo mapResultToGrupo(ResultSet rs) throws SQLException {
+        long cupo = rs.getLong("cupo");
+        boolean sinCupo = rs.wasNull();
         return new Grupo(
                 rs.getLong("id_grupo"),
                 rs.getLong("pk_carrera_curso"),
                 rs.getLong("numero_grupo"),
                 rs.getString("horario"),
-                rs.getLong("pk_profesor")
+                rs.getLong("pk_profesor"),
+                sinCupo ? null : cupo
         );
     }
 
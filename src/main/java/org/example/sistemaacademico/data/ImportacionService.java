@@ -0,0 +1,356 @@
+package org.example.sistemaacademico.data;
+
+import jakarta.annotation.PreDestroy;
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.logic.Alumno;
+import org.example.sistemaacademico.logic.Curso;
+import org.example.sistemaacademico.logic.Profesor;
+import org.example.sistemaacademico.logic.Usuario;
+import org.example.sistemaacademico.logic.dto.ErrorImportacion;
+import org.example.sistemaacademico.logic.dto.EstadoImportacion;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importa archivos CSV de alumnos, profesores, cursos y usuarios en segundo plano.
+ * <p>
+ * El archivo se lee línea por línea desde un temporal en disco; las líneas se agrupan en bloques
+ * que se validan en un pool de trabajadores y se escriben en orden con las inserciones por lotes
+ * de cada servicio (una conexión por bloque, no por fila). Solo se mantienen en memoria los bloques
+ * en vuelo: cuando se alcanza el límite, la lectura espera a que se escriba el bloque más antiguo.
+ * La primera línea del archivo se toma como encabezado y se ignora.
+ */
+@Service
+public class ImportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionService.class);
+
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADO = "COMPLETADO";
+    public static final String FALLIDO = "FALLIDO";
+
+    private static final Duration RETENCION = Duration.ofHours(1);
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        T parse(String[] campos);
+    }
+
+    @FunctionalInterface
+    private interface Escritor<T> {
+        List<ResultadoLote> escribir(List<T> filas, Integer tamanoBloque);
+    }
+
+    private record Importador<T>(int columnas, Parser<T> parser, Escritor<T> escritor) {
+    }
+
+    private record Linea(long numero, String texto) {
+    }
+
+    private record Bloque<T>(List<T> validas, List<Long> lineas, List<ErrorImportacion> errores) {
+    }
+
+    private final Map<String, Importador<?>> importadores = new HashMap<>();
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+    private final ExecutorService lectores;
+    private final ExecutorService validadores;
+    private final int tamanoBloque;
+    private final int bloquesEnVuelo;
+    private final int maxErrores;
+
+    @Autowired
+    public ImportacionService(AlumnoService alumnoService, ProfesorService profesorService,
+                              CursoService cursoService, UsuarioService usuarioService,
+                              @Value("${sistema.importacion.tamano-bloque:1000}") int tamanoBloque,
+                              @Value("${sistema.importacion.bloques-en-vuelo:4}") int bloquesEnVuelo,
+                              @Value("${sistema.importacion.validadores:2}") int validadores,
+                              @Value("${sistema.importacion.max-trabajos:2}") int maxTrabajos,
+                              @Value("${sistema.importacion.max-errores:1000}") int maxErrores,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        this.tamanoBloque = tamanoBloque;
+        this.bloquesEnVuelo = bloquesEnVuelo;
+        this.maxErrores = maxErrores;
+        // Sin cola: si todos los lectores están ocupados la importación se rechaza en lugar de encolarse.
+        // Los lectores pasan la mayor parte del tiempo esperando a la base de datos; los validadores usan CPU
+        // y siguen en hilos de plataforma.
+        ThreadFactory fabricaLectores = hilosVirtuales
+                ? Thread.ofVirtual().name("importacion-", 0).factory()
+                : Thread.ofPlatform().name("importacion-", 0).factory();
+        this.lectores = new ThreadPoolExecutor(maxTrabajos, maxTrabajos, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), fabricaLectores);
+        this.validadores = Executors.newFixedThreadPool(validadores,
+                Thread.ofPlatform().name("importacion-validador-", 0).daemon().factory());
+
+        importadores.put("alumnos", new Importador<>(6, c -> new Alumno(null, texto(c[0]), texto(c[1]), texto(c[2]),
+                texto(c[3]), LocalDate.parse(c[4].trim()), Long.valueOf(c[5].trim())),
+                alumnoService::insertarAlumnosLote));
+        importadores.put("profesores", new Importador<>(4, c -> new Profesor(null, texto(c[0]), texto(c[1]),
+                texto(c[2]), texto(c[3])), profesorService::insertarLote));
+        importadores.put("cursos", new Importador<>(4, c -> new Curso(null, texto(c[0]), texto(c[1]),
+                Long.valueOf(c[2].trim()), Long.valueOf(c[3].trim())), cursoService::insertarCursosLote));
+        importadores.put("usuarios", new Importador<>(3, c -> new Usuario(null, texto(c[0]), texto(c[1]),
+                texto(c[2])), usuarioService::insertarLote));
+    }
+
+    /**
+     * Copia el archivo a un temporal e inicia la importación en segundo plano.
+     *
+     * @return el estado inicial del trabajo, con su id para consultar el avance
+     */
+    public EstadoImportacion iniciar(String entidad, MultipartFile archivo) throws GlobalException {
+        Importador<?> importador = importadores.get(entidad.toLowerCase(Locale.ROOT));
+        if (importador == null) {
+            throw new GlobalException("Entidad de importación no soportada: " + entidad);
+        }
+        if (archivo == null || archivo.isEmpty()) {
+            throw new GlobalException("El archivo de importación está vacío.");
+        }
+        purgarTerminados();
+
+        Path temporal;
+        try {
+            temporal = Files.createTempFile("importacion-", ".csv");
+            archivo.transferTo(temporal);
+        } catch (IOException e) {
+            throw new GlobalException("Error al recibir el archivo de importación: " + e.getMessage());
+        }
+
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), entidad.toLowerCase(Locale.ROOT));
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            lectores.execute(() -> procesar(trabajo, importador, temporal));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id);
+            eliminar(temporal);
+            throw new GlobalException("Hay demasiadas importaciones en curso. Intente más tarde.");
+        }
+        logger.info("Importación {} de {} iniciada ({} bytes)", trabajo.id, trabajo.entidad, archivo.getSize());
+        return trabajo.estado();
+    }
+
+    public EstadoImportacion estado(String id) throws NoDataException {
+        return buscar(id).estado();
+    }
+
+    /**
+     * Filas rechazadas, hasta sistema.importacion.max-errores; el total está en filasRechazadas.
+     */
+    public List<ErrorImportacion> errores(String id) throws NoDataException {
+        Trabajo trabajo = buscar(id);
+        synchronized (trabajo.errores) {
+            return new ArrayList<>(trabajo.errores);
+        }
+    }
+
+    private Trabajo buscar(String id) throws NoDataException {
+        Trabajo trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            throw new NoDataException("No existe la importación " + id);
+        }
+        return trabajo;
+    }
+
+    private <T> void procesar(Trabajo trabajo, Importador<T> importador, Path archivo) {
+        Deque<Future<Bloque<T>>> pendientes = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            reader.readLine(); // encabezado
+            long numero = 1;
+            List<Linea> lineas = new ArrayList<>(tamanoBloque);
+            String texto;
+            while ((texto = reader.readLine()) != null) {
+                numero++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                lineas.add(new Linea(numero, texto));
+                if (lineas.size() == tamanoBloque) {
+                    enviar(trabajo, importador, lineas, pendientes);
+                    lineas = new ArrayList<>(tamanoBloque);
+                }
+            }
+            if (!lineas.isEmpty()) {
+                enviar(trabajo, importador, lineas, pendientes);
+            }
+            while (!pendientes.isEmpty()) {
+                escribir(trabajo, importador, pendientes.poll().get());
+            }
+            trabajo.terminar(COMPLETADO, null);
+            logger.info("Importación {} completada: {} insertadas, {} rechazadas",
+                    trabajo.id, trabajo.insertadas.get(), trabajo.rechazadas.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            trabajo.terminar(FALLIDO, "La importación fue interrumpida.");
+        } catch (ExecutionException e) {
+            logger.error("Importación {} fallida: {}", trabajo.id, e.getCause().getMessage(), e.getCause());
+            trabajo.terminar(FALLIDO, e.getCause().getMessage());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Importación {} fallida: {}", trabajo.id, e.getMessage(), e);
+            trabajo.terminar(FALLIDO, e.getMessage());
+        } finally {
+            pendientes.forEach(f -> f.cancel(true));
+            eliminar(archivo);
+        }
+    }
+
+    /**
+     * Envía un bloque a validación; si ya hay demasiados bloques en vuelo, primero escribe el más antiguo.
+     */
+    private <T> void enviar(Trabajo trabajo, Importador<T> importador, List<Linea> lineas,
+                            Deque<Future<Bloque<T>>> pendientes) throws InterruptedException, ExecutionException {
+        trabajo.leidas.addAndGet(lineas.size());
+        pendientes.add(validadores.submit(() -> validar(importador, lineas)));
+        if (pendientes.size() >= bloquesEnVuelo) {
+            escribir(trabajo, importador, pendientes.poll().get());
+        }
+    }
+
+    private <T> Bloque<T> validar(Importador<T> importador, List<Linea> lineas) {
+        List<T> validas = new ArrayList<>(lineas.size());
+        List<Long> numeros = new ArrayList<>(lineas.size());
+        List<ErrorImportacion> errores = new ArrayList<>();
+        for (Linea linea : lineas) {
+            String[] campos = dividir(linea.texto());
+            if (campos.length != importador.columnas()) {
+                errores.add(new ErrorImportacion(linea.numero(), null, "Se esperaban " + importador.columnas()
+                        + " columnas y se encontraron " + campos.length + "."));
+                continue;
+            }
+            try {
+                validas.add(importador.parser().parse(campos));
+                numeros.add(linea.numero());
+            } catch (IllegalArgumentException | DateTimeException e) {
+                errores.add(new ErrorImportacion(linea.numero(), null, "Valor inválido: " + e.getMessage()));
+            }
+        }
+        return new Bloque<>(validas, numeros, errores);
+    }
+
+    private <T> void escribir(Trabajo trabajo, Importador<T> importador, Bloque<T> bloque) {
+        bloque.errores().forEach(trabajo::rechazar);
+        if (bloque.validas().isEmpty()) {
+            return;
+        }
+        List<ResultadoLote> resultados = importador.escritor().escribir(bloque.validas(), tamanoBloque);
+        for (ResultadoLote resultado : resultados) {
+            if (resultado.isExito()) {
+                trabajo.insertadas.incrementAndGet();
+            } else {
+                trabajo.rechazar(new ErrorImportacion(bloque.lineas().get(resultado.getIndice()),
+                        resultado.getCodigo(), resultado.getMensaje()));
+            }
+        }
+    }
+
+    /**
+     * Divide una línea CSV separada por comas. Admite campos entre comillas dobles con comas
+     * y comillas escapadas ({@code ""}); no admite saltos de línea dentro de un campo.
+     */
+    static String[] dividir(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    private static String texto(String campo) {
+        String valor = campo.trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private void purgarTerminados() {
+        LocalDateTime limite = LocalDateTime.now().minus(RETENCION);
+        trabajos.values().removeIf(t -> t.fin != null && t.fin.isBefore(limite));
+    }
+
+    private static void eliminar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar el temporal {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        lectores.shutdownNow();
+        validadores.shutdownNow();
+    }
+
+    private final class Trabajo {
+        private final String id;
+        private final String entidad;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicLong leidas = new AtomicLong();
+        private final AtomicLong insertadas = new AtomicLong();
+        private final AtomicLong rechazadas = new AtomicLong();
+        private final List<ErrorImportacion> errores = new ArrayList<>();
+        private volatile String estado = EN_PROCESO;
+        private volatile String mensaje;
+        private volatile LocalDateTime fin;
+
+        private Trabajo(String id, String entidad) {
+            this.id = id;
+            this.entidad = entidad;
+        }
+
+        private void rechazar(ErrorImportacion error) {
+            rechazadas.incrementAndGet();
+            synchronized (errores) {
+                if (errores.size() < maxErrores) {
+                    errores.add(error);
+                }
+            }
+        }
+
+        private void terminar(String estadoFinal, String mensajeFinal) {
+            mensaje = mensajeFinal;
+            fin = LocalDateTime.now();
+            estado = estadoFinal;
+        }
+
+        private EstadoImportacion estado() {
+            return new EstadoImportacion(id, entidad, estado, leidas.get(), insertadas.get(), rechazadas.get(),
+                    mensaje, inicio, fin);
+        }
+    }
+}
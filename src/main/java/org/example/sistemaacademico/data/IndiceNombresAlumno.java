@@ -0,0 +1,248 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.Alumno;
+import org.example.sistemaacademico.logic.Texto;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Índice de trigramas sobre el nombre de los alumnos para la búsqueda por nombre sin recorrer la tabla.
+ * <p>
+ * Los nombres se pliegan (minúsculas, sin tildes) y se parten en trigramas; cada trigrama apunta a los alumnos
+ * que lo contienen. Una búsqueda suma los trigramas en común de cada candidato y ordena por similitud (Dice),
+ * con prioridad para los nombres que contienen el texto completo. AlumnoService mantiene el índice en cada
+ * inserción, modificación y borrado; las inserciones por lote lo marcan como vencido y se reconstruye en la
+ * siguiente búsqueda. Los cambios que llegan durante una reconstrucción se aplican también al índice nuevo.
+ */
+@Component
+public class IndiceNombresAlumno {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceNombresAlumno.class);
+
+    private static final String LISTAR_ALUMNOS = "{?=call listarAlumnos()}";
+    // Similitud mínima para los nombres que no contienen el texto buscado
+    private static final double SIMILITUD_MINIMA = 0.3;
+
+    private final QueryEngine queryEngine;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private Indice indice = new Indice();
+    private List<Consumer<Indice>> pendientes;
+    private volatile boolean vigente;
+
+    @Autowired
+    public IndiceNombresAlumno(QueryEngine queryEngine) {
+        this.queryEngine = queryEngine;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            reconstruir();
+        } catch (GlobalException e) {
+            logger.warn("No se pudo cargar el índice de nombres de alumnos al iniciar; se reintentará en la primera búsqueda: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Alumnos cuyo nombre se parece al texto, del más al menos parecido. El cursor es la posición en el ranking.
+     */
+    public Pagina<Alumno> buscar(String texto, String cursor, Integer limit) throws GlobalException {
+        String consulta = Texto.plegar(texto);
+        if (consulta.isEmpty()) {
+            throw new GlobalException("El texto de búsqueda no puede estar vacío.");
+        }
+        int limite = Paginacion.limite(limit);
+        Long desde = Paginacion.decodificar(cursor);
+        int inicio = desde == null ? 0 : desde.intValue();
+        if (!vigente) {
+            reconstruir();
+        }
+        List<Alumno> ranking;
+        lock.readLock().lock();
+        try {
+            ranking = indice.buscar(consulta, inicio + limite + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (inicio >= ranking.size()) {
+            return new Pagina<>(List.of(), null);
+        }
+        List<Alumno> items = ranking.subList(inicio, Math.min(ranking.size(), inicio + limite));
+        String siguiente = ranking.size() > inicio + limite ? Paginacion.codificar(inicio + limite) : null;
+        return new Pagina<>(new ArrayList<>(items), siguiente);
+    }
+
+    public void poner(Alumno alumno) {
+        aplicar(i -> i.poner(alumno));
+    }
+
+    public void quitar(Long idAlumno) {
+        aplicar(i -> i.quitar(idAlumno));
+    }
+
+    public void quitarPorCedula(String cedula) {
+        aplicar(i -> i.quitarPorCedula(cedula));
+    }
+
+    /**
+     * Marca el índice como vencido; se reconstruye en la siguiente búsqueda.
+     */
+    public void invalidar() {
+        vigente = false;
+    }
+
+    private void aplicar(Consumer<Indice> cambio) {
+        lock.writeLock().lock();
+        try {
+            cambio.accept(indice);
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reconstruir() throws GlobalException {
+        reconstruccion.lock();
+        try {
+            if (vigente) {
+                return;
+            }
+            // Se marca antes de leer: una invalidación durante la lectura vuelve a dejarlo vencido
+            vigente = true;
+            lock.writeLock().lock();
+            try {
+                pendientes = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Indice nuevo = new Indice();
+            try {
+                queryEngine.forEach(LISTAR_ALUMNOS, QueryEngine.SIN_PARAMETROS, AlumnoService::mapResultSetToAlumno, nuevo::poner);
+            } catch (SQLException | RuntimeException e) {
+                vigente = false;
+                lock.writeLock().lock();
+                try {
+                    pendientes = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw new GlobalException("Error al cargar el índice de nombres de alumnos: " + e.getMessage());
+            }
+            lock.writeLock().lock();
+            try {
+                pendientes.forEach(cambio -> cambio.accept(nuevo));
+                pendientes = null;
+                indice = nuevo;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Índice de nombres de alumnos cargado: {} alumnos", nuevo.porId.size());
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private static List<String> trigramas(String plegado) {
+        String relleno = " " + plegado + " ";
+        List<String> trigramas = new ArrayList<>(relleno.length());
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            String trigrama = relleno.substring(i, i + 3);
+            if (!trigramas.contains(trigrama)) {
+                trigramas.add(trigrama);
+            }
+        }
+        return trigramas;
+    }
+
+    private record Entrada(Alumno alumno, String plegado, List<String> trigramas) {
+    }
+
+    private record Coincidencia(Entrada entrada, boolean contiene, double similitud) {
+    }
+
+    private static final class Indice {
+        private final Map<Long, Entrada> porId = new HashMap<>();
+        private final Map<String, Long> idPorCedula = new HashMap<>();
+        private final Map<String, Set<Long>> porTrigrama = new HashMap<>();
+
+        private void poner(Alumno alumno) {
+            quitar(alumno.getIdAlumno());
+            String plegado = Texto.plegar(alumno.getNombre());
+            Entrada entrada = new Entrada(alumno, plegado, trigramas(plegado));
+            porId.put(alumno.getIdAlumno(), entrada);
+            if (alumno.getCedula() != null) {
+                idPorCedula.put(alumno.getCedula(), alumno.getIdAlumno());
+            }
+            for (String trigrama : entrada.trigramas()) {
+                porTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(alumno.getIdAlumno());
+            }
+        }
+
+        private void quitar(Long idAlumno) {
+            Entrada entrada = porId.remove(idAlumno);
+            if (entrada == null) {
+                return;
+            }
+            idPorCedula.remove(entrada.alumno().getCedula(), idAlumno);
+            for (String trigrama : entrada.trigramas()) {
+                Set<Long> ids = porTrigrama.get(trigrama);
+                ids.remove(idAlumno);
+                if (ids.isEmpty()) {
+                    porTrigrama.remove(trigrama);
+                }
+            }
+        }
+
+        private void quitarPorCedula(String cedula) {
+            Long id = idPorCedula.get(cedula);
+            if (id != null) {
+                quitar(id);
+            }
+        }
+
+        private List<Alumno> buscar(String consulta, int maximo) {
+            List<String> buscados = trigramas(consulta);
+            Map<Long, Integer> comunes = new HashMap<>();
+            for (String trigrama : buscados) {
+                for (Long id : porTrigrama.getOrDefault(trigrama, Set.of())) {
+                    comunes.merge(id, 1, Integer::sum);
+                }
+            }
+            List<Coincidencia> coincidencias = new ArrayList<>();
+            for (Map.Entry<Long, Integer> candidato : comunes.entrySet()) {
+                Entrada entrada = porId.get(candidato.getKey());
+                boolean contiene = entrada.plegado().contains(consulta);
+                double similitud = 2.0 * candidato.getValue() / (buscados.size() + entrada.trigramas().size());
+                if (contiene || similitud >= SIMILITUD_MINIMA) {
+                    coincidencias.add(new Coincidencia(entrada, contiene, similitud));
+                }
+            }
+            Comparator<Coincidencia> orden = Comparator.comparing(Coincidencia::contiene).reversed()
+                    .thenComparing(Comparator.comparingDouble(Coincidencia::similitud).reversed())
+                    .thenComparing(c -> c.entrada().plegado())
+                    .thenComparing(c -> c.entrada().alumno().getIdAlumno());
+            return coincidencias.stream()
+                    .sorted(orden)
+                    .limit(maximo)
+                    .map(c -> c.entrada().alumno())
+                    .toList();
+        }
+    }
+}
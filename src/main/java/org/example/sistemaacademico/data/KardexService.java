@@ -0,0 +1,188 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.dto.KardexCicloDto;
+import org.example.sistemaacademico.logic.dto.KardexCursoDto;
+import org.example.sistemaacademico.logic.dto.KardexDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kardex (historial académico) con promedio ponderado por créditos por ciclo y general.
+ * <p>
+ * Los promedios por ciclo se calculan en la base de datos en una sola consulta. Las notas de los ciclos
+ * cerrados ya no cambian, así que sus secciones se conservan en memoria por alumno y las siguientes
+ * solicitudes solo consultan los ciclos abiertos. Lo memorizado vale por el día en que se calculó (un ciclo
+ * puede cerrarse al pasar su fecha de fin). Una matrícula nueva descarta lo del alumno; corregir o borrar una
+ * matrícula y cambiar un ciclo descartan todo.
+ */
+@Service
+public class KardexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KardexService.class);
+
+    private static final String KARDEX_POR_ALUMNO = "{?=call kardexPorAlumno(?,?)}";
+
+    private final QueryEngine queryEngine;
+    private final int maxAlumnos;
+    // cédula -> secciones de los ciclos cerrados
+    private final Map<String, Memoria> ciclosCerrados = new ConcurrentHashMap<>();
+    // id del alumno -> cédula, para descartar por alumno desde las matrículas
+    private final Map<Long, String> cedulas = new ConcurrentHashMap<>();
+    // Cambia con cada descarte; un cálculo que empezó antes no se memoriza
+    private final AtomicLong generacion = new AtomicLong();
+
+    private record Memoria(LocalDate dia, List<KardexCicloDto> ciclos) {
+    }
+
+    @Autowired
+    public KardexService(QueryEngine queryEngine, @Value("${sistema.kardex.max-alumnos:20000}") int maxAlumnos) {
+        this.queryEngine = queryEngine;
+        this.maxAlumnos = maxAlumnos;
+    }
+
+    public KardexDto kardexPorAlumno(String cedula) throws GlobalException {
+        LocalDate hoy = LocalDate.now();
+        Memoria memoria = ciclosCerrados.get(cedula);
+        boolean memorizado = memoria != null && memoria.dia().equals(hoy);
+        long inicio = generacion.get();
+        Long[] idAlumno = new Long[1];
+        List<KardexCicloDto> consultados = consultar(cedula, memorizado, idAlumno);
+
+        List<KardexCicloDto> ciclos = new ArrayList<>(consultados.size());
+        if (memorizado) {
+            ciclos.addAll(memoria.ciclos());
+            ciclos.addAll(consultados);
+        } else {
+            List<KardexCicloDto> cerrados = new ArrayList<>();
+            for (KardexCicloDto ciclo : consultados) {
+                if (cerrado(ciclo, hoy)) {
+                    cerrados.add(ciclo);
+                }
+            }
+            // Sin filas no se conoce el id del alumno y no habría cómo descartarlo al matricular
+            if (idAlumno[0] != null) {
+                memorizar(cedula, idAlumno[0], new Memoria(hoy, List.copyOf(cerrados)), inicio);
+            }
+            ciclos.addAll(consultados);
+        }
+        ciclos.sort(Comparator.comparing(KardexCicloDto::getAnio).thenComparing(KardexCicloDto::getNumero));
+
+        long creditos = 0;
+        double puntos = 0;
+        for (KardexCicloDto ciclo : ciclos) {
+            if (ciclo.getCreditos() != null && ciclo.getPromedio() != null) {
+                creditos += ciclo.getCreditos();
+                puntos += ciclo.getPromedio() * ciclo.getCreditos();
+            }
+        }
+        return new KardexDto(cedula, ciclos, creditos, creditos == 0 ? null : puntos / creditos);
+    }
+
+    /**
+     * Descarta los ciclos cerrados memorizados; se llama cuando cambia una nota, se borra una matrícula o cambia un ciclo.
+     */
+    public void invalidar() {
+        generacion.incrementAndGet();
+        ciclosCerrados.clear();
+        cedulas.clear();
+    }
+
+    /**
+     * Descarta los ciclos cerrados memorizados de un alumno; se llama al insertarle una matrícula.
+     */
+    public void invalidar(Long idAlumno) {
+        if (idAlumno == null) {
+            return;
+        }
+        generacion.incrementAndGet();
+        String cedula = cedulas.remove(idAlumno);
+        if (cedula != null) {
+            ciclosCerrados.remove(cedula);
+        }
+    }
+
+    private List<KardexCicloDto> consultar(String cedula, boolean soloAbiertos, Long[] idAlumno) throws GlobalException {
+        List<KardexCicloDto> ciclos = new ArrayList<>();
+        try {
+            queryEngine.forEach(KARDEX_POR_ALUMNO, cs -> {
+                cs.setString(2, cedula);
+                cs.setInt(3, soloAbiertos ? 1 : 0);
+            }, this::mapFila, fila -> {
+                idAlumno[0] = fila.idAlumno();
+                KardexCicloDto ciclo = ciclos.isEmpty() ? null : ciclos.get(ciclos.size() - 1);
+                if (ciclo == null || !ciclo.getIdCiclo().equals(fila.ciclo().getIdCiclo())) {
+                    ciclo = fila.ciclo();
+                    ciclos.add(ciclo);
+                }
+                ciclo.getCursos().add(fila.curso());
+            });
+        } catch (SQLException e) {
+            logger.error("Error al consultar kardex: {}", e.getMessage(), e);
+            throw new GlobalException("Error al consultar kardex: " + e.getMessage());
+        }
+        return ciclos;
+    }
+
+    private void memorizar(String cedula, Long idAlumno, Memoria memoria, long inicio) {
+        if (ciclosCerrados.size() >= maxAlumnos) {
+            ciclosCerrados.clear();
+            cedulas.clear();
+        }
+        cedulas.put(idAlumno, cedula);
+        ciclosCerrados.put(cedula, memoria);
+        // Si hubo un descarte mientras se consultaba, lo calculado puede no incluir ese cambio
+        if (generacion.get() != inicio) {
+            ciclosCerrados.remove(cedula, memoria);
+        }
+    }
+
+    // Mismo criterio que kardexPorAlumno usa para omitir ciclos con p_solo_abiertos = 1
+    private static boolean cerrado(KardexCicloDto ciclo, LocalDate hoy) {
+        return !"Activo".equals(ciclo.getEstado()) && ciclo.getFechaFin() != null && ciclo.getFechaFin().isBefore(hoy);
+    }
+
+    private record Fila(Long idAlumno, KardexCicloDto ciclo, KardexCursoDto curso) {
+    }
+
+    private Fila mapFila(ResultSet rs) throws SQLException {
+        Date fechaFin = rs.getDate("fecha_fin");
+        long creditosCiclo = rs.getLong("creditos_ciclo");
+        boolean conNotas = !rs.wasNull() && creditosCiclo > 0;
+        double puntosCiclo = rs.getDouble("puntos_ciclo");
+        KardexCicloDto ciclo = new KardexCicloDto(
+                rs.getLong("id_ciclo"),
+                rs.getLong("anio"),
+                rs.getLong("numero"),
+                rs.getString("estado"),
+                fechaFin == null ? null : fechaFin.toLocalDate(),
+                new ArrayList<>(),
+                conNotas ? creditosCiclo : 0L,
+                conNotas ? puntosCiclo / creditosCiclo : null
+        );
+        double nota = rs.getDouble("nota");
+        boolean sinNota = rs.wasNull();
+        KardexCursoDto curso = new KardexCursoDto(
+                rs.getString("codigo_curso"),
+                rs.getString("nombre_curso"),
+                rs.getLong("creditos"),
+                sinNota ? null : nota
+        );
+        return new Fila(rs.getLong("id_alumno"), ciclo, curso);
+    }
+}
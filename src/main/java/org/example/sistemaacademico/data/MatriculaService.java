@@ -1,53 +1,222 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.BatchExecutor;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
 import org.example.sistemaacademico.logic.Matricula;
 import org.example.sistemaacademico.logic.dto.MatriculaAlumnoDto;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 public class MatriculaService {
 
-    private static final String INSERTAR_MATRICULA = "{call insertarMatricula(?,?)}";
+    private static final String INSERTAR_MATRICULA = "{call insertarMatricula(?,?,?)}";
+    // insertarMatricula confirma por sí mismo; el lote inserta directo para confirmar una vez por bloque
+    private static final String INSERTAR_MATRICULA_LOTE = "INSERT INTO Matricula (pk_alumno, pk_grupo) VALUES (?, ?)";
     private static final String MODIFICAR_MATRICULA = "{call modificarMatricula(?,?,?,?)}";
-    private static final String ELIMINAR_MATRICULA = "{call eliminarMatricula(?)}";
+    private static final String ELIMINAR_MATRICULA = "{call eliminarMatricula(?,?)}";
     private static final String BUSCAR_MATRICULA_POR_ID = "{?=call buscarMatriculaPorId(?)}";
     private static final String LISTAR_MATRICULAS_POR_ALUMNO = "{?=call listarMatriculasPorAlumno(?)}";
     private static final String LISTAR_MATRICULAS_POR_ALUMNO_Y_CICLO = "{?=call listarMatriculasPorAlumnoYCiclo(?,?)}";
     private static final String LISTAR_MATRICULAS_POR_GRUPO = "{?=call listarMatriculasPorGrupo(?)}";
     private static final String EXISTE_MATRICULA = "{?=call existeMatriculaPorAlumnoYGrupo(?,?)}";
-    private static final String MODIFICAR_GRUPO_MATRICULA = "{call modificarGrupoMatricula(?,?)}";
+    private static final String MODIFICAR_GRUPO_MATRICULA = "{call modificarGrupoMatricula(?,?,?)}";
     private static final String BUSCAR_MATRICULA_POR_GRUPO = "{?=call buscarMatriculaPorGrupo(?)}";
+    private static final String LISTAR_MATRICULAS_POR_ALUMNO_PAGINA = "{?=call listarMatriculasPorAlumnoPagina(?,?,?)}";
+    private static final String CONTAR_MATRICULAS_POR_ALUMNO = "{?=call contarMatriculasPorAlumno(?)}";
+    private static final String LISTAR_MATRICULAS_POR_GRUPO_PAGINA = "{?=call listarMatriculasPorGrupoPagina(?,?,?)}";
+    private static final String CONTAR_MATRICULAS_POR_GRUPO = "{?=call contarMatriculasPorGrupo(?)}";
+    private static final String EXISTE_MATRICULA_POR_ID = "{?=call existeMatriculaPorId(?)}";
 
     private final DataSource dataSource;
+    private final QueryEngine queryEngine;
+    private final BatchExecutor batchExecutor;
+    private final KardexService kardexService;
+    private final EstadisticasGrupoService estadisticasGrupo;
+    private final CuposGrupo cuposGrupo;
+    private final ConflictosHorario conflictosHorario;
 
     @Autowired
-    public MatriculaService(DataSource dataSource) {
+    public MatriculaService(DataSource dataSource, QueryEngine queryEngine, BatchExecutor batchExecutor,
+                            KardexService kardexService, EstadisticasGrupoService estadisticasGrupo,
+                            CuposGrupo cuposGrupo, ConflictosHorario conflictosHorario) {
         this.dataSource = dataSource;
+        this.queryEngine = queryEngine;
+        this.batchExecutor = batchExecutor;
+        this.kardexService = kardexService;
+        this.estadisticasGrupo = estadisticasGrupo;
+        this.cuposGrupo = cuposGrupo;
+        this.conflictosHorario = conflictosHorario;
     }
 
     public void insertarMatricula(Matricula matricula) throws GlobalException, NoDataException {
+        conflictosHorario.verificarMatricula(matricula.getPkAlumno(), matricula.getPkGrupo());
+        // El cupo se verifica en memoria; un grupo lleno se rechaza sin llegar a la base de datos
+        if (!cuposGrupo.reservar(matricula.getPkGrupo())) {
+            throw new GlobalException("El grupo no tiene cupo disponible.");
+        }
+        boolean confirmada = false;
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(INSERTAR_MATRICULA)) {
             pstmt.setLong(1, matricula.getPkAlumno());
             pstmt.setLong(2, matricula.getPkGrupo());
+            pstmt.registerOutParameter(3, Types.NUMERIC);
             int filas = pstmt.executeUpdate();
             if (filas == 0) {
                 throw new NoDataException("No se realizó la inserción de la matrícula");
             }
+            confirmada = true;
+            matricula.setIdMatricula(pstmt.getLong(3));
+            estadisticasGrupo.registrar(matricula.getIdMatricula(), matricula.getPkGrupo(), null);
         } catch (SQLException e) {
             handleSQLException(e, "Error al insertar matrícula");
+        } finally {
+            if (confirmada) {
+                cuposGrupo.confirmar(matricula.getPkGrupo());
+                kardexService.invalidar(matricula.getPkAlumno());
+            } else {
+                cuposGrupo.liberar(matricula.getPkGrupo());
+            }
+        }
+    }
+
+    /**
+     * Inserta pares (alumno, grupo) en bloques, con un solo commit por bloque. Cada fila aparta antes su
+     * asiento en CuposGrupo; las de grupos llenos o con choque de horario se reportan como rechazadas sin llegar
+     * a la base de datos. Los triggers de duplicado y de carrera se evalúan por fila; un par rechazado se reporta con su código
+     * sin afectar al resto.
+     */
+    public List<ResultadoLote> insertarMatriculasLote(List<Matricula> matriculas, Integer tamanoBloque) throws GlobalException {
+        if (matriculas == null || matriculas.isEmpty()) {
+            throw new GlobalException("La lista de matrículas no puede estar vacía.");
+        }
+        ResultadoLote[] resultados = new ResultadoLote[matriculas.size()];
+        List<Matricula> reservadas = new ArrayList<>(matriculas.size());
+        List<Integer> indices = new ArrayList<>(matriculas.size());
+        try {
+            for (int i = 0; i < matriculas.size(); i++) {
+                Matricula matricula = matriculas.get(i);
+                if (cuposGrupo.reservar(matricula.getPkGrupo())) {
+                    reservadas.add(matricula);
+                    indices.add(i);
+                } else {
+                    resultados[i] = ResultadoLote.error(i, null, "El grupo no tiene cupo disponible.");
+                }
+            }
+        } catch (GlobalException e) {
+            reservadas.forEach(m -> cuposGrupo.liberar(m.getPkGrupo()));
+            throw e;
+        }
+        if (!reservadas.isEmpty()) {
+            ubicar(resultados, indices, insertarReservadas(reservadas, tamanoBloque));
+        }
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Inserta en lote matrículas cuyo asiento ya se reservó en CuposGrupo (cola de matrícula) y confirma o
+     * libera cada reserva según el resultado de su fila. El choque de horario se verifica aquí, al escribir, y
+     * no al encolar, para incluir las matrículas confirmadas mientras la solicitud esperaba.
+     */
+    public List<ResultadoLote> insertarMatriculasReservadas(List<Matricula> matriculas) throws GlobalException {
+        return insertarReservadas(matriculas, matriculas.size());
+    }
+
+    // Cada fila pasa por ConflictosHorario antes del lote; la que choca libera su asiento y no se inserta
+    private List<ResultadoLote> insertarReservadas(List<Matricula> matriculas, Integer tamanoBloque) throws GlobalException {
+        ResultadoLote[] resultados = new ResultadoLote[matriculas.size()];
+        List<Matricula> verificadas = new ArrayList<>(matriculas.size());
+        List<Integer> indices = new ArrayList<>(matriculas.size());
+        ConflictosHorario.Lote lote = conflictosHorario.nuevoLote();
+        for (int i = 0; i < matriculas.size(); i++) {
+            Matricula matricula = matriculas.get(i);
+            try {
+                lote.verificarMatricula(matricula.getPkAlumno(), matricula.getPkGrupo());
+                verificadas.add(matricula);
+                indices.add(i);
+            } catch (GlobalException e) {
+                cuposGrupo.liberar(matricula.getPkGrupo());
+                resultados[i] = ResultadoLote.error(i, null, e.getMessage());
+            }
+        }
+        if (verificadas.isEmpty()) {
+            return Arrays.asList(resultados);
+        }
+        List<ResultadoLote> insertadas;
+        try {
+            insertadas = insertarEnLote(verificadas, tamanoBloque);
+        } catch (SQLException e) {
+            verificadas.forEach(m -> cuposGrupo.liberar(m.getPkGrupo()));
+            // Los bloques anteriores al error pueden haber quedado confirmados
+            verificadas.forEach(m -> kardexService.invalidar(m.getPkAlumno()));
+            throw new GlobalException("Error al insertar lote de matrículas: " + e.getMessage());
+        }
+        for (ResultadoLote resultado : insertadas) {
+            Matricula matricula = verificadas.get(resultado.getIndice());
+            Long idGrupo = matricula.getPkGrupo();
+            if (resultado.isExito()) {
+                cuposGrupo.confirmar(idGrupo);
+                kardexService.invalidar(matricula.getPkAlumno());
+            } else {
+                cuposGrupo.liberar(idGrupo);
+            }
         }
+        gruposInsertados(verificadas, insertadas).forEach(estadisticasGrupo::invalidar);
+        ubicar(resultados, indices, insertadas);
+        return Arrays.asList(resultados);
     }
 
+    // Lleva los resultados de un sublote a la posición que sus filas tenían en la lista original
+    private static void ubicar(ResultadoLote[] resultados, List<Integer> indices, List<ResultadoLote> parciales) {
+        for (ResultadoLote resultado : parciales) {
+            int indice = indices.get(resultado.getIndice());
+            resultado.setIndice(indice);
+            resultados[indice] = resultado;
+        }
+    }
+
+    private List<ResultadoLote> insertarEnLote(List<Matricula> matriculas, Integer tamanoBloque) throws SQLException {
+        return batchExecutor.ejecutar(INSERTAR_MATRICULA_LOTE, matriculas, tamanoBloque,
+                (ps, matricula) -> {
+                    ps.setObject(1, matricula.getPkAlumno(), Types.NUMERIC);
+                    ps.setObject(2, matricula.getPkGrupo(), Types.NUMERIC);
+                },
+                e -> traducirSQLException(e, "Error al insertar matrícula"));
+    }
+
+    // El lote no devuelve los ids generados; los grupos afectados se recargan en su siguiente lectura
+    private static List<Long> gruposInsertados(List<Matricula> matriculas, List<ResultadoLote> resultados) {
+        return resultados.stream()
+                .filter(ResultadoLote::isExito)
+                .map(r -> matriculas.get(r.getIndice()).getPkGrupo())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Si la matrícula cambia de grupo, aparta antes el asiento en el grupo nuevo igual que modificarGrupoMatricula
+     * y después concilia el grupo que deja.
+     */
     public void modificarMatricula(Matricula matricula) throws GlobalException, NoDataException {
+        conflictosHorario.verificarModificacion(matricula.getIdMatricula(), matricula.getPkAlumno(),
+                matricula.getPkGrupo());
+        Long idGrupoAnterior = buscarMatriculaPorId(matricula.getIdMatricula()).getPkGrupo();
+        boolean cambiaDeGrupo = !matricula.getPkGrupo().equals(idGrupoAnterior);
+        if (cambiaDeGrupo && !cuposGrupo.reservar(matricula.getPkGrupo())) {
+            throw new GlobalException("El grupo no tiene cupo disponible.");
+        }
+        boolean modificada = false;
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_MATRICULA)) {
             pstmt.setLong(1, matricula.getIdMatricula());
@@ -58,8 +227,23 @@ public class MatriculaService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la actualización de la matrícula");
             }
+            modificada = true;
+            kardexService.invalidar();
+            estadisticasGrupo.registrar(matricula.getIdMatricula(), matricula.getPkGrupo(),
+                    matricula.getNota().doubleValue());
         } catch (SQLException e) {
             handleSQLException(e, "Error al modificar matrícula");
+        } finally {
+            if (cambiaDeGrupo) {
+                if (modificada) {
+                    cuposGrupo.confirmar(matricula.getPkGrupo());
+                } else {
+                    cuposGrupo.liberar(matricula.getPkGrupo());
+                }
+            }
+        }
+        if (cambiaDeGrupo) {
+            cuposGrupo.conciliar(idGrupoAnterior);
         }
     }
 
@@ -67,30 +251,33 @@ public class MatriculaService {
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(ELIMINAR_MATRICULA)) {
             pstmt.setLong(1, idMatricula);
+            pstmt.registerOutParameter(2, Types.NUMERIC);
             int filas = pstmt.executeUpdate();
             if (filas == 0) {
                 throw new NoDataException("No se realizó el borrado: la matrícula no existe");
             }
+            kardexService.invalidar();
+            estadisticasGrupo.quitar(idMatricula);
+            long idGrupo = pstmt.getLong(2);
+            if (!pstmt.wasNull()) {
+                cuposGrupo.desocupar(idGrupo);
+            }
         } catch (SQLException e) {
             handleSQLException(e, "Error al eliminar matrícula");
         }
     }
 
     public Matricula buscarMatriculaPorId(Long id) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_MATRICULA_POR_ID)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, id);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToMatricula(rs);
-                }
-            }
+        Matricula matricula;
+        try {
+            matricula = queryEngine.queryForFirst(BUSCAR_MATRICULA_POR_ID, cs -> cs.setLong(2, id), this::mapResultSetToMatricula);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar matrícula por id: " + e.getMessage());
         }
-        throw new NoDataException("No se encontró matrícula con id: " + id);
+        if (matricula == null) {
+            throw new NoDataException("No se encontró matrícula con id: " + id);
+        }
+        return matricula;
     }
 
     private Matricula mapResultSetToMatricula(ResultSet rs) throws SQLException {
@@ -103,17 +290,9 @@ public class MatriculaService {
     }
 
     public List<MatriculaAlumnoDto> listarMatriculasPorAlumno(String cedula) throws GlobalException, NoDataException {
-        List<MatriculaAlumnoDto> matriculas = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_MATRICULAS_POR_ALUMNO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, cedula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    matriculas.add(mapResultSetToMatriculaAlumnoDto(rs));
-                }
-            }
+        List<MatriculaAlumnoDto> matriculas;
+        try {
+            matriculas = queryEngine.queryForList(LISTAR_MATRICULAS_POR_ALUMNO, cs -> cs.setString(2, cedula), this::mapResultSetToMatriculaAlumnoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al listar matrículas por alumno: " + e.getMessage());
         }
@@ -123,19 +302,36 @@ public class MatriculaService {
         return matriculas;
     }
 
+    public Pagina<MatriculaAlumnoDto> listarMatriculasPorAlumnoPaginado(String cedula, String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<MatriculaAlumnoDto> filas = queryEngine.queryForList(LISTAR_MATRICULAS_POR_ALUMNO_PAGINA, limite + 1, cs -> {
+                cs.setString(2, cedula);
+                cs.setObject(3, despues, Types.NUMERIC);
+                cs.setInt(4, limite + 1);
+            }, this::mapResultSetToMatriculaAlumnoDto);
+            return Paginacion.armar(filas, limite, MatriculaAlumnoDto::getIdMatricula);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar matrículas por alumno paginadas: " + e.getMessage());
+        }
+    }
+
+    public long contarMatriculasPorAlumno(String cedula) throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_MATRICULAS_POR_ALUMNO, "matriculas:alumno:" + cedula, cs -> cs.setString(2, cedula));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar matrículas por alumno: " + e.getMessage());
+        }
+    }
+
     public List<MatriculaAlumnoDto> listarMatriculasPorAlumnoYCiclo(Long idAlumno, Long idCiclo) throws GlobalException, NoDataException {
-        List<MatriculaAlumnoDto> matriculas = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_MATRICULAS_POR_ALUMNO_Y_CICLO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idAlumno);
-            pstmt.setLong(3, idCiclo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    matriculas.add(mapResultSetToMatriculaAlumnoDto(rs));
-                }
-            }
+        List<MatriculaAlumnoDto> matriculas;
+        try {
+            matriculas = queryEngine.queryForList(LISTAR_MATRICULAS_POR_ALUMNO_Y_CICLO, cs -> {
+                cs.setLong(2, idAlumno);
+                cs.setLong(3, idCiclo);
+            }, this::mapResultSetToMatriculaAlumnoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al listar matrículas por alumno y ciclo: " + e.getMessage());
         }
@@ -146,17 +342,9 @@ public class MatriculaService {
     }
 
     public List<MatriculaAlumnoDto> listarMatriculasPorGrupo(Long idGrupo) throws GlobalException, NoDataException {
-        List<MatriculaAlumnoDto> matriculas = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_MATRICULAS_POR_GRUPO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idGrupo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    matriculas.add(mapResultSetToMatriculaAlumnoDto(rs));
-                }
-            }
+        List<MatriculaAlumnoDto> matriculas;
+        try {
+            matriculas = queryEngine.queryForList(LISTAR_MATRICULAS_POR_GRUPO, cs -> cs.setLong(2, idGrupo), this::mapResultSetToMatriculaAlumnoDto);
         } catch (SQLException e) {
             throw new GlobalException("Error al listar matrículas por grupo: " + e.getMessage());
         }
@@ -166,61 +354,93 @@ public class MatriculaService {
         return matriculas;
     }
 
+    public Pagina<MatriculaAlumnoDto> listarMatriculasPorGrupoPaginado(Long idGrupo, String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<MatriculaAlumnoDto> filas = queryEngine.queryForList(LISTAR_MATRICULAS_POR_GRUPO_PAGINA, limite + 1, cs -> {
+                cs.setLong(2, idGrupo);
+                cs.setObject(3, despues, Types.NUMERIC);
+                cs.setInt(4, limite + 1);
+            }, this::mapResultSetToMatriculaAlumnoDto);
+            return Paginacion.armar(filas, limite, MatriculaAlumnoDto::getIdMatricula);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar matrículas por grupo paginadas: " + e.getMessage());
+        }
+    }
+
+    public long contarMatriculasPorGrupo(Long idGrupo) throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_MATRICULAS_POR_GRUPO, "matriculas:grupo:" + idGrupo, cs -> cs.setLong(2, idGrupo));
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar matrículas por grupo: " + e.getMessage());
+        }
+    }
+
     public boolean existeMatriculaPorAlumnoYGrupo(Long idAlumno, Long idGrupo) throws GlobalException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(EXISTE_MATRICULA)) {
-            pstmt.registerOutParameter(1, Types.INTEGER);
-            pstmt.setLong(2, idAlumno);
-            pstmt.setLong(3, idGrupo);
-            pstmt.execute();
-            return pstmt.getInt(1) == 1;
+        try {
+            return queryEngine.existe(EXISTE_MATRICULA, cs -> {
+                cs.setLong(2, idAlumno);
+                cs.setLong(3, idGrupo);
+            });
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar existencia de matrícula: " + e.getMessage());
         }
     }
 
     public void modificarGrupoMatricula(Long idMatricula, Long idGrupo) throws GlobalException, NoDataException {
+        conflictosHorario.verificarCambioDeGrupo(idMatricula, idGrupo);
+        if (!cuposGrupo.reservar(idGrupo)) {
+            throw new GlobalException("El grupo no tiene cupo disponible.");
+        }
+        Long idGrupoAnterior = null;
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_GRUPO_MATRICULA)) {
             pstmt.setLong(1, idMatricula);
             pstmt.setLong(2, idGrupo);
+            pstmt.registerOutParameter(3, Types.NUMERIC);
             pstmt.executeUpdate();
+            idGrupoAnterior = pstmt.getLong(3);
+            kardexService.invalidar();
+            estadisticasGrupo.mover(idMatricula, idGrupo);
         } catch (SQLException e) {
             handleSQLException(e, "Error al modificar grupo de matrícula");
+        } finally {
+            if (idGrupoAnterior != null) {
+                cuposGrupo.confirmar(idGrupo);
+            } else {
+                cuposGrupo.liberar(idGrupo);
+            }
         }
+        // El asiento que dejó la matrícula se devuelve con el conteo ya confirmado del grupo anterior
+        cuposGrupo.conciliar(idGrupoAnterior);
     }
 
     public Matricula buscarMatriculaPorGrupo(Long idGrupo) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_MATRICULA_POR_GRUPO)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setLong(2, idGrupo);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToMatricula(rs);
-                }
-            }
-            throw new NoDataException("No se encontró matrícula para el grupo: " + idGrupo);
+        Matricula matricula;
+        try {
+            matricula = queryEngine.queryForFirst(BUSCAR_MATRICULA_POR_GRUPO, cs -> cs.setLong(2, idGrupo), this::mapResultSetToMatricula);
         } catch (SQLException e) {
             throw new GlobalException("Error al buscar matrícula por grupo: " + e.getMessage());
         }
+        if (matricula == null) {
+            throw new NoDataException("No se encontró matrícula para el grupo: " + idGrupo);
+        }
+        return matricula;
     }
 
     // Utilitarios
 
     public void verificarEliminar(Long idMatricula) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Matricula WHERE id_matricula = ?")) {
-            pstmt.setLong(1, idMatricula);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) == 0) {
-                    throw new NoDataException("No se encontró matrícula con id: " + idMatricula);
-                }
-            }
+        boolean existe;
+        try {
+            existe = queryEngine.existe(EXISTE_MATRICULA_POR_ID, cs -> cs.setLong(2, idMatricula));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de matrícula: " + e.getMessage());
         }
+        if (!existe) {
+            throw new NoDataException("No se encontró matrícula con id: " + idMatricula);
+        }
     }
 
     private MatriculaAlumnoDto mapResultSetToMatriculaAlumnoDto(ResultSet rs) throws SQLException {
@@ -239,13 +459,17 @@ public class MatriculaService {
     }
 
     private void handleSQLException(SQLException e, String message) throws GlobalException {
+        throw new GlobalException(traducirSQLException(e, message));
+    }
+
+    private String traducirSQLException(SQLException e, String message) {
         int errorCode = Math.abs(e.getErrorCode());
-        String errorMessage = switch (errorCode) {
+        return switch (errorCode) {
             case 20029 -> "El alumno ya está matriculado en otro grupo de este curso.";
             case 20031 -> "La nota debe estar entre 0 y 100.";
             case 20040 -> "El alumno solo puede matricular cursos de su carrera.";
+            case 1403 -> "El alumno o el grupo no existe.";
             default -> message + ": " + e.getMessage();
         };
-        throw new GlobalException(errorMessage);
     }
 }
@@ -0,0 +1,176 @@
+package org.example.sistemaacademico.data;
+
+import jakarta.annotation.PreDestroy;
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.logic.Alumno;
+import org.example.sistemaacademico.logic.Ciclo;
+import org.example.sistemaacademico.logic.dto.CursoDto;
+import org.example.sistemaacademico.logic.dto.MatriculaAlumnoDto;
+import org.example.sistemaacademico.logic.dto.PortalAlumnoDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Arma la vista de inicio del alumno consultando los servicios existentes en paralelo.
+ * <p>
+ * Cada consulta corre en su propio hilo virtual dentro de un ámbito por petición: si una falla, las demás se
+ * cancelan; si el plazo sistema.portal.plazo-ms vence, se cancelan todas. Así la latencia de la página es la
+ * de la consulta más lenta y no la suma de todas. (StructuredTaskScope sigue en vista previa en Java 21, por
+ * lo que el ámbito se implementa aquí con Future.)
+ */
+@Service
+public class PortalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortalService.class);
+
+    private final AlumnoService alumnoService;
+    private final MatriculaService matriculaService;
+    private final CicloService cicloService;
+    private final CarreraCursoService carreraCursoService;
+    private final long plazoNanos;
+    private final ExecutorService ejecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("portal-", 0).factory());
+
+    @Autowired
+    public PortalService(AlumnoService alumnoService, MatriculaService matriculaService, CicloService cicloService,
+                         CarreraCursoService carreraCursoService,
+                         @Value("${sistema.portal.plazo-ms:3000}") long plazoMs) {
+        this.alumnoService = alumnoService;
+        this.matriculaService = matriculaService;
+        this.cicloService = cicloService;
+        this.carreraCursoService = carreraCursoService;
+        this.plazoNanos = plazoMs * 1_000_000;
+    }
+
+    public PortalAlumnoDto portalAlumno(String cedula) throws GlobalException, NoDataException {
+        try (Ambito ambito = new Ambito(System.nanoTime() + plazoNanos)) {
+            Future<Alumno> alumno = ambito.bifurcar(() -> alumnoService.buscarAlumnoPorCedula(cedula));
+            Future<Ciclo> cicloActivo = ambito.bifurcar(() -> opcional(cicloService::buscarCicloActivo));
+            Future<List<MatriculaAlumnoDto>> matriculas = ambito.bifurcar(
+                    () -> lista(() -> matriculaService.listarMatriculasPorAlumno(cedula)));
+            Future<List<Ciclo>> ciclos = ambito.bifurcar(() -> lista(cicloService::listarCiclos));
+            // La oferta depende de la carrera del alumno y del ciclo activo; espera a ambos dentro del ámbito
+            Future<List<CursoDto>> oferta = ambito.bifurcar(() -> {
+                Alumno a = alumno.get();
+                Ciclo c = cicloActivo.get();
+                if (a == null || c == null) {
+                    return List.of();
+                }
+                return lista(() -> carreraCursoService.buscarCursosPorCarreraYCiclo(a.getPkCarrera(), c.getIdCiclo()));
+            });
+
+            ambito.unir();
+            if (alumno.resultNow() == null) {
+                throw new NoDataException("No se encontró alumno con cédula: " + cedula);
+            }
+            return new PortalAlumnoDto(alumno.resultNow(), cicloActivo.resultNow(), matriculas.resultNow(),
+                    ciclos.resultNow(), oferta.resultNow());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Consulta<T> {
+        T ejecutar() throws NoDataException;
+    }
+
+    // Las consultas de listas lanzan NoDataException cuando no hay filas; en el portal eso es una sección vacía
+    private static <T> List<T> lista(Consulta<List<T>> consulta) {
+        try {
+            return consulta.ejecutar();
+        } catch (NoDataException e) {
+            return List.of();
+        }
+    }
+
+    private static <T> T opcional(Consulta<T> consulta) {
+        try {
+            return consulta.ejecutar();
+        } catch (NoDataException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Conjunto de tareas de una petición con un plazo común. La primera falla cancela las demás y
+     * al cerrar se cancela cualquier tarea que siga en curso.
+     */
+    private final class Ambito implements AutoCloseable {
+
+        private final long limite;
+        private final List<Future<?>> tareas = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> falla = new AtomicReference<>();
+
+        private Ambito(long limite) {
+            this.limite = limite;
+        }
+
+        private <T> Future<T> bifurcar(Callable<T> tarea) {
+            Future<T> futuro = ejecutor.submit(() -> {
+                try {
+                    return tarea.call();
+                } catch (Throwable t) {
+                    if (falla.compareAndSet(null, t)) {
+                        cancelarTodas();
+                    }
+                    throw t;
+                }
+            });
+            tareas.add(futuro);
+            if (falla.get() != null) {
+                futuro.cancel(true);
+            }
+            return futuro;
+        }
+
+        /**
+         * Espera a que terminen todas las tareas o a que venza el plazo, y propaga la primera falla.
+         */
+        private void unir() {
+            try {
+                for (Future<?> tarea : tareas) {
+                    tarea.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+            } catch (CancellationException | ExecutionException e) {
+                propagarFalla(e);
+            } catch (TimeoutException e) {
+                logger.warn("El portal del alumno superó el plazo de {} ms", plazoNanos / 1_000_000);
+                throw new GlobalException("La consulta del portal superó el plazo de " + plazoNanos / 1_000_000 + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GlobalException("Consulta del portal interrumpida");
+            }
+        }
+
+        private void propagarFalla(Exception e) {
+            Throwable causa = falla.get() != null ? falla.get() : e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new GlobalException("Error al consultar el portal del alumno: " + causa, causa);
+        }
+
+        private void cancelarTodas() {
+            for (Future<?> tarea : tareas) {
+                tarea.cancel(true);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelarTodas();
+        }
+    }
+}
@@ -1,35 +1,54 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.BatchExecutor;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
 import org.example.sistemaacademico.logic.Profesor;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class ProfesorService {
 
     private static final String INSERTAR_PROFESOR = "{call insertarProfesor(?,?,?,?)}";
+    private static final String INSERTAR_PROFESOR_LOTE = "INSERT INTO Profesor (cedula, nombre, telefono, email) VALUES (?, ?, ?, ?)";
     private static final String MODIFICAR_PROFESOR = "{call modificarProfesor(?,?,?,?,?)}";
     private static final String ELIMINAR_PROFESOR = "{call eliminarProfesor(?)}";
     private static final String ELIMINAR_PROFESOR_POR_CEDULA = "{call eliminarProfesorPorCedula(?)}";
     private static final String LISTAR_PROFESORES = "{?=call listarProfesores()}";
     private static final String BUSCAR_POR_CEDULA = "{?=call buscarProfesorPorCedula(?)}";
     private static final String BUSCAR_POR_NOMBRE = "{?=call buscarProfesorPorNombre(?)}";
+    private static final String LISTAR_PROFESORES_PAGINA = "{?=call listarProfesoresPagina(?,?)}";
+    private static final String CONTAR_PROFESORES = "{?=call contarProfesores()}";
+    private static final String BLOQUEO_ELIMINAR_PROFESOR = "{?=call bloqueoEliminarProfesor(?)}";
+    private static final String BLOQUEO_ELIMINAR_PROFESOR_POR_CEDULA = "{?=call bloqueoEliminarProfesorPorCedula(?)}";
 
     private final DataSource dataSource;
+    private final QueryEngine queryEngine;
+    private final BatchExecutor batchExecutor;
+    private final RegistroIdentidades identidades;
 
     @Autowired
-    public ProfesorService(DataSource dataSource) {
+    public ProfesorService(DataSource dataSource, QueryEngine queryEngine, BatchExecutor batchExecutor,
+                           RegistroIdentidades identidades) {
         this.dataSource = dataSource;
+        this.queryEngine = queryEngine;
+        this.batchExecutor = batchExecutor;
+        this.identidades = identidades;
     }
 
     public void insertar(Profesor profesor) throws GlobalException, NoDataException {
+        if (identidades.conocida(RegistroIdentidades.Tabla.PROFESOR, profesor.getCedula(), profesor.getEmail())) {
+            throw new GlobalException("Cédula o correo duplicados.");
+        }
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(INSERTAR_PROFESOR)) {
             pstmt.setString(1, profesor.getCedula());
@@ -40,12 +59,35 @@ public class ProfesorService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la inserción del profesor");
             }
+            identidades.registrar(RegistroIdentidades.Tabla.PROFESOR, profesor.getCedula(), profesor.getEmail());
         } catch (SQLException e) {
             handleSQLException(e, "Error al insertar profesor");
         }
     }
 
+    /**
+     * Inserta los profesores por bloques; cada fila rechazada se reporta sin detener el lote.
+     */
+    public List<ResultadoLote> insertarLote(List<Profesor> profesores, Integer tamanoBloque) throws GlobalException {
+        try {
+            List<ResultadoLote> resultados = batchExecutor.ejecutar(INSERTAR_PROFESOR_LOTE, profesores, tamanoBloque,
+                    (ps, profesor) -> {
+                        ps.setString(1, profesor.getCedula());
+                        ps.setString(2, profesor.getNombre());
+                        ps.setString(3, profesor.getTelefono());
+                        ps.setString(4, profesor.getEmail());
+                    },
+                    e -> traducirSQLException(e, "Error al insertar profesor"));
+            identidades.registrarExitosas(RegistroIdentidades.Tabla.PROFESOR, profesores, resultados,
+                    Profesor::getCedula, Profesor::getEmail);
+            return resultados;
+        } catch (SQLException e) {
+            throw new GlobalException("Error al insertar lote de profesores: " + e.getMessage());
+        }
+    }
+
     public void modificar(Profesor profesor) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.PROFESOR, profesor.getIdProfesor(), null);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_PROFESOR)) {
             pstmt.setLong(1, profesor.getIdProfesor());
@@ -57,12 +99,14 @@ public class ProfesorService {
             if (resultado == 0) {
                 throw new NoDataException("No se realizó la actualización del profesor");
             }
+            identidades.reemplazar(RegistroIdentidades.Tabla.PROFESOR, anterior, profesor.getCedula(), profesor.getEmail());
         } catch (SQLException e) {
             handleSQLException(e, "Error al modificar profesor");
         }
     }
 
     public void eliminar(Long idProfesor) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.PROFESOR, idProfesor, null);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(ELIMINAR_PROFESOR)) {
             pstmt.setLong(1, idProfesor);
@@ -70,12 +114,14 @@ public class ProfesorService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó el borrado: el profesor no existe");
             }
+            identidades.quitar(RegistroIdentidades.Tabla.PROFESOR, anterior);
         } catch (SQLException e) {
             handleSQLException(e, "Error al eliminar profesor");
         }
     }
 
     public void eliminarPorCedula(String cedula) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.PROFESOR, null, cedula);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(ELIMINAR_PROFESOR_POR_CEDULA)) {
             pstmt.setString(1, cedula);
@@ -83,22 +129,16 @@ public class ProfesorService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó el borrado: el profesor con cédula " + cedula + " no existe");
             }
+            identidades.quitar(RegistroIdentidades.Tabla.PROFESOR, anterior);
         } catch (SQLException e) {
             handleSQLException(e, "Error al eliminar profesor por cédula");
         }
     }
 
     public List<Profesor> listar() throws GlobalException, NoDataException {
-        List<Profesor> profesores = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_PROFESORES)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    profesores.add(mapResultSetToProfesor(rs));
-                }
-            }
+        List<Profesor> profesores = List.of();
+        try {
+            profesores = queryEngine.queryForList(LISTAR_PROFESORES, QueryEngine.SIN_PARAMETROS, this::mapResultSetToProfesor);
         } catch (SQLException e) {
             handleSQLException(e, "Error al listar profesores");
         }
@@ -108,82 +148,84 @@ public class ProfesorService {
         return profesores;
     }
 
+    public Pagina<Profesor> listarPaginado(String cursor, Integer limit) throws GlobalException {
+        int limite = Paginacion.limite(limit);
+        Long despues = Paginacion.decodificar(cursor);
+        try {
+            List<Profesor> filas = queryEngine.queryForList(LISTAR_PROFESORES_PAGINA, limite + 1, cs -> {
+                cs.setObject(2, despues, Types.NUMERIC);
+                cs.setInt(3, limite + 1);
+            }, this::mapResultSetToProfesor);
+            return Paginacion.armar(filas, limite, Profesor::getIdProfesor);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al listar profesores paginados: " + e.getMessage());
+        }
+    }
+
+    public long contar() throws GlobalException {
+        try {
+            return queryEngine.contar(CONTAR_PROFESORES, "profesores", QueryEngine.SIN_PARAMETROS);
+        } catch (SQLException e) {
+            throw new GlobalException("Error al contar profesores: " + e.getMessage());
+        }
+    }
+
     public Profesor buscarPorCedula(String cedula) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_CEDULA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, cedula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToProfesor(rs);
-                }
-            }
+        Profesor profesor = null;
+        try {
+            profesor = queryEngine.queryForFirst(BUSCAR_POR_CEDULA, cs -> cs.setString(2, cedula), this::mapResultSetToProfesor);
         } catch (SQLException e) {
             handleSQLException(e, "Error al buscar profesor por cédula");
         }
-        throw new NoDataException("No se encontró un profesor con cédula: " + cedula);
+        if (profesor == null) {
+            throw new NoDataException("No se encontró un profesor con cédula: " + cedula);
+        }
+        return profesor;
     }
 
     public Profesor buscarPorNombre(String nombre) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_NOMBRE)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, nombre);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToProfesor(rs);
-                }
-            }
+        Profesor profesor = null;
+        try {
+            profesor = queryEngine.queryForFirst(BUSCAR_POR_NOMBRE, cs -> cs.setString(2, nombre), this::mapResultSetToProfesor);
         } catch (SQLException e) {
             handleSQLException(e, "Error al buscar profesor por nombre");
         }
-        throw new NoDataException("No se encontró un profesor con nombre: " + nombre);
+        if (profesor == null) {
+            throw new NoDataException("No se encontró un profesor con nombre: " + nombre);
+        }
+        return profesor;
     }
 
     // ========== Métodos utilitarios ==========
 
     public void verificarEliminar(Long idProfesor) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM Grupo WHERE pk_profesor = ? " +
-                             "UNION ALL " +
-                             "SELECT COUNT(*) FROM Usuario WHERE cedula = (SELECT cedula FROM Profesor WHERE id_profesor = ?) AND tipo = 'Profesor'")) {
-            pstmt.setLong(1, idProfesor);
-            pstmt.setLong(2, idProfesor);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el profesor: tiene grupos asignados.");
-                }
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el profesor: existe un usuario asociado.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_PROFESOR, cs -> cs.setLong(2, idProfesor));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de profesor: " + e.getMessage());
         }
+        rechazarEliminacion(bloqueo);
     }
 
     public void verificarEliminarPorCedula(String cedula) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM Grupo g JOIN Profesor p ON g.pk_profesor = p.id_profesor WHERE p.cedula = ? " +
-                             "UNION ALL " +
-                             "SELECT COUNT(*) FROM Usuario WHERE cedula = ? AND tipo = 'Profesor'")) {
-            pstmt.setString(1, cedula);
-            pstmt.setString(2, cedula);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el profesor: tiene grupos asignados.");
-                }
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new GlobalException("No se puede eliminar el profesor: existe un usuario asociado.");
-                }
-            }
+        long bloqueo;
+        try {
+            bloqueo = queryEngine.queryForLong(BLOQUEO_ELIMINAR_PROFESOR_POR_CEDULA, cs -> cs.setString(2, cedula));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar eliminación de profesor por cédula: " + e.getMessage());
         }
+        rechazarEliminacion(bloqueo);
+    }
+
+    // Códigos de bloqueoEliminarProfesor y bloqueoEliminarProfesorPorCedula
+    private void rechazarEliminacion(long bloqueo) throws GlobalException {
+        if (bloqueo == 1) {
+            throw new GlobalException("No se puede eliminar el profesor: tiene grupos asignados.");
+        }
+        if (bloqueo == 2) {
+            throw new GlobalException("No se puede eliminar el profesor: existe un usuario asociado.");
+        }
     }
 
     private Profesor mapResultSetToProfesor(ResultSet rs) throws SQLException {
@@ -197,16 +239,20 @@ public class ProfesorService {
     }
 
     private void handleSQLException(SQLException e, String message) throws GlobalException {
+        throw new GlobalException(traducirSQLException(e, message));
+    }
+
+    private String traducirSQLException(SQLException e, String message) {
         int errorCode = Math.abs(e.getErrorCode());
-        String errorMessage = switch (errorCode) {
+        return switch (errorCode) {
             case 20010 -> "No se puede eliminar el profesor: existe un usuario asociado.";
             case 20024 -> "El nombre del profesor no puede estar vacío.";
             case 20025 -> "El correo del profesor no tiene un formato válido.";
             case 20030 -> "No se puede eliminar el profesor: tiene grupos asignados.";
             case 20038 -> "La cédula del profesor debe ser de 9 dígitos numéricos.";
             case 20039 -> "El teléfono del profesor debe ser de 8 dígitos numéricos.";
+            case 1 -> "Cédula o correo duplicados.";
             default -> message + ": " + e.getMessage();
         };
-        throw new GlobalException(errorMessage);
     }
 }
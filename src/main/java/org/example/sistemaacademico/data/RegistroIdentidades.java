@@ -0,0 +1,392 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Cédulas y correos ya registrados de alumnos, profesores y usuarios, para rechazar en memoria los duplicados
+ * antes de insertar.
+ * <p>
+ * Cada valor se guarda como una huella de 64 bits en una tabla de direccionamiento abierto (unos 11 bytes por
+ * valor). Solo se usa la respuesta "ya existe", que rechaza la inserción sin ir a la base de datos; "no existe"
+ * no sustituye a la consulta por cédula, que siempre va a la base de datos. Las inserciones agregan sus valores.
+ * Las modificaciones y los borrados leen con {@link #leer} los valores de la fila antes de escribir y luego
+ * reemplazan o quitan solo esas huellas; si no se pudieron leer, invalidan el conjunto de la tabla y este se
+ * recarga en la siguiente consulta. Mientras un conjunto no está vigente (sin cargar, invalidado o vencido el TTL
+ * de sistema.unicidad.ttl-ms) la respuesta es "no se sabe" y decide la base de datos.
+ */
+@Component
+public class RegistroIdentidades {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistroIdentidades.class);
+
+    public enum Tabla {
+        ALUMNO("{?=call listarAlumnos()}", true),
+        PROFESOR("{?=call listarProfesores()}", true),
+        USUARIO("{?=call listarUsuarios()}", false);
+
+        private final String listar;
+        private final boolean conEmail;
+
+        Tabla(String listar, boolean conEmail) {
+            this.listar = listar;
+            this.conEmail = conEmail;
+        }
+    }
+
+    private static final String IDENTIDAD_REGISTRADA = "{?=call identidadRegistrada(?,?,?)}";
+
+    /**
+     * Cédula y correo de una fila; el correo es null en USUARIO.
+     */
+    public record Identidad(String cedula, String email) {
+    }
+
+    private record Cambio(boolean alta, String cedula, String email) {
+    }
+
+    private final QueryEngine queryEngine;
+    private final long ttlNanos;
+    private final Map<Tabla, Registro> registros = new EnumMap<>(Tabla.class);
+
+    @Autowired
+    public RegistroIdentidades(QueryEngine queryEngine, @Value("${sistema.unicidad.ttl-ms:300000}") long ttlMs) {
+        this.queryEngine = queryEngine;
+        this.ttlNanos = ttlMs * 1_000_000;
+        for (Tabla tabla : Tabla.values()) {
+            registros.put(tabla, new Registro(tabla));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        for (Registro registro : registros.values()) {
+            try {
+                registro.recargar();
+            } catch (GlobalException e) {
+                logger.warn("No se pudieron cargar las identidades de {} al iniciar; se reintentará en la primera consulta: {}",
+                        registro.tabla, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * true solo si se sabe que la cédula o el correo ya están registrados en la tabla.
+     */
+    public boolean conocida(Tabla tabla, String cedula, String email) {
+        return Boolean.TRUE.equals(consultar(tabla, cedula, email));
+    }
+
+    /**
+     * Una inserción confirmada.
+     */
+    public void registrar(Tabla tabla, String cedula, String email) {
+        registros.get(tabla).agregar(cedula, email);
+    }
+
+    /**
+     * Las filas de un lote que quedaron insertadas.
+     */
+    public <T> void registrarExitosas(Tabla tabla, List<T> filas, List<ResultadoLote> resultados,
+                                      Function<T, String> cedula, Function<T, String> email) {
+        Registro registro = registros.get(tabla);
+        for (ResultadoLote resultado : resultados) {
+            if (resultado.isExito()) {
+                T fila = filas.get(resultado.getIndice());
+                registro.agregar(cedula.apply(fila), email == null ? null : email.apply(fila));
+            }
+        }
+    }
+
+    /**
+     * Valores actuales de la fila, por id o por cédula, antes de modificarla o borrarla. Devuelve null sin ir a
+     * la base de datos si el conjunto de la tabla no está cargado ni cargándose, y también si la lectura falla;
+     * con null, {@link #reemplazar} y {@link #quitar} invalidan el conjunto.
+     */
+    public Identidad leer(Tabla tabla, Long id, String cedula) {
+        if (!registros.get(tabla).enUso()) {
+            return null;
+        }
+        try {
+            return queryEngine.queryForFirst(IDENTIDAD_REGISTRADA, cs -> {
+                cs.setString(2, tabla.name());
+                cs.setObject(3, id, Types.NUMERIC);
+                cs.setString(4, cedula);
+            }, rs -> new Identidad(rs.getString("cedula"), rs.getString("email")));
+        } catch (SQLException e) {
+            logger.warn("No se pudo leer la identidad anterior en {}: {}", tabla, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Una modificación confirmada. cedula o email null conservan el valor anterior, como los procedimientos de
+     * modificación.
+     */
+    public void reemplazar(Tabla tabla, Identidad anterior, String cedula, String email) {
+        Registro registro = registros.get(tabla);
+        if (anterior == null) {
+            registro.invalidar();
+            return;
+        }
+        registro.reemplazar(anterior, new Identidad(cedula != null ? cedula : anterior.cedula(),
+                email != null ? email : anterior.email()));
+    }
+
+    /**
+     * Un borrado confirmado.
+     */
+    public void quitar(Tabla tabla, Identidad anterior) {
+        Registro registro = registros.get(tabla);
+        if (anterior == null) {
+            registro.invalidar();
+            return;
+        }
+        registro.quitar(anterior.cedula(), anterior.email());
+    }
+
+    private Boolean consultar(Tabla tabla, String cedula, String email) {
+        Registro registro = registros.get(tabla);
+        Boolean respuesta = registro.consultar(cedula, email);
+        if (respuesta == null) {
+            try {
+                registro.recargarSiLibre();
+            } catch (GlobalException e) {
+                logger.warn("No se pudieron recargar las identidades de {}: {}", tabla, e.getMessage());
+                return null;
+            }
+            respuesta = registro.consultar(cedula, email);
+        }
+        return respuesta;
+    }
+
+    private final class Registro {
+        private final Tabla tabla;
+        private final ReentrantLock carga = new ReentrantLock();
+        // Todo el estado se usa bajo el monitor del registro; la carga consulta la base de datos fuera de él
+        private Huellas cedulas;
+        private Huellas emails;
+        private long expira;
+        private long version;
+        private List<Cambio> pendientes;
+
+        private Registro(Tabla tabla) {
+            this.tabla = tabla;
+        }
+
+        private synchronized Boolean consultar(String cedula, String email) {
+            if (cedulas == null || expira - System.nanoTime() <= 0) {
+                return null;
+            }
+            return (cedula != null && cedulas.contiene(huella(cedula)))
+                    || (email != null && emails.contiene(huella(email)));
+        }
+
+        private synchronized boolean enUso() {
+            return cedulas != null || pendientes != null;
+        }
+
+        private synchronized void agregar(String cedula, String email) {
+            aplicar(new Cambio(true, cedula, email));
+        }
+
+        private synchronized void quitar(String cedula, String email) {
+            aplicar(new Cambio(false, cedula, email));
+        }
+
+        // Bajo el mismo monitor: una consulta no ve la fila sin ninguno de sus valores
+        private synchronized void reemplazar(Identidad anterior, Identidad nueva) {
+            quitar(anterior.cedula(), anterior.email());
+            agregar(nueva.cedula(), nueva.email());
+        }
+
+        private void aplicar(Cambio cambio) {
+            if (cedulas != null) {
+                aplicarEn(cedulas, emails, cambio);
+            }
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        }
+
+        private synchronized void invalidar() {
+            version++;
+            cedulas = null;
+            emails = null;
+        }
+
+        // Si otro hilo ya está cargando, la consulta actual sigue sin respuesta y decide la base de datos
+        private void recargarSiLibre() throws GlobalException {
+            if (carga.tryLock()) {
+                try {
+                    cargar();
+                } finally {
+                    carga.unlock();
+                }
+            }
+        }
+
+        private void recargar() throws GlobalException {
+            carga.lock();
+            try {
+                cargar();
+            } finally {
+                carga.unlock();
+            }
+        }
+
+        private void cargar() throws GlobalException {
+            long versionInicial;
+            synchronized (this) {
+                if (cedulas != null && expira - System.nanoTime() > 0) {
+                    return;
+                }
+                versionInicial = version;
+                pendientes = new ArrayList<>();
+            }
+            Huellas nuevasCedulas = new Huellas();
+            Huellas nuevosEmails = new Huellas();
+            long filas;
+            try {
+                filas = queryEngine.forEach(tabla.listar, QueryEngine.SIN_PARAMETROS,
+                        rs -> new String[]{rs.getString("cedula"), tabla.conEmail ? rs.getString("email") : null},
+                        fila -> aplicarEn(nuevasCedulas, nuevosEmails, new Cambio(true, fila[0], fila[1])));
+            } catch (SQLException e) {
+                synchronized (this) {
+                    pendientes = null;
+                }
+                throw new GlobalException("Error al cargar las identidades de " + tabla + ": " + e.getMessage());
+            }
+            synchronized (this) {
+                if (version == versionInicial) {
+                    for (Cambio pendiente : pendientes) {
+                        aplicarEn(nuevasCedulas, nuevosEmails, pendiente);
+                    }
+                    cedulas = nuevasCedulas;
+                    emails = nuevosEmails;
+                    expira = System.nanoTime() + ttlNanos;
+                }
+                pendientes = null;
+            }
+            logger.info("Identidades de {} cargadas: {} filas", tabla, filas);
+        }
+    }
+
+    private static void aplicarEn(Huellas cedulas, Huellas emails, Cambio cambio) {
+        if (cambio.cedula() != null) {
+            cedulas.aplicar(huella(cambio.cedula()), cambio.alta());
+        }
+        if (cambio.email() != null) {
+            emails.aplicar(huella(cambio.email()), cambio.alta());
+        }
+    }
+
+    // FNV-1a de 64 bits con la mezcla final de splitmix64; 0 queda reservado para las celdas vacías
+    private static long huella(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Conjunto de huellas con sondeo lineal sobre un long[] de tamaño potencia de dos, ocupado hasta tres cuartos.
+     * Al quitar una huella se corren hacia atrás las que venían después en la misma racha, así que no quedan
+     * marcas de borrado y la búsqueda sigue terminando en la primera celda vacía.
+     */
+    private static final class Huellas {
+        private long[] celdas = new long[64];
+        private int tamano;
+
+        private void aplicar(long huella, boolean alta) {
+            if (alta) {
+                agregar(huella);
+            } else {
+                quitar(huella);
+            }
+        }
+
+        private boolean contiene(long huella) {
+            int mascara = celdas.length - 1;
+            for (int i = (int) huella & mascara; celdas[i] != 0; i = (i + 1) & mascara) {
+                if (celdas[i] == huella) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void agregar(long huella) {
+            if ((tamano + 1) * 4 > celdas.length * 3) {
+                crecer();
+            }
+            int mascara = celdas.length - 1;
+            int i = (int) huella & mascara;
+            while (celdas[i] != 0) {
+                if (celdas[i] == huella) {
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            celdas[i] = huella;
+            tamano++;
+        }
+
+        private void quitar(long huella) {
+            int mascara = celdas.length - 1;
+            int libre = (int) huella & mascara;
+            while (celdas[libre] != huella) {
+                if (celdas[libre] == 0) {
+                    return;
+                }
+                libre = (libre + 1) & mascara;
+            }
+            celdas[libre] = 0;
+            tamano--;
+            for (int i = (libre + 1) & mascara; celdas[i] != 0; i = (i + 1) & mascara) {
+                // La huella de i puede ocupar la celda libre si esta no queda antes de su posición ideal
+                int ideal = (int) celdas[i] & mascara;
+                if (((i - ideal) & mascara) >= ((i - libre) & mascara)) {
+                    celdas[libre] = celdas[i];
+                    celdas[i] = 0;
+                    libre = i;
+                }
+            }
+        }
+
+        private void crecer() {
+            long[] anteriores = celdas;
+            celdas = new long[anteriores.length * 2];
+            tamano = 0;
+            for (long huella : anteriores) {
+                if (huella != 0) {
+                    agregar(huella);
+                }
+            }
+        }
+    }
+}
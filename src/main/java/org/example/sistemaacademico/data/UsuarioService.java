@@ -1,8 +1,11 @@
 package org.example.sistemaacademico.data;
 
+import org.example.sistemaacademico.database.BatchExecutor;
 import org.example.sistemaacademico.database.GlobalException;
 import org.example.sistemaacademico.database.NoDataException;
+import org.example.sistemaacademico.database.QueryEngine;
 import org.example.sistemaacademico.logic.Usuario;
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,14 +13,15 @@ import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class UsuarioService {
 
     private static final Logger logger = LoggerFactory.getLogger(UsuarioService.class);
     private static final String INSERTAR_USUARIO = "{call insertarUsuario(?,?,?)}";
+    private static final String INSERTAR_USUARIO_LOTE = "INSERT INTO Usuario (cedula, clave, tipo) VALUES (?, ?, ?)";
     private static final String MODIFICAR_USUARIO = "{call modificarUsuario(?,?,?,?)}";
     private static final String ELIMINAR_USUARIO = "{call eliminarUsuario(?)}";
     private static final String ELIMINAR_ALUMNO_POR_CEDULA = "{call eliminarAlumnoPorCedula(?)}";
@@ -25,15 +29,28 @@ public class UsuarioService {
     private static final String LISTAR_USUARIOS = "{?=call listarUsuarios()}";
     private static final String BUSCAR_POR_CEDULA = "{?=call buscarUsuarioPorCedula(?)}";
     private static final String LOGIN_USUARIO = "{call loginUsuario(?,?,?)}";
+    private static final String EXISTE_USUARIO_POR_ID = "{?=call existeUsuarioPorId(?)}";
 
     private final DataSource dataSource;
+    private final QueryEngine queryEngine;
+    private final BatchExecutor batchExecutor;
+    private final RegistroIdentidades identidades;
+    private final IndiceNombresAlumno indiceNombres;
 
     @Autowired
-    public UsuarioService(DataSource dataSource) {
+    public UsuarioService(DataSource dataSource, QueryEngine queryEngine, BatchExecutor batchExecutor,
+                          RegistroIdentidades identidades, IndiceNombresAlumno indiceNombres) {
         this.dataSource = dataSource;
+        this.queryEngine = queryEngine;
+        this.batchExecutor = batchExecutor;
+        this.identidades = identidades;
+        this.indiceNombres = indiceNombres;
     }
 
     public void insertar(Usuario usuario) throws GlobalException, NoDataException {
+        if (identidades.conocida(RegistroIdentidades.Tabla.USUARIO, usuario.getCedula(), null)) {
+            throw new GlobalException("Ya existe un usuario con esta cédula.");
+        }
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(INSERTAR_USUARIO)) {
             pstmt.setString(1, usuario.getCedula());
@@ -43,12 +60,33 @@ public class UsuarioService {
             if (filas == 0) {
                 throw new NoDataException("No se realizó la inserción del usuario");
             }
+            identidades.registrar(RegistroIdentidades.Tabla.USUARIO, usuario.getCedula(), null);
         } catch (SQLException e) {
             handleSQLException(e, "Error al insertar usuario");
         }
     }
 
+    /**
+     * Inserta los usuarios por bloques; cada fila rechazada se reporta sin detener el lote.
+     */
+    public List<ResultadoLote> insertarLote(List<Usuario> usuarios, Integer tamanoBloque) throws GlobalException {
+        try {
+            List<ResultadoLote> resultados = batchExecutor.ejecutar(INSERTAR_USUARIO_LOTE, usuarios, tamanoBloque,
+                    (ps, usuario) -> {
+                        ps.setString(1, usuario.getCedula());
+                        ps.setString(2, usuario.getClave());
+                        ps.setString(3, usuario.getTipo());
+                    },
+                    e -> traducirSQLException(e, "Error al insertar usuario"));
+            identidades.registrarExitosas(RegistroIdentidades.Tabla.USUARIO, usuarios, resultados, Usuario::getCedula, null);
+            return resultados;
+        } catch (SQLException e) {
+            throw new GlobalException("Error al insertar lote de usuarios: " + e.getMessage());
+        }
+    }
+
     public void modificar(Usuario usuario) throws GlobalException, NoDataException {
+        RegistroIdentidades.Identidad anterior = identidades.leer(RegistroIdentidades.Tabla.USUARIO, usuario.getIdUsuario(), null);
         try (Connection conn = dataSource.getConnection();
              CallableStatement pstmt = conn.prepareCall(MODIFICAR_USUARIO)) {
             pstmt.setLong(1, usuario.getIdUsuario());
@@ -59,6 +97,7 @@ public class UsuarioService {
             if (resultado == 0) {
                 throw new NoDataException("No se realizó la actualización del usuario");
             }
+            identidades.reemplazar(RegistroIdentidades.Tabla.USUARIO, anterior, usuario.getCedula(), null);
         } catch (SQLException e) {
             handleSQLException(e, "Error al modificar usuario");
         }
@@ -91,6 +130,12 @@ public class UsuarioService {
                     }
                     String cedula = rs.getString("cedula");
                     String tipo = rs.getString("tipo");
+                    RegistroIdentidades.Identidad entidad = null;
+                    if ("Alumno".equals(tipo)) {
+                        entidad = identidades.leer(RegistroIdentidades.Tabla.ALUMNO, null, cedula);
+                    } else if ("Profesor".equals(tipo)) {
+                        entidad = identidades.leer(RegistroIdentidades.Tabla.PROFESOR, null, cedula);
+                    }
 
                     if ("Alumno".equals(tipo)) {
                         try (PreparedStatement checkStmt = conn.prepareStatement("SELECT COUNT(*) FROM Matricula WHERE pk_alumno = (SELECT id_alumno FROM Alumno WHERE cedula = ?)")) {
@@ -133,6 +178,13 @@ public class UsuarioService {
                     }
 
                     conn.commit();
+                    identidades.quitar(RegistroIdentidades.Tabla.USUARIO, new RegistroIdentidades.Identidad(cedula, null));
+                    if ("Alumno".equals(tipo)) {
+                        identidades.quitar(RegistroIdentidades.Tabla.ALUMNO, entidad);
+                        indiceNombres.quitarPorCedula(cedula);
+                    } else if ("Profesor".equals(tipo)) {
+                        identidades.quitar(RegistroIdentidades.Tabla.PROFESOR, entidad);
+                    }
                 }
             }
         } catch (SQLException e) {
@@ -157,16 +209,9 @@ public class UsuarioService {
     }
 
     public List<Usuario> listar() throws GlobalException, NoDataException {
-        List<Usuario> usuarios = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LISTAR_USUARIOS)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                while (rs.next()) {
-                    usuarios.add(mapResultSetToUsuario(rs));
-                }
-            }
+        List<Usuario> usuarios = List.of();
+        try {
+            usuarios = queryEngine.queryForList(LISTAR_USUARIOS, QueryEngine.SIN_PARAMETROS, this::mapResultSetToUsuario);
         } catch (SQLException e) {
             handleSQLException(e, "Error al listar usuarios");
         }
@@ -176,56 +221,60 @@ public class UsuarioService {
         return usuarios;
     }
 
+    /**
+     * Entrega cada usuario al consumidor a medida que se lee del cursor, sin materializar la lista.
+     */
+    public long recorrer(Consumer<? super Usuario> consumidor) throws GlobalException {
+        try {
+            return queryEngine.forEach(LISTAR_USUARIOS, QueryEngine.SIN_PARAMETROS, this::mapResultSetToUsuario, consumidor);
+        } catch (SQLException e) {
+            logger.error("Error al recorrer usuarios: {}", e.getMessage(), e);
+            throw new GlobalException("Error al listar usuarios: " + e.getMessage());
+        }
+    }
+
     public Usuario buscarPorCedula(String cedula) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(BUSCAR_POR_CEDULA)) {
-            pstmt.registerOutParameter(1, Types.REF_CURSOR);
-            pstmt.setString(2, cedula);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(1)) {
-                if (rs.next()) {
-                    return mapResultSetToUsuario(rs);
-                }
-            }
+        Usuario usuario = null;
+        try {
+            usuario = queryEngine.queryForFirst(BUSCAR_POR_CEDULA, cs -> cs.setString(2, cedula), this::mapResultSetToUsuario);
         } catch (SQLException e) {
             handleSQLException(e, "Error al buscar usuario por cédula");
         }
-        throw new NoDataException("No se encontró un usuario con cédula: " + cedula);
+        if (usuario == null) {
+            throw new NoDataException("No se encontró un usuario con cédula: " + cedula);
+        }
+        return usuario;
     }
 
     public Usuario login(String cedula, String clave) throws GlobalException, NoDataException {
-        try (Connection conn = dataSource.getConnection();
-             CallableStatement pstmt = conn.prepareCall(LOGIN_USUARIO)) {
-            pstmt.setString(1, cedula);
-            pstmt.setString(2, clave);
-            pstmt.registerOutParameter(3, Types.REF_CURSOR);
-            pstmt.execute();
-            try (ResultSet rs = (ResultSet) pstmt.getObject(3)) {
-                if (rs.next()) {
-                    return mapResultSetToUsuario(rs);
-                }
-            }
+        Usuario usuario = null;
+        try {
+            usuario = queryEngine.queryForFirst(LOGIN_USUARIO, 3, cs -> {
+                cs.setString(1, cedula);
+                cs.setString(2, clave);
+            }, this::mapResultSetToUsuario);
         } catch (SQLException e) {
             handleSQLException(e, "Error al autenticar usuario");
         }
-        throw new NoDataException("Credenciales inválidas o usuario no encontrado");
+        if (usuario == null) {
+            throw new NoDataException("Credenciales inválidas o usuario no encontrado");
+        }
+        return usuario;
     }
 
     // ========= Métodos utilitarios =========
 
     public void verificarEliminar(Long idUsuario) throws GlobalException, NoDataException {
         // Verificación proactiva: consultar si el usuario existe
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Usuario WHERE id_usuario = ?")) {
-            pstmt.setLong(1, idUsuario);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) == 0) {
-                    throw new NoDataException("No se encontró usuario con id: " + idUsuario);
-                }
-            }
+        boolean existe;
+        try {
+            existe = queryEngine.existe(EXISTE_USUARIO_POR_ID, cs -> cs.setLong(2, idUsuario));
         } catch (SQLException e) {
             throw new GlobalException("Error al verificar usuario: " + e.getMessage());
         }
+        if (!existe) {
+            throw new NoDataException("No se encontró usuario con id: " + idUsuario);
+        }
     }
 
     private Usuario mapResultSetToUsuario(ResultSet rs) throws SQLException {
@@ -237,13 +286,16 @@ public class UsuarioService {
     }
 
     private void handleSQLException(SQLException e, String message) throws GlobalException {
+        throw new GlobalException(traducirSQLException(e, message));
+    }
+
+    private String traducirSQLException(SQLException e, String message) {
         int errorCode = Math.abs(e.getErrorCode());
-        String errorMessage = switch (errorCode) {
+        return switch (errorCode) {
             case 20028 -> "Ya existe un usuario con esta cédula.";
             case 20011 -> "No se puede eliminar el alumno: tiene matrículas asociadas.";
             case 20030 -> "No se puede eliminar el profesor: tiene grupos asignados.";
             default -> message + ": " + e.getMessage();
         };
-        throw new GlobalException(errorMessage);
     }
 }
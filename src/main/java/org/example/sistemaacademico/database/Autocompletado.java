@@ -0,0 +1,178 @@
+package org.example.sistemaacademico.database;
+
+import org.example.sistemaacademico.logic.Texto;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Trie inmutable sobre arreglos para autocompletar por prefijo las filas de un catálogo.
+ * <p>
+ * Las claves (códigos y nombres plegados: minúsculas, sin tildes) se ordenan y cada nodo guarda solo su letra,
+ * el rango contiguo de sus hijos y el rango de claves ordenadas que empiezan con su prefijo. Buscar un prefijo
+ * recorre un nodo por letra con búsqueda binaria entre los hijos y devuelve las primeras filas de ese rango,
+ * en orden alfabético de la clave que coincidió. No hay un objeto por nodo ni mapas por hijo.
+ */
+public final class Autocompletado<T> {
+
+    public static final int LIMITE_POR_DEFECTO = 10;
+    public static final int LIMITE_MAXIMO = 50;
+
+    private final List<T> filas;
+    // claves ordenadas y la fila de cada una
+    private final int[] filaDeClave;
+    // nodo 0: raíz; los hijos de un nodo ocupan [primerHijo, primerHijo + hijos) y están ordenados por letra
+    private final char[] letra;
+    private final int[] primerHijo;
+    private final int[] hijos;
+    // claves del subárbol: [desde, hasta) sobre las claves ordenadas
+    private final int[] desde;
+    private final int[] hasta;
+
+    private Autocompletado(List<T> filas, int[] filaDeClave, char[] letra, int[] primerHijo, int[] hijos,
+                           int[] desde, int[] hasta) {
+        this.filas = filas;
+        this.filaDeClave = filaDeClave;
+        this.letra = letra;
+        this.primerHijo = primerHijo;
+        this.hijos = hijos;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    public static int limite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        if (limit < 1 || limit > LIMITE_MAXIMO) {
+            throw new GlobalException("El límite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+        return limit;
+    }
+
+    /**
+     * Claves de una fila con código y nombre: el código, el nombre y el nombre desde cada palabra, para que
+     * "progr" encuentre "Introducción a la Programación".
+     */
+    public static List<String> codigoYNombre(String codigo, String nombre) {
+        List<String> claves = new ArrayList<>();
+        if (codigo != null) {
+            claves.add(codigo);
+        }
+        if (nombre != null) {
+            claves.add(nombre);
+            for (int i = nombre.indexOf(' '); i >= 0; i = nombre.indexOf(' ', i + 1)) {
+                claves.add(nombre.substring(i + 1));
+            }
+        }
+        return claves;
+    }
+
+    /**
+     * @param claves textos por los que se puede encontrar cada fila; se pliegan antes de indexarlos
+     */
+    public static <T> Autocompletado<T> construir(List<T> filas, Function<T, List<String>> claves) {
+        record Clave(String texto, int fila) {
+        }
+        List<Clave> todas = new ArrayList<>();
+        int letras = 0;
+        for (int i = 0; i < filas.size(); i++) {
+            Set<String> propias = new HashSet<>();
+            for (String texto : claves.apply(filas.get(i))) {
+                String plegado = Texto.plegar(texto);
+                if (!plegado.isEmpty() && propias.add(plegado)) {
+                    todas.add(new Clave(plegado, i));
+                    letras += plegado.length();
+                }
+            }
+        }
+        todas.sort(Comparator.comparing(Clave::texto).thenComparingInt(Clave::fila));
+
+        int n = todas.size();
+        String[] textos = new String[n];
+        int[] filaDeClave = new int[n];
+        for (int i = 0; i < n; i++) {
+            textos[i] = todas.get(i).texto();
+            filaDeClave[i] = todas.get(i).fila();
+        }
+
+        // A lo sumo un nodo por letra más la raíz; se recorta al final
+        int capacidad = letras + 1;
+        char[] letra = new char[capacidad];
+        int[] primerHijo = new int[capacidad];
+        int[] hijos = new int[capacidad];
+        int[] desde = new int[capacidad];
+        int[] hasta = new int[capacidad];
+        int[] profundidad = new int[capacidad];
+        desde[0] = 0;
+        hasta[0] = n;
+        int nodos = 1;
+        // Por anchura: los hijos de cada nodo se agregan juntos al final de los arreglos
+        for (int nodo = 0; nodo < nodos; nodo++) {
+            int nivel = profundidad[nodo];
+            int i = desde[nodo];
+            // Las claves que terminan en este nodo van primero en el orden
+            while (i < hasta[nodo] && textos[i].length() == nivel) {
+                i++;
+            }
+            primerHijo[nodo] = nodos;
+            while (i < hasta[nodo]) {
+                char c = textos[i].charAt(nivel);
+                int j = i + 1;
+                while (j < hasta[nodo] && textos[j].charAt(nivel) == c) {
+                    j++;
+                }
+                letra[nodos] = c;
+                desde[nodos] = i;
+                hasta[nodos] = j;
+                profundidad[nodos] = nivel + 1;
+                nodos++;
+                i = j;
+            }
+            hijos[nodo] = nodos - primerHijo[nodo];
+        }
+        return new Autocompletado<>(List.copyOf(filas), filaDeClave, Arrays.copyOf(letra, nodos),
+                Arrays.copyOf(primerHijo, nodos), Arrays.copyOf(hijos, nodos), Arrays.copyOf(desde, nodos),
+                Arrays.copyOf(hasta, nodos));
+    }
+
+    /**
+     * Hasta limite filas distintas con alguna clave que empiece con el prefijo.
+     */
+    public List<T> buscar(String prefijo, int limite) {
+        String buscado = Texto.plegar(prefijo);
+        int nodo = 0;
+        for (int i = 0; i < buscado.length(); i++) {
+            nodo = hijo(nodo, buscado.charAt(i));
+            if (nodo < 0) {
+                return List.of();
+            }
+        }
+        List<T> resultado = new ArrayList<>(Math.min(limite, hasta[nodo] - desde[nodo]));
+        BitSet vistas = new BitSet(filas.size());
+        for (int i = desde[nodo]; i < hasta[nodo] && resultado.size() < limite; i++) {
+            int fila = filaDeClave[i];
+            if (!vistas.get(fila)) {
+                vistas.set(fila);
+                resultado.add(filas.get(fila));
+            }
+        }
+        return resultado;
+    }
+
+    private int hijo(int nodo, char c) {
+        int bajo = primerHijo[nodo];
+        int alto = bajo + hijos[nodo] - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (letra[medio] < c) {
+                bajo = medio + 1;
+            } else if (letra[medio] > c) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+}
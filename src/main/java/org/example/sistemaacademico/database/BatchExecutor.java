@@ -0,0 +1,150 @@
+package org.example.sistemaacademico.database;
+
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ejecuta inserciones por lotes JDBC ({@code addBatch}/{@code executeBatch}) sobre una sola conexión,
+ * confirmando la transacción por bloque. Una fila rechazada no aborta el lote: se registra su error
+ * y la ejecución continúa con la fila siguiente.
+ */
+@Component
+public class BatchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutor.class);
+
+    @FunctionalInterface
+    public interface ItemBinder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface ErrorTranslator {
+        String traducir(SQLException e);
+    }
+
+    private final DataSource dataSource;
+    private final int tamanoBloque;
+
+    @Autowired
+    public BatchExecutor(DataSource dataSource, @Value("${sistema.lote.tamano-bloque:500}") int tamanoBloque) {
+        this.dataSource = dataSource;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * @param bloque filas por transacción; null usa sistema.lote.tamano-bloque
+     * @return un resultado por fila, en el mismo orden de {@code items}
+     */
+    public <T> List<ResultadoLote> ejecutar(String sql, List<T> items, Integer bloque, ItemBinder<T> binder,
+                                            ErrorTranslator traductor) throws SQLException {
+        int tamano = bloque != null && bloque > 0 ? bloque : tamanoBloque;
+        ResultadoLote[] resultados = new ResultadoLote[items.size()];
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = sql.startsWith("{") ? conn.prepareCall(sql) : conn.prepareStatement(sql)) {
+                for (int desde = 0; desde < items.size(); desde += tamano) {
+                    int hasta = Math.min(desde + tamano, items.size());
+                    ejecutarBloque(conn, ps, items, desde, hasta, binder, traductor, resultados);
+                    conn.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    private <T> void ejecutarBloque(Connection conn, PreparedStatement ps, List<T> items, int desde, int hasta,
+                                    ItemBinder<T> binder, ErrorTranslator traductor,
+                                    ResultadoLote[] resultados) throws SQLException {
+        int inicio = desde;
+        while (inicio < hasta) {
+            // Sin releaseSavepoint: ojdbc no lo implementa; el savepoint termina con el commit o el rollback
+            Savepoint savepoint = conn.setSavepoint();
+            for (int i = inicio; i < hasta; i++) {
+                binder.bind(ps, items.get(i));
+                ps.addBatch();
+            }
+            try {
+                ps.executeBatch();
+                marcarExito(resultados, inicio, hasta);
+                inicio = hasta;
+            } catch (BatchUpdateException e) {
+                ps.clearBatch();
+                int fallida = filaFallida(e.getUpdateCounts(), hasta - inicio);
+                if (fallida < 0) {
+                    // El driver no indicó qué fila falló: se reintenta el tramo fila por fila
+                    conn.rollback(savepoint);
+                    ejecutarIndividual(ps, items, inicio, hasta, binder, traductor, resultados);
+                    inicio = hasta;
+                } else {
+                    marcarExito(resultados, inicio, inicio + fallida);
+                    resultados[inicio + fallida] = error(inicio + fallida, e, traductor);
+                    logger.debug("Fila {} rechazada en lote: {}", inicio + fallida, e.getMessage());
+                    inicio += fallida + 1;
+                }
+            }
+        }
+    }
+
+    private <T> void ejecutarIndividual(PreparedStatement ps, List<T> items, int desde, int hasta, ItemBinder<T> binder,
+                                        ErrorTranslator traductor, ResultadoLote[] resultados) throws SQLException {
+        for (int i = desde; i < hasta; i++) {
+            try {
+                binder.bind(ps, items.get(i));
+                ps.executeUpdate();
+                resultados[i] = ResultadoLote.ok(i);
+            } catch (SQLException e) {
+                resultados[i] = error(i, e, traductor);
+            }
+        }
+    }
+
+    /**
+     * Posición relativa de la fila que falló, o -1 si el arreglo de conteos no permite determinarla.
+     * Las filas anteriores a la fallida ya quedaron aplicadas dentro de la transacción.
+     */
+    private static int filaFallida(int[] conteos, int tamanoTramo) {
+        if (conteos == null || conteos.length > tamanoTramo) {
+            return -1;
+        }
+        int primera = -1;
+        int fallidas = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            if (conteos[i] == Statement.EXECUTE_FAILED) {
+                primera = primera < 0 ? i : primera;
+                fallidas++;
+            }
+        }
+        if (primera < 0) {
+            // El driver reporta solo las filas ejecutadas antes del error
+            return conteos.length < tamanoTramo ? conteos.length : -1;
+        }
+        // Todas marcadas como fallidas: el driver no distingue cuál fue
+        return fallidas == tamanoTramo && tamanoTramo > 1 ? -1 : primera;
+    }
+
+    private static ResultadoLote error(int indice, SQLException e, ErrorTranslator traductor) {
+        return ResultadoLote.error(indice, Math.abs(e.getErrorCode()), traductor.traducir(e));
+    }
+
+    private static void marcarExito(ResultadoLote[] resultados, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            resultados[i] = ResultadoLote.ok(i);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.sistemaacademico.database;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registro de las tablas de catálogo (Carrera, Curso, Ciclo y Carrera_Curso) que se sirven desde memoria.
+ * Estas tablas cambian pocas veces por semestre; cada servicio invalida su tabla al escribir y
+ * el TTL de sistema.catalogo.ttl-ms cubre los cambios hechos fuera de la aplicación.
+ */
+@Component
+public class CatalogoCache {
+
+    public static final String CARRERAS = "carreras";
+    public static final String CURSOS = "cursos";
+    public static final String CICLOS = "ciclos";
+    public static final String CARRERA_CURSO = "carrera_curso";
+
+    private final Map<String, TablaCatalogo<?>> tablas = new ConcurrentHashMap<>();
+    private final VersionesTablas versiones;
+    private final long ttlNanos;
+
+    public CatalogoCache(VersionesTablas versiones, @Value("${sistema.catalogo.ttl-ms:300000}") long ttlMs) {
+        this.versiones = versiones;
+        this.ttlNanos = ttlMs * 1_000_000;
+    }
+
+    public <T> TablaCatalogo<T> registrar(String nombre, TablaCatalogo.Cargador<T> cargador,
+                                          Function<T, Long> id, Function<T, String> codigo) {
+        return registrar(nombre, cargador, id, codigo, null);
+    }
+
+    /**
+     * Registra una tabla que además se autocompleta por prefijo sobre los textos que devuelve claves.
+     */
+    public <T> TablaCatalogo<T> registrar(String nombre, TablaCatalogo.Cargador<T> cargador,
+                                          Function<T, Long> id, Function<T, String> codigo,
+                                          Function<T, List<String>> claves) {
+        TablaCatalogo<T> tabla = new TablaCatalogo<>(cargador, id, codigo, claves, versiones.contador(nombre), ttlNanos);
+        versiones.registrarVigencia(nombre, tabla::vigente);
+        tablas.put(nombre, tabla);
+        return tabla;
+    }
+
+    /**
+     * Invalida una tabla registrada por otro servicio, por ejemplo Carrera_Curso desde CarreraService.
+     */
+    public void invalidar(String nombre) {
+        TablaCatalogo<?> tabla = tablas.get(nombre);
+        if (tabla != null) {
+            tabla.invalidar();
+        }
+    }
+
+    public Map<String, TablaCatalogo.Estadisticas> estadisticas() {
+        Map<String, TablaCatalogo.Estadisticas> resumen = new TreeMap<>();
+        tablas.forEach((nombre, tabla) -> resumen.put(nombre, tabla.estadisticas()));
+        return resumen;
+    }
+}
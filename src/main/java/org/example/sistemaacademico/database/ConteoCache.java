@@ -0,0 +1,71 @@
+package org.example.sistemaacademico.database;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché con expiración para los totales de los listados paginados.
+ * Un COUNT(*) sobre tablas grandes no debe repetirse en cada página; el total puede
+ * quedar desfasado como máximo el tiempo configurado en sistema.paginacion.conteo-ttl-ms.
+ * <p>
+ * Hay una entrada por filtro (cédula, grupo, carrera...), así que el mapa se acota: al guardar, una vez por
+ * TTL o al pasar de sistema.paginacion.conteo-max-entradas se quitan las entradas vencidas y, si aún sobran,
+ * las más próximas a vencer.
+ */
+@Component
+public class ConteoCache {
+
+    @FunctionalInterface
+    public interface Cargador {
+        long cargar() throws SQLException;
+    }
+
+    private record Entrada(long total, long expira) {
+    }
+
+    private final Map<String, Entrada> conteos = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private volatile long proximaLimpieza;
+
+    public ConteoCache(@Value("${sistema.paginacion.conteo-ttl-ms:30000}") long ttlMs,
+                       @Value("${sistema.paginacion.conteo-max-entradas:10000}") int maxEntradas) {
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.maxEntradas = maxEntradas;
+        this.proximaLimpieza = System.nanoTime() + ttlNanos;
+    }
+
+    public long obtener(String clave, Cargador cargador) throws SQLException {
+        long ahora = System.nanoTime();
+        Entrada entrada = conteos.get(clave);
+        if (entrada != null && entrada.expira() - ahora > 0) {
+            return entrada.total();
+        }
+        long total = cargador.cargar();
+        conteos.put(clave, new Entrada(total, ahora + ttlNanos));
+        if (conteos.size() > maxEntradas || ahora - proximaLimpieza > 0) {
+            limpiar(ahora);
+        }
+        return total;
+    }
+
+    // Dos hilos pueden limpiar a la vez; ambos quitan entradas que sobran, así que no hace falta coordinarlos
+    private void limpiar(long ahora) {
+        proximaLimpieza = ahora + ttlNanos;
+        conteos.values().removeIf(entrada -> entrada.expira() - ahora <= 0);
+        int exceso = conteos.size() - maxEntradas;
+        if (exceso > 0) {
+            conteos.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().expira()))
+                    .limit(exceso)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(conteos::remove);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.sistemaacademico.database;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Envuelve el DataSource del pool para medir cada llamada preparada con prepareCall o prepareStatement, tanto
+ * las de QueryEngine y BatchExecutor como las que los servicios ejecutan directamente.
+ * <p>
+ * Una llamada va desde cada execute* hasta el siguiente execute* o el cierre de la sentencia, así que incluye la
+ * lectura del REF_CURSOR; las filas se cuentan en los ResultSet que entrega la sentencia. El tiempo de espera
+ * por una conexión no entra aquí: lo mide Hikari en hikaricp.connections.acquire. El pool sigue siendo
+ * accesible con unwrap, que es lo que usan las métricas de Hikari de Actuator.
+ */
+public class DataSourceInstrumentado extends DelegatingDataSource {
+
+    private static final Pattern NOMBRE_FUNCION = Pattern.compile("call\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    // Se resuelve en la primera llamada: el DataSource se envuelve antes de que exista el MeterRegistry
+    private final Supplier<QueryTimings> timings;
+    private final Map<String, String> nombres = new ConcurrentHashMap<>();
+
+    public DataSourceInstrumentado(DataSource destino, Supplier<QueryTimings> timings) {
+        super(destino);
+        this.timings = timings;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrumentar(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrumentar(super.getConnection(username, password));
+    }
+
+    private Connection instrumentar(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexion, metodo, args);
+                    if ((metodo.getName().equals("prepareCall") || metodo.getName().equals("prepareStatement"))
+                            && args[0] instanceof String sql) {
+                        return Proxy.newProxyInstance(getClass().getClassLoader(),
+                                new Class<?>[]{metodo.getReturnType()}, new Sentencia(resultado, nombreFuncion(sql)));
+                    }
+                    return resultado;
+                });
+    }
+
+    private String nombreFuncion(String sql) {
+        return nombres.computeIfAbsent(sql, s -> {
+            Matcher m = NOMBRE_FUNCION.matcher(s);
+            return m.find() ? m.group(1) : s;
+        });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Una sentencia preparada; la usa un solo hilo a la vez, igual que la conexión de la que sale.
+     */
+    private final class Sentencia implements InvocationHandler {
+        private final Object destino;
+        private final String funcion;
+        private long inicio;
+        private long filas;
+        private Throwable error;
+        private boolean enCurso;
+
+        private Sentencia(Object destino, String funcion) {
+            this.destino = destino;
+            this.funcion = funcion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("execute")) {
+                terminar();
+                enCurso = true;
+                inicio = System.nanoTime();
+                filas = 0;
+                error = null;
+            } else if (nombre.equals("close")) {
+                terminar();
+            }
+            Object resultado;
+            try {
+                resultado = invocar(destino, metodo, args);
+            } catch (Throwable e) {
+                fallo(e);
+                throw e;
+            }
+            if (resultado instanceof ResultSet rs) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                        (p, m, a) -> {
+                            try {
+                                Object valor = invocar(rs, m, a);
+                                if (m.getName().equals("next") && Boolean.TRUE.equals(valor)) {
+                                    filas++;
+                                }
+                                return valor;
+                            } catch (Throwable e) {
+                                fallo(e);
+                                throw e;
+                            }
+                        });
+            }
+            return resultado;
+        }
+
+        private void fallo(Throwable e) {
+            if (enCurso && error == null) {
+                error = e;
+            }
+        }
+
+        private void terminar() {
+            if (enCurso) {
+                enCurso = false;
+                timings.get().registrar(funcion, System.nanoTime() - inicio, filas, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.sistemaacademico.database;
+
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Utilidades para la paginación por llave sobre las llaves primarias de identidad.
+ * El cursor de página codifica el último id entregado; la siguiente página se obtiene con {@code id > cursor},
+ * por lo que el costo de cada página no depende de cuántas se hayan recorrido antes.
+ */
+public final class Paginacion {
+
+    public static final String TOTAL_COUNT = "X-Total-Count";
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private Paginacion() {
+    }
+
+    public static int limite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        if (limit < 1 || limit > LIMITE_MAXIMO) {
+            throw new GlobalException("El límite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+        return limit;
+    }
+
+    /**
+     * Decodifica el cursor recibido en {@code after}; null indica la primera página.
+     */
+    public static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new GlobalException("El cursor de página no es válido.");
+        }
+    }
+
+    public static String codificar(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Arma la página a partir de filas leídas con {@code limite + 1}: la fila extra solo indica que hay más.
+     */
+    public static <T> Pagina<T> armar(List<T> filas, int limite, ToLongFunction<T> id) {
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> items = filas.subList(0, limite);
+        return new Pagina<>(items, codificar(id.applyAsLong(items.get(limite - 1))));
+    }
+
+    /**
+     * Respuesta HTTP de una página; si se solicita, agrega el total en el encabezado {@value #TOTAL_COUNT}.
+     */
+    public static <T> ResponseEntity<Pagina<T>> respuesta(Pagina<T> pagina, LongSupplier total) {
+        HttpHeaders headers = new HttpHeaders();
+        if (total != null) {
+            headers.set(TOTAL_COUNT, String.valueOf(total.getAsLong()));
+        }
+        return new ResponseEntity<>(pagina, headers, HttpStatus.OK);
+    }
+}
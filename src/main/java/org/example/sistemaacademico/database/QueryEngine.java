@@ -0,0 +1,147 @@
+package org.example.sistemaacademico.database;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta funciones y procedimientos PL/SQL que retornan un REF_CURSOR.
+ * Centraliza el registro del cursor y el tamaño de fetch por consulta, y permite materializar el
+ * resultado o consumirlo fila por fila. Los tiempos por función los registra DataSourceInstrumentado.
+ */
+@Component
+public class QueryEngine {
+
+    /**
+     * Posición del valor de retorno en las llamadas de la forma {@code {?=call funcion(...)}}.
+     */
+    public static final int RETORNO = 1;
+
+    public static final ParameterBinder SIN_PARAMETROS = cs -> {
+    };
+
+    @FunctionalInterface
+    public interface ParameterBinder {
+        void bind(CallableStatement cs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final ConteoCache conteoCache;
+    private final int listFetchSize;
+    private final int lookupFetchSize;
+
+    @Autowired
+    public QueryEngine(DataSource dataSource, ConteoCache conteoCache,
+                       @Value("${sistema.jdbc.list-fetch-size:500}") int listFetchSize,
+                       @Value("${sistema.jdbc.lookup-fetch-size:2}") int lookupFetchSize) {
+        this.dataSource = dataSource;
+        this.conteoCache = conteoCache;
+        this.listFetchSize = listFetchSize;
+        this.lookupFetchSize = lookupFetchSize;
+    }
+
+    public int getListFetchSize() {
+        return listFetchSize;
+    }
+
+    /**
+     * Materializa todas las filas del cursor usando el tamaño de fetch para listados.
+     */
+    public <T> List<T> queryForList(String call, ParameterBinder binder, RowMapper<T> mapper) throws SQLException {
+        return queryForList(call, listFetchSize, binder, mapper);
+    }
+
+    public <T> List<T> queryForList(String call, int fetchSize, ParameterBinder binder, RowMapper<T> mapper) throws SQLException {
+        List<T> filas = new ArrayList<>();
+        forEach(call, fetchSize, binder, mapper, filas::add);
+        return filas;
+    }
+
+    /**
+     * Retorna la primera fila del cursor o {@code null} si no hay resultados.
+     */
+    public <T> T queryForFirst(String call, ParameterBinder binder, RowMapper<T> mapper) throws SQLException {
+        return queryForFirst(call, RETORNO, binder, mapper);
+    }
+
+    /**
+     * Variante para procedimientos que exponen el cursor como parámetro OUT en otra posición.
+     */
+    public <T> T queryForFirst(String call, int cursorIndex, ParameterBinder binder, RowMapper<T> mapper) throws SQLException {
+        List<T> fila = new ArrayList<>(1);
+        execute(call, cursorIndex, lookupFetchSize, 1, binder, mapper, fila::add);
+        return fila.isEmpty() ? null : fila.get(0);
+    }
+
+    /**
+     * Entrega cada fila al consumidor a medida que se lee del cursor, sin lista intermedia.
+     *
+     * @return cantidad de filas procesadas
+     */
+    public <T> long forEach(String call, ParameterBinder binder, RowMapper<T> mapper, Consumer<? super T> consumer) throws SQLException {
+        return forEach(call, listFetchSize, binder, mapper, consumer);
+    }
+
+    public <T> long forEach(String call, int fetchSize, ParameterBinder binder, RowMapper<T> mapper,
+                            Consumer<? super T> consumer) throws SQLException {
+        return execute(call, RETORNO, fetchSize, Long.MAX_VALUE, binder, mapper, consumer);
+    }
+
+    /**
+     * Ejecuta una función almacenada que retorna un NUMBER, por ejemplo un conteo.
+     */
+    public long queryForLong(String call, ParameterBinder binder) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             CallableStatement cs = conn.prepareCall(call)) {
+            cs.registerOutParameter(RETORNO, Types.NUMERIC);
+            binder.bind(cs);
+            cs.execute();
+            return cs.getLong(RETORNO);
+        }
+    }
+
+    /**
+     * Ejecuta una función de existencia que retorna 1 o 0, sin traer filas ni contar toda la tabla.
+     */
+    public boolean existe(String call, ParameterBinder binder) throws SQLException {
+        return queryForLong(call, binder) != 0;
+    }
+
+    /**
+     * Conteo cacheado por clave durante el TTL de {@link ConteoCache}.
+     */
+    public long contar(String call, String clave, ParameterBinder binder) throws SQLException {
+        return conteoCache.obtener(clave, () -> queryForLong(call, binder));
+    }
+
+    private <T> long execute(String call, int cursorIndex, int fetchSize, long maxFilas, ParameterBinder binder,
+                             RowMapper<T> mapper, Consumer<? super T> consumer) throws SQLException {
+        long filas = 0;
+        try (Connection conn = dataSource.getConnection();
+             CallableStatement cs = conn.prepareCall(call)) {
+            cs.setFetchSize(fetchSize);
+            cs.registerOutParameter(cursorIndex, Types.REF_CURSOR);
+            binder.bind(cs);
+            cs.execute();
+            try (ResultSet rs = (ResultSet) cs.getObject(cursorIndex)) {
+                rs.setFetchSize(fetchSize);
+                while (filas < maxFilas && rs.next()) {
+                    consumer.accept(mapper.map(rs));
+                    filas++;
+                }
+            }
+            return filas;
+        }
+    }
+}
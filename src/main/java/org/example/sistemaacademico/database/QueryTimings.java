@@ -0,0 +1,145 @@
+package org.example.sistemaacademico.database;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumula tiempos de ejecución, filas leídas y errores por función almacenada.
+ * Los contadores son libres de bloqueo para no agregar contención en el camino de cada consulta.
+ * <p>
+ * Cada función publica además en el MeterRegistry de Actuator el timer sistema.plsql.llamadas (histograma y
+ * percentiles 50/95/99, calculados en el cliente sobre HdrHistogram), el resumen sistema.plsql.filas y el
+ * contador sistema.plsql.errores por código de error de Oracle, todos con la etiqueta funcion.
+ */
+@Component
+public class QueryTimings {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryTimings.class);
+
+    private final MeterRegistry registry;
+    private final long slowQueryNanos;
+    private final Map<String, Acumulado> porFuncion = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryTimings(MeterRegistry registry, @Value("${sistema.jdbc.slow-query-ms:1000}") long slowQueryMs) {
+        this.registry = registry;
+        this.slowQueryNanos = slowQueryMs * 1_000_000;
+    }
+
+    /**
+     * @param error la excepción con que terminó la llamada, o null si terminó bien
+     */
+    public void registrar(String funcion, long nanos, long filas, Throwable error) {
+        Acumulado acumulado = porFuncion.computeIfAbsent(funcion, this::acumulado);
+        acumulado.llamadas.increment();
+        acumulado.nanosTotales.add(nanos);
+        acumulado.filas.add(filas);
+        acumulado.nanosMaximo.accumulateAndGet(nanos, Math::max);
+        acumulado.timer.record(nanos, TimeUnit.NANOSECONDS);
+        acumulado.filasPorLlamada.record(filas);
+        if (error != null) {
+            acumulado.errores.increment();
+            acumulado.erroresPorCodigo.computeIfAbsent(codigo(error), c -> Counter.builder("sistema.plsql.errores")
+                    .description("Llamadas PL/SQL terminadas en error, por código de Oracle")
+                    .tag("funcion", funcion)
+                    .tag("codigo", c)
+                    .register(registry)).increment();
+        }
+        if (nanos > slowQueryNanos) {
+            logger.warn("Consulta lenta {}: {} ms, {} filas", funcion, nanos / 1_000_000, filas);
+        }
+    }
+
+    /**
+     * Devuelve una copia de las estadísticas acumuladas, ordenada por nombre de función.
+     */
+    public Map<String, Resumen> snapshot() {
+        Map<String, Resumen> resumen = new TreeMap<>();
+        porFuncion.forEach((funcion, acumulado) -> resumen.put(funcion, acumulado.resumir()));
+        return resumen;
+    }
+
+    public record Resumen(long llamadas, long errores, long filas, double promedioMs, double maximoMs,
+                          double p95Ms, double p99Ms, Map<String, Long> erroresPorCodigo) {
+    }
+
+    private Acumulado acumulado(String funcion) {
+        Timer timer = Timer.builder("sistema.plsql.llamadas")
+                .description("Duración de cada llamada PL/SQL, desde que se prepara hasta que se cierra el cursor")
+                .tag("funcion", funcion)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        DistributionSummary filas = DistributionSummary.builder("sistema.plsql.filas")
+                .description("Filas leídas por llamada PL/SQL")
+                .tag("funcion", funcion)
+                .register(registry);
+        return new Acumulado(timer, filas);
+    }
+
+    // ORA-NNNNN si el driver informó el código; si no, el SQLState o el tipo de la excepción
+    private static String codigo(Throwable error) {
+        if (error instanceof SQLException e) {
+            if (e.getErrorCode() != 0) {
+                return String.format("ORA-%05d", e.getErrorCode());
+            }
+            if (e.getSQLState() != null) {
+                return e.getSQLState();
+            }
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    private static final class Acumulado {
+        private final LongAdder llamadas = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder filas = new LongAdder();
+        private final LongAdder nanosTotales = new LongAdder();
+        private final AtomicLong nanosMaximo = new AtomicLong();
+        private final Map<String, Counter> erroresPorCodigo = new ConcurrentHashMap<>();
+        private final Timer timer;
+        private final DistributionSummary filasPorLlamada;
+
+        private Acumulado(Timer timer, DistributionSummary filasPorLlamada) {
+            this.timer = timer;
+            this.filasPorLlamada = filasPorLlamada;
+        }
+
+        private Resumen resumir() {
+            long total = llamadas.sum();
+            double promedioMs = total == 0 ? 0 : nanosTotales.sum() / (double) total / 1_000_000;
+            double p95Ms = 0;
+            double p99Ms = 0;
+            for (ValueAtPercentile percentil : timer.takeSnapshot().percentileValues()) {
+                if (percentil.percentile() == 0.95) {
+                    p95Ms = percentil.value(TimeUnit.MILLISECONDS);
+                } else if (percentil.percentile() == 0.99) {
+                    p99Ms = percentil.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            Map<String, Long> porCodigo = new TreeMap<>();
+            erroresPorCodigo.forEach((codigo, contador) -> porCodigo.put(codigo, (long) contador.count()));
+            return new Resumen(total, errores.sum(), filas.sum(), promedioMs, nanosMaximo.get() / 1_000_000.0,
+                    p95Ms, p99Ms, porCodigo);
+        }
+    }
+}
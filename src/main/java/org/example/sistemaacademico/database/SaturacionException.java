@@ -0,0 +1,25 @@
+package org.example.sistemaacademico.database;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * El servidor no puede aceptar más trabajo por ahora (por ejemplo, la cola de matrícula está llena).
+ * Se responde con 503 y el encabezado Retry-After.
+ */
+public class SaturacionException extends RuntimeException implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long reintentarSegundos;
+
+    public SaturacionException(String message, long reintentarSegundos) {
+        super(message);
+        this.reintentarSegundos = reintentarSegundos;
+    }
+
+    public long getReintentarSegundos() {
+        return reintentarSegundos;
+    }
+}
@@ -0,0 +1,239 @@
+package org.example.sistemaacademico.database;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Copia en memoria de una tabla de catálogo con índices por id y por código.
+ * <p>
+ * La tabla se carga completa en la primera lectura y se sirve desde memoria hasta que una
+ * escritura la invalida o vence el TTL. Cada carga publica una instantánea inmutable, por lo que
+ * las lecturas no toman bloqueos; solo una carga a la vez consulta la base de datos. Si la tabla
+ * se invalida mientras se carga, la instantánea obtenida no se publica.
+ * <p>
+ * Si la tabla se registra con claves de autocompletado, cada instantánea lleva además su trie; el último trie
+ * publicado se sigue usando aunque la tabla se invalide, así que autocompletar no consulta la base de datos salvo
+ * antes de la primera carga.
+ */
+public final class TablaCatalogo<T> {
+
+    @FunctionalInterface
+    public interface Cargador<T> {
+        List<T> cargar() throws SQLException;
+    }
+
+    public record Estadisticas(long aciertos, long fallos, long cargas, long invalidaciones, int filas) {
+    }
+
+    private record Contenido<T>(List<T> filas, Map<Long, T> porId, Map<String, T> porCodigo,
+                                Autocompletado<T> autocompletado, long expira) {
+    }
+
+    private final Cargador<T> cargador;
+    private final Function<T, Long> id;
+    private final Function<T, String> codigo;
+    private final Function<T, List<String>> claves;
+    private final long ttlNanos;
+    private final ReentrantLock carga = new ReentrantLock();
+    // Compartido con VersionesTablas: es la versión con la que se arma el ETag de la tabla
+    private final AtomicLong version;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+    private volatile Contenido<T> contenido;
+    private volatile Autocompletado<T> autocompletado;
+
+    /**
+     * @param codigo función que extrae el código único de la fila, o null si la tabla no tiene código
+     * @param claves textos de autocompletado de la fila, o null si la tabla no se autocompleta
+     */
+    TablaCatalogo(Cargador<T> cargador, Function<T, Long> id, Function<T, String> codigo,
+                  Function<T, List<String>> claves, AtomicLong version, long ttlNanos) {
+        this.cargador = cargador;
+        this.id = id;
+        this.codigo = codigo;
+        this.claves = claves;
+        this.version = version;
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * Todas las filas en el orden en que las devolvió la base de datos. La lista no es modificable.
+     */
+    public List<T> listar() throws SQLException {
+        return contenido().filas();
+    }
+
+    public T porId(Long clave) throws SQLException {
+        return clave == null ? null : contenido().porId().get(clave);
+    }
+
+    public T porCodigo(String clave) throws SQLException {
+        return clave == null ? null : contenido().porCodigo().get(clave);
+    }
+
+    public T primero(Predicate<? super T> condicion) throws SQLException {
+        for (T fila : contenido().filas()) {
+            if (condicion.test(fila)) {
+                return fila;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Filas con un código o nombre que empieza con el prefijo, desde el último trie publicado.
+     */
+    public List<T> autocompletar(String prefijo, int limite) throws SQLException {
+        if (claves == null) {
+            throw new IllegalStateException("La tabla no se registró con claves de autocompletado");
+        }
+        Autocompletado<T> actual = autocompletado;
+        if (actual == null) {
+            actual = contenido().autocompletado();
+        }
+        return actual.buscar(prefijo, limite);
+    }
+
+    /**
+     * Invalida y vuelve a cargar de inmediato, para que el trie de autocompletado refleje la escritura.
+     */
+    public void recargar() throws SQLException {
+        invalidar();
+        contenido();
+    }
+
+    /**
+     * Descarta la instantánea; la siguiente lectura recarga la tabla.
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        contenido = null;
+        invalidaciones.increment();
+    }
+
+    /**
+     * Quita una fila eliminada sin recargar el resto de la tabla.
+     */
+    public void quitar(Long clave) {
+        carga.lock();
+        try {
+            version.incrementAndGet();
+            invalidaciones.increment();
+            Contenido<T> actual = contenido;
+            if (actual == null || !actual.porId().containsKey(clave)) {
+                return;
+            }
+            List<T> filas = new ArrayList<>(actual.filas().size());
+            for (T fila : actual.filas()) {
+                if (!clave.equals(id.apply(fila))) {
+                    filas.add(fila);
+                }
+            }
+            publicar(indexar(filas, actual.expira()));
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * Reemplaza una fila modificada sin recargar el resto de la tabla; la fila conserva su posición.
+     *
+     * @param cambio recibe la fila en memoria y devuelve la fila como quedó en la base de datos
+     */
+    public void reemplazar(Long clave, UnaryOperator<T> cambio) {
+        carga.lock();
+        try {
+            version.incrementAndGet();
+            invalidaciones.increment();
+            Contenido<T> actual = contenido;
+            if (actual == null || !actual.porId().containsKey(clave)) {
+                // Sin la fila en memoria no hay qué reemplazar; la siguiente lectura la trae
+                contenido = null;
+                return;
+            }
+            List<T> filas = new ArrayList<>(actual.filas().size());
+            for (T fila : actual.filas()) {
+                filas.add(clave.equals(id.apply(fila)) ? cambio.apply(fila) : fila);
+            }
+            publicar(indexar(filas, actual.expira()));
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * true si hay una instantánea cargada que no ha vencido.
+     */
+    boolean vigente() {
+        return vigente(contenido);
+    }
+
+    public Estadisticas estadisticas() {
+        Contenido<T> actual = contenido;
+        return new Estadisticas(aciertos.sum(), fallos.sum(), cargas.sum(), invalidaciones.sum(),
+                actual == null ? 0 : actual.filas().size());
+    }
+
+    private Contenido<T> contenido() throws SQLException {
+        Contenido<T> actual = contenido;
+        if (vigente(actual)) {
+            aciertos.increment();
+            return actual;
+        }
+        carga.lock();
+        try {
+            actual = contenido;
+            if (vigente(actual)) {
+                aciertos.increment();
+                return actual;
+            }
+            fallos.increment();
+            long versionInicial = version.get();
+            Contenido<T> nuevo = indexar(cargador.cargar(), System.nanoTime() + ttlNanos);
+            cargas.increment();
+            if (version.get() == versionInicial) {
+                publicar(nuevo);
+                // Recarga por TTL: si la tabla cambió fuera de la aplicación, cambia también la versión
+                if (actual != null && !actual.filas().equals(nuevo.filas())) {
+                    version.incrementAndGet();
+                }
+            }
+            return nuevo;
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    private static boolean vigente(Contenido<?> contenido) {
+        return contenido != null && contenido.expira() - System.nanoTime() > 0;
+    }
+
+    private void publicar(Contenido<T> nuevo) {
+        contenido = nuevo;
+        if (nuevo.autocompletado() != null) {
+            autocompletado = nuevo.autocompletado();
+        }
+    }
+
+    private Contenido<T> indexar(List<T> filas, long expira) {
+        Map<Long, T> porId = new HashMap<>(filas.size() * 2);
+        Map<String, T> porCodigo = new HashMap<>(codigo == null ? 0 : filas.size() * 2);
+        for (T fila : filas) {
+            porId.put(id.apply(fila), fila);
+            if (codigo != null && codigo.apply(fila) != null) {
+                porCodigo.putIfAbsent(codigo.apply(fila), fila);
+            }
+        }
+        return new Contenido<>(List.copyOf(filas), Collections.unmodifiableMap(porId),
+                Collections.unmodifiableMap(porCodigo),
+                claves == null ? null : Autocompletado.construir(filas, claves), expira);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.sistemaacademico.database;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Contador de versión por tabla, incrementado por cada escritura del servicio correspondiente.
+ * <p>
+ * Las tablas de catálogo comparten su contador con TablaCatalogo, que lo incrementa al invalidar, al quitar filas
+ * y cuando una recarga por TTL trae filas distintas; las demás tablas lo incrementan desde su servicio. Con la
+ * versión se arma el ETag de los listados: el prefijo de arranque evita que una versión de un proceso anterior
+ * coincida con la del actual después de reiniciar.
+ */
+@Component
+public class VersionesTablas {
+
+    public static final String GRUPOS = "grupos";
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, AtomicLong> contadores = new ConcurrentHashMap<>();
+    private final Map<String, BooleanSupplier> vigencias = new ConcurrentHashMap<>();
+
+    public void incrementar(String tabla) {
+        contador(tabla).incrementAndGet();
+    }
+
+    /**
+     * ETag fuerte de la versión actual de la tabla.
+     */
+    public String etag(String tabla) {
+        return "\"" + tabla + "-" + arranque + "-" + contador(tabla).get() + "\"";
+    }
+
+    /**
+     * false si la copia en memoria de la tabla venció y la próxima lectura la recargará; en ese caso la versión
+     * actual no garantiza que los datos no hayan cambiado fuera de la aplicación.
+     */
+    public boolean vigente(String tabla) {
+        BooleanSupplier vigencia = vigencias.get(tabla);
+        return vigencia == null || vigencia.getAsBoolean();
+    }
+
+    AtomicLong contador(String tabla) {
+        return contadores.computeIfAbsent(tabla, t -> new AtomicLong());
+    }
+
+    void registrarVigencia(String tabla, BooleanSupplier vigencia) {
+        vigencias.put(tabla, vigencia);
+    }
+}
@@ -13,4 +13,5 @@ public class Grupo {
     private Long numeroGrupo;
     private String horario;
     private Long idProfesor;
+    private Long cupo; // null: sin límite
 }
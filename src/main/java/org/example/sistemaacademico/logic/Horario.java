@@ -0,0 +1,158 @@
+package org.example.sistemaacademico.logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Horario semanal de un grupo como franjas de 30 minutos: un long por día, un bit por franja (48 por día).
+ * <p>
+ * Se interpreta el texto libre de Grupo.horario, por ejemplo "Lunes 8:00-10:00", "Lunes y Miércoles 8:00-10:00"
+ * o "Mar 13:00-15:00, Jue 13:00-15:00". Cada rango de horas se aplica a los días nombrados antes de él; las
+ * partes que no se reconocen se ignoran. Dos horarios chocan si alguno de los siete AND por día es distinto de cero.
+ */
+public final class Horario {
+
+    private static final int MINUTOS_POR_FRANJA = 30;
+    private static final int FRANJAS_POR_DIA = 24 * 60 / MINUTOS_POR_FRANJA;
+    private static final String[] DIAS = {"lunes", "martes", "miercoles", "jueves", "viernes", "sabado", "domingo"};
+    private static final Pattern PARTE = Pattern.compile(
+            "(\\p{L}+)|(\\d{1,2})(?:[:.h](\\d{2}))?\\s*(?:-|a)\\s*(\\d{1,2})(?:[:.h](\\d{2}))?");
+
+    public static final List<String> NOMBRES_DIAS = List.of("Lunes", "Martes", "Miércoles", "Jueves", "Viernes",
+            "Sábado", "Domingo");
+    public static final Horario VACIO = new Horario("", new long[DIAS.length]);
+
+    private final String texto;
+    private final long[] franjas;
+
+    private Horario(String texto, long[] franjas) {
+        this.texto = texto;
+        this.franjas = franjas;
+    }
+
+    public static Horario parsear(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return VACIO;
+        }
+        String normalizado = Texto.plegar(texto);
+        long[] franjas = new long[DIAS.length];
+        List<Integer> dias = new ArrayList<>();
+        boolean diasUsados = false;
+        Matcher m = PARTE.matcher(normalizado);
+        while (m.find()) {
+            if (m.group(1) != null) {
+                int dia = dia(m.group(1));
+                if (dia >= 0) {
+                    if (diasUsados) {
+                        dias.clear();
+                        diasUsados = false;
+                    }
+                    dias.add(dia);
+                }
+                continue;
+            }
+            int inicio = minutos(m.group(2), m.group(3));
+            int fin = minutos(m.group(4), m.group(5));
+            if (inicio < 0 || fin < 0 || fin <= inicio) {
+                continue;
+            }
+            long mascara = mascara(inicio, fin);
+            for (int dia : dias) {
+                franjas[dia] |= mascara;
+            }
+            diasUsados = true;
+        }
+        return new Horario(texto, franjas);
+    }
+
+    public boolean chocaCon(Horario otro) {
+        for (int dia = 0; dia < DIAS.length; dia++) {
+            if ((franjas[dia] & otro.franjas[dia]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Franjas ocupadas por cualquiera de los horarios.
+     */
+    public static Horario union(Collection<Horario> horarios) {
+        long[] franjas = new long[DIAS.length];
+        for (Horario horario : horarios) {
+            for (int dia = 0; dia < DIAS.length; dia++) {
+                franjas[dia] |= horario.franjas[dia];
+            }
+        }
+        return new Horario("", franjas);
+    }
+
+    /**
+     * Rangos libres del día entre las horas indicadas, como "HH:mm-HH:mm".
+     */
+    public List<String> libres(int dia, int desdeHora, int hastaHora) {
+        List<String> libres = new ArrayList<>();
+        int hasta = Math.min(FRANJAS_POR_DIA, hastaHora * 60 / MINUTOS_POR_FRANJA);
+        int inicio = -1;
+        for (int franja = desdeHora * 60 / MINUTOS_POR_FRANJA; franja <= hasta; franja++) {
+            boolean libre = franja < hasta && (franjas[dia] & (1L << franja)) == 0;
+            if (libre && inicio < 0) {
+                inicio = franja;
+            } else if (!libre && inicio >= 0) {
+                libres.add(hora(inicio) + "-" + hora(franja));
+                inicio = -1;
+            }
+        }
+        return libres;
+    }
+
+    public boolean isVacio() {
+        for (long dia : franjas) {
+            if (dia != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    // "lun", "mie", "miércoles"... ; al menos tres letras para no confundir "a" o "y" con un día
+    private static int dia(String palabra) {
+        if (palabra.length() < 3) {
+            return -1;
+        }
+        for (int i = 0; i < DIAS.length; i++) {
+            if (DIAS[i].startsWith(palabra)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int minutos(String horas, String minutos) {
+        int h = Integer.parseInt(horas);
+        int min = minutos == null ? 0 : Integer.parseInt(minutos);
+        if (h > 24 || min > 59 || h * 60 + min > 24 * 60) {
+            return -1;
+        }
+        return h * 60 + min;
+    }
+
+    private static String hora(int franja) {
+        int minutos = franja * MINUTOS_POR_FRANJA;
+        return String.format("%02d:%02d", minutos / 60, minutos % 60);
+    }
+
+    // Franjas [inicio, fin) redondeadas hacia afuera a múltiplos de 30 minutos
+    private static long mascara(int inicio, int fin) {
+        int desde = inicio / MINUTOS_POR_FRANJA;
+        int hasta = Math.min(FRANJAS_POR_DIA, (fin + MINUTOS_POR_FRANJA - 1) / MINUTOS_POR_FRANJA);
+        return ((1L << (hasta - desde)) - 1) << desde;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.sistemaacademico.logic;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para comparaciones y búsquedas que no distinguen mayúsculas ni tildes.
+ */
+public final class Texto {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private Texto() {
+    }
+
+    /**
+     * Minúsculas, sin tildes ni diéresis y con los espacios repetidos reducidos a uno ("José  Núñez" -> "jose nunez").
+     */
+    public static String plegar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con las franjas libres de un profesor en un ciclo, por día de la semana, dentro de la jornada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadProfesorDto {
+    private String cedula;
+    private Long idCiclo;
+    private List<String> horariosAsignados;
+    private Map<String, List<String>> libres;
+}
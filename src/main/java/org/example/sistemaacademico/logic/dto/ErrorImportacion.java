@@ -0,0 +1,17 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una fila rechazada durante una importación, con su línea en el archivo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacion {
+    private long linea;
+    private Integer codigo;
+    private String mensaje;
+}
@@ -0,0 +1,22 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estadísticas de notas de un grupo. Promedio, varianza y tasa de aprobación consideran solo las
+ * matrículas calificadas; el histograma tiene una clase por cada 10 puntos (la última incluye el 100).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasGrupoDto {
+    private Long idGrupo;
+    private Long inscritos;
+    private Long calificados;
+    private Double promedio;
+    private Double varianza;
+    private Double tasaAprobacion;
+    private long[] histograma;
+}
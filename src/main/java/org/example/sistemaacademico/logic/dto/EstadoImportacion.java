@@ -0,0 +1,25 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el avance de una importación masiva desde CSV.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoImportacion {
+    private String id;
+    private String entidad;
+    private String estado;
+    private long filasLeidas;
+    private long filasInsertadas;
+    private long filasRechazadas;
+    private String mensaje;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+}
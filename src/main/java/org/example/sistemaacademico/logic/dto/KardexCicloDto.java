@@ -0,0 +1,25 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ciclo del kardex con sus cursos y el promedio ponderado por créditos de las notas registradas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KardexCicloDto {
+    private Long idCiclo;
+    private Long anio;
+    private Long numero;
+    private String estado;
+    private LocalDate fechaFin;
+    private List<KardexCursoDto> cursos;
+    private Long creditos;
+    private Double promedio;
+}
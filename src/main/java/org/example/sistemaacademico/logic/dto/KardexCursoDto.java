@@ -0,0 +1,18 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Curso matriculado dentro de un ciclo del kardex; la nota es null mientras no se haya registrado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KardexCursoDto {
+    private String codigoCurso;
+    private String nombreCurso;
+    private Long creditos;
+    private Double nota;
+}
@@ -0,0 +1,20 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Kardex del alumno: ciclos en orden cronológico y promedio general ponderado por créditos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KardexDto {
+    private String cedula;
+    private List<KardexCicloDto> ciclos;
+    private Long creditos;
+    private Double promedio;
+}
@@ -0,0 +1,19 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que representa una página de resultados paginados por llave (keyset).
+ * El campo siguiente es el cursor opaco para pedir la próxima página, o null si no hay más.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Pagina<T> {
+    private List<T> items;
+    private String siguiente;
+}
@@ -0,0 +1,23 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.sistemaacademico.logic.Alumno;
+import org.example.sistemaacademico.logic.Ciclo;
+
+import java.util.List;
+
+/**
+ * Vista de inicio del alumno: sus datos, matrículas, ciclos y la oferta de cursos de su carrera en el ciclo activo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortalAlumnoDto {
+    private Alumno alumno;
+    private Ciclo cicloActivo;
+    private List<MatriculaAlumnoDto> matriculas;
+    private List<Ciclo> ciclos;
+    private List<CursoDto> oferta;
+}
@@ -0,0 +1,28 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa el resultado de una fila dentro de una operación por lotes.
+ * El índice corresponde a la posición de la fila en la solicitud original y el código
+ * al error de Oracle (por ejemplo 20029) cuando la fila fue rechazada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLote {
+    private int indice;
+    private boolean exito;
+    private Integer codigo;
+    private String mensaje;
+
+    public static ResultadoLote ok(int indice) {
+        return new ResultadoLote(indice, true, null, null);
+    }
+
+    public static ResultadoLote error(int indice, Integer codigo, String mensaje) {
+        return new ResultadoLote(indice, false, codigo, mensaje);
+    }
+}
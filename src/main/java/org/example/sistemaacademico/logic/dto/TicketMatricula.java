@@ -0,0 +1,25 @@
+package org.example.sistemaacademico.logic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el estado de una solicitud de matrícula recibida por la cola de matrícula.
+ * El código es el error de Oracle (por ejemplo 20029) cuando la matrícula fue rechazada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketMatricula {
+    private String id;
+    private String estado;
+    private Long pkAlumno;
+    private Long pkGrupo;
+    private Integer codigo;
+    private String mensaje;
+    private LocalDateTime recibido;
+    private LocalDateTime fin;
+}
@@ -28,12 +28,20 @@ BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE eliminarCurso'; EXCEPTION WHEN OTHERS TH
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarCursos'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarCursosPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarCursos'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCursoPorNombre'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCursoPorCodigo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCursosPorCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCursosPorCarreraPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarCursosPorCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCursosPorCiclo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 
@@ -52,6 +60,8 @@ BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE activarCiclo'; EXCEPTION WHEN OTHERS THE
 /
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE buscarCicloPorId'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCicloActivo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 
 -- CARRERA_CURSO
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE insertarCursoACarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
@@ -76,6 +86,10 @@ BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE eliminarProfesorPorCedula'; EXCEPTION WH
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarProfesores'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarProfesoresPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarProfesores'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarProfesorPorCedula'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarProfesorPorNombre'; EXCEPTION WHEN OTHERS THEN NULL; END;
@@ -92,12 +106,20 @@ BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE eliminarAlumnoPorCedula'; EXCEPTION WHEN
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarAlumnos'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarAlumnosPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarAlumnos'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarAlumnoPorCedula'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarAlumnoPorNombre'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarAlumnosPorCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarAlumnosPorCarreraPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarAlumnosPorCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarAlumnosConOfertaEnCiclo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 
@@ -110,6 +132,10 @@ BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE eliminarGrupo'; EXCEPTION WHEN OTHERS TH
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarGrupos'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarGruposPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarGrupos'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarGruposPorCarreraCurso'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarGruposPorCursoCicloCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
@@ -118,10 +144,22 @@ BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarGruposPorProfesorCicloActivo'; EXCE
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarGruposPorProfesor'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarGruposPorProfesorPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarGruposPorProfesor'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarGrupoPorMatricula'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarCursoPorGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION ocupacionGrupos'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION carreraPorGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION agendaProfesores'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION cicloPorCarreraCurso'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 
 -- MATRICULA
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE insertarMatricula'; EXCEPTION WHEN OTHERS THEN NULL; END;
@@ -134,17 +172,69 @@ BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE buscarMatriculaPorId'; EXCEPTION WHEN OT
 /
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE listarMatriculasPorAlumno'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarMatriculasPorAlumnoPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarMatriculasPorAlumno'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE listarMatriculasPorAlumnoYCiclo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION kardexPorAlumno'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE listarMatriculasPorGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarMatriculasPorGrupoPagina'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION contarMatriculasPorGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION notasPorGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION horariosAlumnoEnCicloDeGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE existeMatriculaPorAlumnoYGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE modificarGrupoMatricula'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION exportarMatriculasPorCiclo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION exportarGruposPorCiclo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION exportarAlumnos'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE buscarMatriculaPorGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 
+-- VERIFICACIONES
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeMatriculasPorAlumno'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeUsuarioPorCedula'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeAlumnosPorCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeCursosPorCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeGruposPorCarreraCurso'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarCarrera'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarCurso'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarCiclo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarProfesor'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarProfesorPorCedula'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarAlumno'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarAlumnoPorCedula'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION bloqueoEliminarGrupo'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeMatriculaPorId'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION existeUsuarioPorId'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
+
 -- USUARIO
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE insertarUsuario'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
@@ -156,6 +246,8 @@ BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION listarUsuarios'; EXCEPTION WHEN OTHERS TH
 /
 BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION buscarUsuarioPorCedula'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
+BEGIN EXECUTE IMMEDIATE 'DROP FUNCTION identidadRegistrada'; EXCEPTION WHEN OTHERS THEN NULL; END;
+/
 BEGIN EXECUTE IMMEDIATE 'DROP PROCEDURE loginUsuario'; EXCEPTION WHEN OTHERS THEN NULL; END;
 /
 
@@ -279,6 +371,7 @@ CREATE TABLE Grupo (
                        numero_grupo NUMBER,
                        horario VARCHAR2(100),
                        pk_profesor NUMBER,
+                       cupo NUMBER CHECK (cupo >= 0), -- NULL: sin límite
                        FOREIGN KEY (pk_carrera_curso) REFERENCES Carrera_Curso(id_carrera_curso),
                        FOREIGN KEY (pk_profesor) REFERENCES Profesor(id_profesor)
 );
@@ -298,6 +391,20 @@ CREATE TABLE Usuario (
                          clave VARCHAR2(100),
                          tipo VARCHAR2(20) CHECK (tipo IN ('Administrador', 'Matriculador', 'Profesor', 'Alumno')) NOT NULL
 );
+
+-- Índices para la paginación por llave en los listados filtrados (filtro + id en orden)
+CREATE INDEX idx_alumno_carrera_id ON Alumno (pk_carrera, id_alumno);
+CREATE INDEX idx_carrera_curso_carrera_id ON Carrera_Curso (pk_carrera, id_carrera_curso);
+CREATE INDEX idx_grupo_profesor_id ON Grupo (pk_profesor, id_grupo);
+CREATE INDEX idx_matricula_alumno_id ON Matricula (pk_alumno, id_matricula);
+CREATE INDEX idx_matricula_grupo_id ON Matricula (pk_grupo, id_matricula);
+
+-- Índice para las exportaciones por ciclo
+CREATE INDEX idx_carrera_curso_ciclo ON Carrera_Curso (pk_ciclo);
+
+-- Índices para las verificaciones de existencia antes de eliminar
+CREATE INDEX idx_carrera_curso_curso ON Carrera_Curso (pk_curso);
+CREATE INDEX idx_grupo_carrera_curso ON Grupo (pk_carrera_curso);
 COMMIT;
 
 --------------------------------------------------CURSOR--------------------------------------------------
@@ -524,6 +631,37 @@ BEGIN
 END;
 /
 
+-- Listar Cursos paginado (keyset sobre id_curso)
+CREATE OR REPLACE FUNCTION listarCursosPagina(
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    curso_cursor Types.ref_cursor;
+BEGIN
+    OPEN curso_cursor FOR
+        SELECT id_curso, codigo, nombre, creditos, horas_semanales
+        FROM Curso
+        WHERE id_curso > NVL(p_despues, 0)
+        ORDER BY id_curso
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN curso_cursor;
+END;
+/
+
+-- Contar Cursos
+CREATE OR REPLACE FUNCTION contarCursos
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Curso;
+    RETURN v_total;
+END;
+/
+
 -- Buscar Curso por nombre
 CREATE OR REPLACE FUNCTION buscarCursoPorNombre(nombrebuscar IN Curso.nombre%TYPE)
     RETURN Types.ref_cursor
@@ -576,6 +714,53 @@ BEGIN
 END;
 /
 
+-- Buscar Cursos por carrera paginado (keyset sobre id_carrera_curso)
+CREATE OR REPLACE FUNCTION buscarCursosPorCarreraPagina(
+    p_carrera_id IN Carrera.id_carrera%TYPE,
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    v_cursor Types.ref_cursor;
+BEGIN
+    OPEN v_cursor FOR
+        SELECT
+            c.id_curso,
+            c.codigo,
+            c.nombre,
+            c.creditos,
+            c.horas_semanales,
+            cc.id_carrera_curso,
+            ci.anio,
+            ci.numero,
+            ci.id_ciclo
+        FROM Carrera_Curso cc
+                 JOIN Curso c ON c.id_curso = cc.pk_curso
+                 JOIN Ciclo ci ON cc.pk_ciclo = ci.id_ciclo
+        WHERE cc.pk_carrera = p_carrera_id
+          AND cc.id_carrera_curso > NVL(p_despues, 0)
+        ORDER BY cc.id_carrera_curso
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN v_cursor;
+END;
+/
+
+-- Contar Cursos por carrera
+CREATE OR REPLACE FUNCTION contarCursosPorCarrera(
+    p_carrera_id IN Carrera.id_carrera%TYPE
+)
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Carrera_Curso
+        WHERE pk_carrera = p_carrera_id;
+    RETURN v_total;
+END;
+/
+
 -- Listar Cursos por Ciclo
 CREATE OR REPLACE FUNCTION buscarCursosPorCiclo(
     p_ciclo_id IN Ciclo.id_ciclo%TYPE
@@ -681,12 +866,26 @@ END;
 CREATE OR REPLACE PROCEDURE activarCiclo(id_cicloin IN Ciclo.id_ciclo%TYPE)
 AS
 BEGIN
-    UPDATE Ciclo SET estado = 'Inactivo';
+    UPDATE Ciclo SET estado = 'Inactivo' WHERE estado = 'Activo' AND id_ciclo != id_cicloin;
     UPDATE Ciclo SET estado = 'Activo' WHERE id_ciclo = id_cicloin;
     COMMIT;
 END;
 /
 
+-- Buscar el Ciclo activo (la aplicación lo resuelve una vez y lo reutiliza como parámetro)
+CREATE OR REPLACE FUNCTION buscarCicloActivo
+    RETURN Types.ref_cursor
+AS
+    ciclo_cursor Types.ref_cursor;
+BEGIN
+    OPEN ciclo_cursor FOR
+        SELECT id_ciclo, anio, numero, fecha_inicio, fecha_fin, estado
+        FROM Ciclo
+        WHERE estado = 'Activo';
+    RETURN ciclo_cursor;
+END;
+/
+
 -- Buscar Ciclo por ID
 CREATE OR REPLACE FUNCTION buscarCicloPorId(id_cicloin IN Ciclo.id_ciclo%TYPE)
     RETURN Types.ref_cursor
@@ -768,6 +967,37 @@ BEGIN
 END;
 /
 
+-- Listar Profesores paginado (keyset sobre id_profesor)
+CREATE OR REPLACE FUNCTION listarProfesoresPagina(
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    profesor_cursor Types.ref_cursor;
+BEGIN
+    OPEN profesor_cursor FOR
+        SELECT id_profesor, cedula, nombre, telefono, email
+        FROM Profesor
+        WHERE id_profesor > NVL(p_despues, 0)
+        ORDER BY id_profesor
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN profesor_cursor;
+END;
+/
+
+-- Contar Profesores
+CREATE OR REPLACE FUNCTION contarProfesores
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Profesor;
+    RETURN v_total;
+END;
+/
+
 -- Buscar Profesor por cédula
 CREATE OR REPLACE FUNCTION buscarProfesorPorCedula(cedulabuscar IN Profesor.cedula%TYPE)
     RETURN Types.ref_cursor
@@ -801,11 +1031,13 @@ CREATE OR REPLACE PROCEDURE insertarAlumno(
     telefono IN Alumno.telefono%TYPE,
     email IN Alumno.email%TYPE,
     fecha_nacimiento IN Alumno.fecha_nacimiento%TYPE,
-    pk_carrera IN Alumno.pk_carrera%TYPE)
+    pk_carrera IN Alumno.pk_carrera%TYPE,
+    p_id_alumno OUT Alumno.id_alumno%TYPE)
 AS
 BEGIN
     INSERT INTO Alumno (cedula, nombre, telefono, email, fecha_nacimiento, pk_carrera)
-    VALUES (cedula, nombre, telefono, email, fecha_nacimiento, pk_carrera);
+    VALUES (cedula, nombre, telefono, email, fecha_nacimiento, pk_carrera)
+    RETURNING id_alumno INTO p_id_alumno;
     COMMIT;
 END;
 /
@@ -865,6 +1097,37 @@ BEGIN
 END;
 /
 
+-- Listar Alumnos paginado (keyset sobre id_alumno)
+CREATE OR REPLACE FUNCTION listarAlumnosPagina(
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    alumno_cursor Types.ref_cursor;
+BEGIN
+    OPEN alumno_cursor FOR
+        SELECT id_alumno, cedula, nombre, telefono, email, fecha_nacimiento, pk_carrera
+        FROM Alumno
+        WHERE id_alumno > NVL(p_despues, 0)
+        ORDER BY id_alumno
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN alumno_cursor;
+END;
+/
+
+-- Contar Alumnos
+CREATE OR REPLACE FUNCTION contarAlumnos
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Alumno;
+    RETURN v_total;
+END;
+/
+
 -- Buscar Alumno por cédula
 CREATE OR REPLACE FUNCTION buscarAlumnoPorCedula(cedulabuscar IN Alumno.cedula%TYPE)
     RETURN Types.ref_cursor
@@ -901,6 +1164,42 @@ BEGIN
 END;
 /
 
+-- Buscar Alumnos por carrera paginado
+CREATE OR REPLACE FUNCTION buscarAlumnosPorCarreraPagina(
+    carrerabuscar IN Alumno.pk_carrera%TYPE,
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    alumno_cursor Types.ref_cursor;
+BEGIN
+    OPEN alumno_cursor FOR
+        SELECT id_alumno, cedula, nombre, telefono, email, fecha_nacimiento, pk_carrera
+        FROM Alumno
+        WHERE pk_carrera = carrerabuscar
+          AND id_alumno > NVL(p_despues, 0)
+        ORDER BY id_alumno
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN alumno_cursor;
+END;
+/
+
+-- Contar Alumnos por carrera
+CREATE OR REPLACE FUNCTION contarAlumnosPorCarrera(
+    carrerabuscar IN Alumno.pk_carrera%TYPE
+)
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Alumno
+        WHERE pk_carrera = carrerabuscar;
+    RETURN v_total;
+END;
+/
+
 -- Buscar alumnos con oferta en un ciclo
 CREATE OR REPLACE FUNCTION buscarAlumnosConOfertaEnCiclo(p_ciclo_id IN Ciclo.id_ciclo%TYPE)
     RETURN Types.ref_cursor
@@ -930,11 +1229,14 @@ CREATE OR REPLACE PROCEDURE insertarGrupo(
     pk_carrera_curso IN Grupo.pk_carrera_curso%TYPE,
     numero_grupo IN Grupo.numero_grupo%TYPE,
     horario IN Grupo.horario%TYPE,
-    pk_profesor IN Grupo.pk_profesor%TYPE)
+    pk_profesor IN Grupo.pk_profesor%TYPE,
+    cupo IN Grupo.cupo%TYPE,
+    p_id_grupo OUT Grupo.id_grupo%TYPE)
 AS
 BEGIN
-    INSERT INTO Grupo (pk_carrera_curso, numero_grupo, horario, pk_profesor)
-    VALUES (pk_carrera_curso, numero_grupo, horario, pk_profesor);
+    INSERT INTO Grupo (pk_carrera_curso, numero_grupo, horario, pk_profesor, cupo)
+    VALUES (pk_carrera_curso, numero_grupo, horario, pk_profesor, cupo)
+    RETURNING id_grupo INTO p_id_grupo;
     COMMIT;
 END;
 /
@@ -945,14 +1247,18 @@ CREATE OR REPLACE PROCEDURE modificarGrupo(
     pk_carrera_cursoin IN Grupo.pk_carrera_curso%TYPE,
     numero_grupoin IN Grupo.numero_grupo%TYPE,
     horarioin IN Grupo.horario%TYPE,
-    pk_profesorin IN Grupo.pk_profesor%TYPE)
+    pk_profesorin IN Grupo.pk_profesor%TYPE,
+    cupoin IN Grupo.cupo%TYPE,
+    sin_cupoin IN NUMBER DEFAULT 0)
 AS
 BEGIN
     UPDATE Grupo
     SET pk_carrera_curso = NVL(pk_carrera_cursoin, pk_carrera_curso),
         numero_grupo = NVL(numero_grupoin, numero_grupo),
         horario = NVL(horarioin, horario),
-        pk_profesor = NVL(pk_profesorin, pk_profesor)
+        pk_profesor = NVL(pk_profesorin, pk_profesor),
+        -- Como las demás columnas, NULL conserva el cupo; sin_cupoin = 1 deja el grupo sin límite
+        cupo = CASE WHEN sin_cupoin = 1 THEN NULL ELSE NVL(cupoin, cupo) END
     WHERE id_grupo = id_grupoin;
     COMMIT;
 END;
@@ -974,11 +1280,42 @@ AS
     grupo_cursor Types.ref_cursor;
 BEGIN
     OPEN grupo_cursor FOR
-        SELECT id_grupo, pk_carrera_curso, numero_grupo, horario, pk_profesor FROM Grupo;
+        SELECT id_grupo, pk_carrera_curso, numero_grupo, horario, pk_profesor, cupo FROM Grupo;
+    RETURN grupo_cursor;
+END;
+/
+
+-- Listar Grupos paginado (keyset sobre id_grupo)
+CREATE OR REPLACE FUNCTION listarGruposPagina(
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    grupo_cursor Types.ref_cursor;
+BEGIN
+    OPEN grupo_cursor FOR
+        SELECT id_grupo, pk_carrera_curso, numero_grupo, horario, pk_profesor, cupo
+        FROM Grupo
+        WHERE id_grupo > NVL(p_despues, 0)
+        ORDER BY id_grupo
+        FETCH FIRST p_limite ROWS ONLY;
     RETURN grupo_cursor;
 END;
 /
 
+-- Contar Grupos
+CREATE OR REPLACE FUNCTION contarGrupos
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Grupo;
+    RETURN v_total;
+END;
+/
+
 -- Buscar grupos por curso(carrera_curso)
 CREATE OR REPLACE FUNCTION buscarGruposPorCarreraCurso(
     p_id_carrera IN Carrera.id_carrera%TYPE,
@@ -1032,9 +1369,10 @@ BEGIN
 END;
 /
 
--- Buscar grupos por cédula de profesor en ciclo activo
+-- Buscar grupos por cédula de profesor en ciclo activo (el id del ciclo activo lo resuelve la aplicación)
 CREATE OR REPLACE FUNCTION buscarGruposPorProfesorCicloActivo(
-    p_cedula_profesor IN Profesor.cedula%TYPE
+    p_cedula_profesor IN Profesor.cedula%TYPE,
+    p_id_ciclo IN Ciclo.id_ciclo%TYPE
 ) RETURN Types.ref_cursor AS
     grupos_cursor Types.ref_cursor;
 BEGIN
@@ -1046,17 +1384,14 @@ BEGIN
             cu.codigo AS codigo_curso,
             cu.nombre AS nombre_curso,
             ca.codigo AS codigo_carrera,
-            ca.nombre AS nombre_carrera,
-            ci.anio,
-            ci.numero AS numero_ciclo
+            ca.nombre AS nombre_carrera
         FROM Grupo g
                  JOIN Profesor p ON g.pk_profesor = p.id_profesor
                  JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
                  JOIN Curso cu ON cc.pk_curso = cu.id_curso
                  JOIN Carrera ca ON cc.pk_carrera = ca.id_carrera
-                 JOIN Ciclo ci ON cc.pk_ciclo = ci.id_ciclo
         WHERE p.cedula = p_cedula_profesor
-          AND ci.estado = 'Activo';
+          AND cc.pk_ciclo = p_id_ciclo;
 
     RETURN grupos_cursor;
 END;
@@ -1085,6 +1420,121 @@ BEGIN
 END;
 /
 
+-- Buscar grupos por cédula de profesor paginado
+CREATE OR REPLACE FUNCTION buscarGruposPorProfesorPagina(
+    p_cedula IN Profesor.cedula%TYPE,
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    grupos_cursor Types.ref_cursor;
+BEGIN
+    OPEN grupos_cursor FOR
+        SELECT
+            g.id_grupo,
+            g.pk_carrera_curso,
+            g.numero_grupo,
+            g.horario,
+            p.id_profesor AS pk_profesor,
+            p.nombre AS nombre_profesor
+        FROM Grupo g
+                 JOIN Profesor p ON g.pk_profesor = p.id_profesor
+        WHERE p.cedula = p_cedula
+          AND g.id_grupo > NVL(p_despues, 0)
+        ORDER BY g.id_grupo
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN grupos_cursor;
+END;
+/
+
+-- Contar grupos por cédula de profesor
+CREATE OR REPLACE FUNCTION contarGruposPorProfesor(
+    p_cedula IN Profesor.cedula%TYPE
+)
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Grupo g
+                 JOIN Profesor p ON g.pk_profesor = p.id_profesor
+        WHERE p.cedula = p_cedula;
+    RETURN v_total;
+END;
+/
+
+-- Cupo e inscritos por grupo (todos, o solo p_id_grupo) para conciliar los contadores de cupo en memoria
+CREATE OR REPLACE FUNCTION ocupacionGrupos(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN Types.ref_cursor
+AS
+    ocupacion_cursor Types.ref_cursor;
+BEGIN
+    OPEN ocupacion_cursor FOR
+        SELECT g.id_grupo,
+               g.cupo,
+               (SELECT COUNT(*) FROM Matricula m WHERE m.pk_grupo = g.id_grupo) AS inscritos
+        FROM Grupo g
+        WHERE p_id_grupo IS NULL
+           OR g.id_grupo = p_id_grupo;
+    RETURN ocupacion_cursor;
+END;
+/
+
+-- Carrera a la que pertenece un grupo (NULL si el grupo no existe), para repartir la cola de matrícula
+CREATE OR REPLACE FUNCTION carreraPorGrupo(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN NUMBER
+AS
+    v_id_carrera NUMBER;
+BEGIN
+    SELECT MAX(cc.pk_carrera) INTO v_id_carrera
+        FROM Grupo g
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+        WHERE g.id_grupo = p_id_grupo;
+    RETURN v_id_carrera;
+END;
+/
+
+-- Profesor, ciclo y horario de cada grupo (todos, o solo p_id_grupo) para la agenda de profesores en memoria
+CREATE OR REPLACE FUNCTION agendaProfesores(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN Types.ref_cursor
+AS
+    agenda_cursor Types.ref_cursor;
+BEGIN
+    OPEN agenda_cursor FOR
+        SELECT g.id_grupo,
+               g.pk_profesor,
+               cc.pk_ciclo,
+               g.horario
+        FROM Grupo g
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+        WHERE g.pk_profesor IS NOT NULL
+          AND (p_id_grupo IS NULL OR g.id_grupo = p_id_grupo);
+    RETURN agenda_cursor;
+END;
+/
+
+-- Ciclo de una oferta de curso (NULL si no existe)
+CREATE OR REPLACE FUNCTION cicloPorCarreraCurso(
+    p_id_carrera_curso IN Carrera_Curso.id_carrera_curso%TYPE
+)
+    RETURN NUMBER
+AS
+    v_id_ciclo NUMBER;
+BEGIN
+    SELECT MAX(pk_ciclo) INTO v_id_ciclo
+        FROM Carrera_Curso
+        WHERE id_carrera_curso = p_id_carrera_curso;
+    RETURN v_id_ciclo;
+END;
+/
+
 -- Search grupo by matricula
 CREATE OR REPLACE FUNCTION buscarGrupoPorMatricula(
     p_id_matricula IN Matricula.id_matricula%TYPE
@@ -1136,11 +1586,13 @@ END;
 -- Insertar Matricula
 CREATE OR REPLACE PROCEDURE insertarMatricula(
     pk_alumno IN Matricula.pk_alumno%TYPE,
-    pk_grupo IN Matricula.pk_grupo%TYPE)
+    pk_grupo IN Matricula.pk_grupo%TYPE,
+    p_id_matricula OUT Matricula.id_matricula%TYPE)
 AS
 BEGIN
     INSERT INTO Matricula (pk_alumno, pk_grupo)
-    VALUES (pk_alumno, pk_grupo);
+    VALUES (pk_alumno, pk_grupo)
+    RETURNING id_matricula INTO p_id_matricula;
     COMMIT;
 END;
 /
@@ -1163,10 +1615,13 @@ END;
 /
 
 -- Eliminar Matricula
-CREATE OR REPLACE PROCEDURE eliminarMatricula(id_matriculain IN Matricula.id_matricula%TYPE)
+CREATE OR REPLACE PROCEDURE eliminarMatricula(
+    id_matriculain IN Matricula.id_matricula%TYPE,
+    p_id_grupo OUT Matricula.pk_grupo%TYPE)
 AS
 BEGIN
-    DELETE FROM Matricula WHERE id_matricula = id_matriculain;
+    DELETE FROM Matricula WHERE id_matricula = id_matriculain
+    RETURNING pk_grupo INTO p_id_grupo;
     COMMIT;
 END;
 /
@@ -1218,10 +1673,11 @@ BEGIN
 END;
 /
 
--- Listar Matriculas Por Alumno Y Ciclo
-CREATE OR REPLACE FUNCTION listarMatriculasPorAlumnoYCiclo(
-    p_id_alumno IN Alumno.id_alumno%TYPE,
-    p_id_ciclo IN Ciclo.id_ciclo%TYPE
+-- Listar Matriculas Por Alumno (cedula) paginado (keyset sobre id_matricula)
+CREATE OR REPLACE FUNCTION listarMatriculasPorAlumnoPagina(
+    p_cedula IN Alumno.cedula%TYPE,
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
 )
     RETURN Types.ref_cursor
 AS
@@ -1240,31 +1696,122 @@ BEGIN
             p.nombre AS nombre_profesor,
             p.cedula AS cedula_profesor
         FROM Matricula m
+                 JOIN Alumno a ON m.pk_alumno = a.id_alumno
                  JOIN Grupo g ON m.pk_grupo = g.id_grupo
                  JOIN Profesor p ON g.pk_profesor = p.id_profesor
                  JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
                  JOIN Carrera c ON cc.pk_carrera = c.id_carrera
                  JOIN Curso cu ON cc.pk_curso = cu.id_curso
-                 JOIN Ciclo ci ON cc.pk_ciclo = ci.id_ciclo
-        WHERE m.pk_alumno = p_id_alumno
-          AND ci.id_ciclo = p_id_ciclo;
+        WHERE a.cedula = p_cedula
+          AND m.id_matricula > NVL(p_despues, 0)
+        ORDER BY m.id_matricula
+        FETCH FIRST p_limite ROWS ONLY;
     RETURN matriculas_cursor;
 END;
 /
 
-CREATE OR REPLACE FUNCTION listarMatriculasPorGrupo(
-    p_id_grupo IN Grupo.id_grupo%TYPE
+-- Contar Matriculas Por Alumno (cedula)
+CREATE OR REPLACE FUNCTION contarMatriculasPorAlumno(
+    p_cedula IN Alumno.cedula%TYPE
 )
-    RETURN SYS_REFCURSOR
+    RETURN NUMBER
 AS
-    matriculas_cursor SYS_REFCURSOR;
+    v_total NUMBER;
 BEGIN
-    OPEN matriculas_cursor FOR
-        SELECT
-            m.id_matricula,
-            m.nota,
-            g.numero_grupo,
-            g.horario,
+    SELECT COUNT(*) INTO v_total
+        FROM Matricula m
+                 JOIN Alumno a ON m.pk_alumno = a.id_alumno
+        WHERE a.cedula = p_cedula;
+    RETURN v_total;
+END;
+/
+
+-- Listar Matriculas Por Alumno Y Ciclo
+CREATE OR REPLACE FUNCTION listarMatriculasPorAlumnoYCiclo(
+    p_id_alumno IN Alumno.id_alumno%TYPE,
+    p_id_ciclo IN Ciclo.id_ciclo%TYPE
+)
+    RETURN Types.ref_cursor
+AS
+    matriculas_cursor Types.ref_cursor;
+BEGIN
+    OPEN matriculas_cursor FOR
+        SELECT
+            m.id_matricula,
+            m.nota,
+            g.numero_grupo,
+            g.horario,
+            c.codigo AS codigo_carrera,
+            c.nombre AS nombre_carrera,
+            cu.codigo AS codigo_curso,
+            cu.nombre AS nombre_curso,
+            p.nombre AS nombre_profesor,
+            p.cedula AS cedula_profesor
+        FROM Matricula m
+                 JOIN Grupo g ON m.pk_grupo = g.id_grupo
+                 JOIN Profesor p ON g.pk_profesor = p.id_profesor
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+                 JOIN Carrera c ON cc.pk_carrera = c.id_carrera
+                 JOIN Curso cu ON cc.pk_curso = cu.id_curso
+                 JOIN Ciclo ci ON cc.pk_ciclo = ci.id_ciclo
+        WHERE m.pk_alumno = p_id_alumno
+          AND ci.id_ciclo = p_id_ciclo;
+    RETURN matriculas_cursor;
+END;
+/
+
+-- Kardex del alumno (cedula): una fila por curso matriculado con los créditos y la suma de nota * créditos
+-- de su ciclo; las notas pendientes (NULL) no cuentan. Con p_solo_abiertos = 1 omite los ciclos cerrados
+-- (inactivos y con fecha_fin anterior a hoy), que la aplicación conserva en memoria.
+CREATE OR REPLACE FUNCTION kardexPorAlumno(
+    p_cedula IN Alumno.cedula%TYPE,
+    p_solo_abiertos IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    kardex_cursor Types.ref_cursor;
+BEGIN
+    OPEN kardex_cursor FOR
+        SELECT
+            a.id_alumno,
+            ci.id_ciclo,
+            ci.anio,
+            ci.numero,
+            ci.estado,
+            ci.fecha_fin,
+            cu.codigo AS codigo_curso,
+            cu.nombre AS nombre_curso,
+            cu.creditos,
+            m.nota,
+            SUM(CASE WHEN m.nota IS NOT NULL THEN cu.creditos END) OVER (PARTITION BY ci.id_ciclo) AS creditos_ciclo,
+            SUM(m.nota * cu.creditos) OVER (PARTITION BY ci.id_ciclo) AS puntos_ciclo
+        FROM Alumno a
+                 JOIN Matricula m ON m.pk_alumno = a.id_alumno
+                 JOIN Grupo g ON m.pk_grupo = g.id_grupo
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+                 JOIN Curso cu ON cc.pk_curso = cu.id_curso
+                 JOIN Ciclo ci ON cc.pk_ciclo = ci.id_ciclo
+        WHERE a.cedula = p_cedula
+          -- Abierto: activo, sin fecha de fin o con fecha de fin desde hoy (el mismo criterio que KardexService.cerrado)
+          AND (p_solo_abiertos = 0 OR ci.estado = 'Activo' OR ci.fecha_fin IS NULL OR ci.fecha_fin >= TRUNC(SYSDATE))
+        ORDER BY ci.anio, ci.numero, cu.codigo;
+    RETURN kardex_cursor;
+END;
+/
+
+CREATE OR REPLACE FUNCTION listarMatriculasPorGrupo(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN SYS_REFCURSOR
+AS
+    matriculas_cursor SYS_REFCURSOR;
+BEGIN
+    OPEN matriculas_cursor FOR
+        SELECT
+            m.id_matricula,
+            m.nota,
+            g.numero_grupo,
+            g.horario,
             c.codigo AS codigo_carrera,
             c.nombre AS nombre_carrera,
             cu.codigo AS codigo_curso,
@@ -1284,34 +1831,141 @@ BEGIN
 END;
 /
 
+-- Listar Matriculas Por Grupo paginado (keyset sobre id_matricula)
+CREATE OR REPLACE FUNCTION listarMatriculasPorGrupoPagina(
+    p_id_grupo IN Grupo.id_grupo%TYPE,
+    p_despues IN NUMBER,
+    p_limite IN NUMBER
+)
+    RETURN Types.ref_cursor
+AS
+    matriculas_cursor Types.ref_cursor;
+BEGIN
+    OPEN matriculas_cursor FOR
+        SELECT
+            m.id_matricula,
+            m.nota,
+            g.numero_grupo,
+            g.horario,
+            c.codigo AS codigo_carrera,
+            c.nombre AS nombre_carrera,
+            cu.codigo AS codigo_curso,
+            cu.nombre AS nombre_curso,
+            p.nombre AS nombre_profesor,
+            p.cedula AS cedula_profesor
+        FROM Matricula m
+                 JOIN Grupo g ON m.pk_grupo = g.id_grupo
+                 JOIN Profesor p ON g.pk_profesor = p.id_profesor
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+                 JOIN Carrera c ON cc.pk_carrera = c.id_carrera
+                 JOIN Curso cu ON cc.pk_curso = cu.id_curso
+        WHERE g.id_grupo = p_id_grupo
+          AND m.id_matricula > NVL(p_despues, 0)
+        ORDER BY m.id_matricula
+        FETCH FIRST p_limite ROWS ONLY;
+    RETURN matriculas_cursor;
+END;
+/
+
+-- Contar Matriculas Por Grupo
+CREATE OR REPLACE FUNCTION contarMatriculasPorGrupo(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN NUMBER
+AS
+    v_total NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_total
+        FROM Matricula
+        WHERE pk_grupo = p_id_grupo;
+    RETURN v_total;
+END;
+/
+
+-- Notas de un grupo (solo id y nota) para cargar sus estadísticas en memoria
+CREATE OR REPLACE FUNCTION notasPorGrupo(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN Types.ref_cursor
+AS
+    notas_cursor Types.ref_cursor;
+BEGIN
+    OPEN notas_cursor FOR
+        SELECT id_matricula, nota
+        FROM Matricula
+        WHERE pk_grupo = p_id_grupo;
+    RETURN notas_cursor;
+END;
+/
+
+-- Horario del grupo p_id_grupo (id_matricula NULL) y de los grupos en que el alumno está matriculado en el
+-- mismo ciclo, para detectar choques de horario antes de matricular o cambiar de grupo. Al cambiar de grupo
+-- se pasa la matrícula en lugar del alumno y esa matrícula se excluye; al modificar una matrícula se pasan
+-- ambos. Cada fila trae el ciclo del grupo para comparar entre sí las filas de un lote.
+CREATE OR REPLACE FUNCTION horariosAlumnoEnCicloDeGrupo(
+    p_id_alumno IN Matricula.pk_alumno%TYPE,
+    p_id_grupo IN Grupo.id_grupo%TYPE,
+    p_id_matricula IN Matricula.id_matricula%TYPE
+)
+    RETURN Types.ref_cursor
+AS
+    horarios_cursor Types.ref_cursor;
+BEGIN
+    OPEN horarios_cursor FOR
+        SELECT g.id_grupo, g.horario, NULL AS id_matricula, cc.pk_ciclo
+        FROM Grupo g
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+        WHERE g.id_grupo = p_id_grupo
+        UNION ALL
+        SELECT g.id_grupo, g.horario, m.id_matricula, cc.pk_ciclo
+        FROM Matricula m
+                 JOIN Grupo g ON m.pk_grupo = g.id_grupo
+                 JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+        WHERE m.pk_alumno = NVL(p_id_alumno, (SELECT pk_alumno FROM Matricula WHERE id_matricula = p_id_matricula))
+          AND (p_id_matricula IS NULL OR m.id_matricula <> p_id_matricula)
+          AND cc.pk_ciclo = (SELECT cc2.pk_ciclo
+                             FROM Grupo g2
+                                      JOIN Carrera_Curso cc2 ON g2.pk_carrera_curso = cc2.id_carrera_curso
+                             WHERE g2.id_grupo = p_id_grupo);
+    RETURN horarios_cursor;
+END;
+/
+
 -- Check if matricula exists for alumno and grupo
 CREATE OR REPLACE FUNCTION existeMatriculaPorAlumnoYGrupo(
     p_id_alumno IN Matricula.pk_alumno%TYPE,
     p_id_grupo IN Matricula.pk_grupo%TYPE
 ) RETURN NUMBER
 AS
-    v_count NUMBER;
+    v_existe NUMBER;
 BEGIN
-    SELECT COUNT(*) INTO v_count
-    FROM Matricula
-    WHERE pk_alumno = p_id_alumno AND pk_grupo = p_id_grupo;
-    RETURN CASE WHEN v_count > 0 THEN 1 ELSE 0 END;
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Matricula WHERE pk_alumno = p_id_alumno AND pk_grupo = p_id_grupo);
+    RETURN v_existe;
 END;
 /
 
 -- Update matricula group
 CREATE OR REPLACE PROCEDURE modificarGrupoMatricula(
     p_id_matricula IN Matricula.id_matricula%TYPE,
-    p_id_grupo IN Matricula.pk_grupo%TYPE
+    p_id_grupo IN Matricula.pk_grupo%TYPE,
+    p_id_grupo_anterior OUT Matricula.pk_grupo%TYPE
 )
 AS
 BEGIN
+    BEGIN
+        SELECT pk_grupo INTO p_id_grupo_anterior
+            FROM Matricula
+            WHERE id_matricula = p_id_matricula
+            FOR UPDATE;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            RAISE_APPLICATION_ERROR(-20042, 'No se encontró la matrícula para actualizar.');
+    END;
     UPDATE Matricula
     SET pk_grupo = p_id_grupo
     WHERE id_matricula = p_id_matricula;
-    IF SQL%ROWCOUNT = 0 THEN
-        RAISE_APPLICATION_ERROR(-20042, 'No se encontró la matrícula para actualizar.');
-    END IF;
     COMMIT;
 END;
 /
@@ -1331,6 +1985,356 @@ BEGIN
 END;
 /
 
+------------------------------------------------VERIFICACIONES-------------------------------------------
+
+-- Las funciones existe* retornan 1 o 0 y se detienen en la primera fila encontrada.
+-- Las funciones bloqueoEliminar* retornan 0 si el registro se puede eliminar o el número de la
+-- primera dependencia que lo impide, en el orden en que se evalúan; todo en una sola llamada.
+
+-- Existen matrículas del alumno
+CREATE OR REPLACE FUNCTION existeMatriculasPorAlumno(
+    p_id_alumno IN Alumno.id_alumno%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Matricula WHERE pk_alumno = p_id_alumno);
+    RETURN v_existe;
+END;
+/
+
+-- Existe un usuario con la cédula
+CREATE OR REPLACE FUNCTION existeUsuarioPorCedula(
+    p_cedula IN Usuario.cedula%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Usuario WHERE cedula = p_cedula);
+    RETURN v_existe;
+END;
+/
+
+-- Existen alumnos en la carrera
+CREATE OR REPLACE FUNCTION existeAlumnosPorCarrera(
+    p_id_carrera IN Carrera.id_carrera%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Alumno WHERE pk_carrera = p_id_carrera);
+    RETURN v_existe;
+END;
+/
+
+-- Existen cursos en la carrera
+CREATE OR REPLACE FUNCTION existeCursosPorCarrera(
+    p_id_carrera IN Carrera.id_carrera%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Carrera_Curso WHERE pk_carrera = p_id_carrera);
+    RETURN v_existe;
+END;
+/
+
+-- Existen grupos del curso en la carrera
+CREATE OR REPLACE FUNCTION existeGruposPorCarreraCurso(
+    p_id_carrera IN Carrera.id_carrera%TYPE,
+    p_id_curso IN Curso.id_curso%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Grupo g JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso
+                          WHERE cc.pk_carrera = p_id_carrera AND cc.pk_curso = p_id_curso);
+    RETURN v_existe;
+END;
+/
+
+-- Existe la matrícula
+CREATE OR REPLACE FUNCTION existeMatriculaPorId(
+    p_id_matricula IN Matricula.id_matricula%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Matricula WHERE id_matricula = p_id_matricula);
+    RETURN v_existe;
+END;
+/
+
+-- Existe el usuario
+CREATE OR REPLACE FUNCTION existeUsuarioPorId(
+    p_id_usuario IN Usuario.id_usuario%TYPE
+)
+    RETURN NUMBER
+AS
+    v_existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_existe
+        FROM DUAL
+        WHERE EXISTS (SELECT 1 FROM Usuario WHERE id_usuario = p_id_usuario);
+    RETURN v_existe;
+END;
+/
+
+-- Bloqueo para eliminar Carrera: 1 cursos, 2 alumnos
+CREATE OR REPLACE FUNCTION bloqueoEliminarCarrera(
+    p_id_carrera IN Carrera.id_carrera%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Carrera_Curso WHERE pk_carrera = p_id_carrera) THEN 1
+               WHEN EXISTS (SELECT 1 FROM Alumno WHERE pk_carrera = p_id_carrera) THEN 2
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Curso: 1 asociado a carrera, 2 grupos
+CREATE OR REPLACE FUNCTION bloqueoEliminarCurso(
+    p_id_curso IN Curso.id_curso%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Carrera_Curso WHERE pk_curso = p_id_curso) THEN 1
+               WHEN EXISTS (SELECT 1 FROM Grupo g JOIN Carrera_Curso cc ON g.pk_carrera_curso = cc.id_carrera_curso WHERE cc.pk_curso = p_id_curso) THEN 2
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Ciclo: 1 cursos
+CREATE OR REPLACE FUNCTION bloqueoEliminarCiclo(
+    p_id_ciclo IN Ciclo.id_ciclo%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Carrera_Curso WHERE pk_ciclo = p_id_ciclo) THEN 1
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Profesor: 1 grupos, 2 usuario
+CREATE OR REPLACE FUNCTION bloqueoEliminarProfesor(
+    p_id_profesor IN Profesor.id_profesor%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Grupo WHERE pk_profesor = p_id_profesor) THEN 1
+               WHEN EXISTS (SELECT 1 FROM Profesor p JOIN Usuario u ON u.cedula = p.cedula WHERE p.id_profesor = p_id_profesor AND u.tipo = 'Profesor') THEN 2
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Profesor por cédula: 1 grupos, 2 usuario
+CREATE OR REPLACE FUNCTION bloqueoEliminarProfesorPorCedula(
+    p_cedula IN Profesor.cedula%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Grupo g JOIN Profesor p ON g.pk_profesor = p.id_profesor WHERE p.cedula = p_cedula) THEN 1
+               WHEN EXISTS (SELECT 1 FROM Usuario WHERE cedula = p_cedula AND tipo = 'Profesor') THEN 2
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Alumno: 1 matrículas, 2 usuario
+CREATE OR REPLACE FUNCTION bloqueoEliminarAlumno(
+    p_id_alumno IN Alumno.id_alumno%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Matricula WHERE pk_alumno = p_id_alumno) THEN 1
+               WHEN EXISTS (SELECT 1 FROM Alumno a JOIN Usuario u ON u.cedula = a.cedula WHERE a.id_alumno = p_id_alumno AND u.tipo = 'Alumno') THEN 2
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Alumno por cédula: 1 matrículas, 2 usuario
+CREATE OR REPLACE FUNCTION bloqueoEliminarAlumnoPorCedula(
+    p_cedula IN Alumno.cedula%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Matricula m JOIN Alumno a ON m.pk_alumno = a.id_alumno WHERE a.cedula = p_cedula) THEN 1
+               WHEN EXISTS (SELECT 1 FROM Usuario WHERE cedula = p_cedula AND tipo = 'Alumno') THEN 2
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+-- Bloqueo para eliminar Grupo: 1 matrículas
+CREATE OR REPLACE FUNCTION bloqueoEliminarGrupo(
+    p_id_grupo IN Grupo.id_grupo%TYPE
+)
+    RETURN NUMBER
+AS
+    v_bloqueo NUMBER;
+BEGIN
+    SELECT CASE
+               WHEN EXISTS (SELECT 1 FROM Matricula WHERE pk_grupo = p_id_grupo) THEN 1
+               ELSE 0
+           END INTO v_bloqueo
+        FROM DUAL;
+    RETURN v_bloqueo;
+END;
+/
+
+------------------------------------------------EXPORTACIONES--------------------------------------------
+
+-- Exportar Matriculas Por Ciclo (una sola consulta para todos los grupos del ciclo)
+CREATE OR REPLACE FUNCTION exportarMatriculasPorCiclo(
+    p_id_ciclo IN Ciclo.id_ciclo%TYPE
+)
+    RETURN SYS_REFCURSOR
+AS
+    matriculas_cursor SYS_REFCURSOR;
+BEGIN
+    OPEN matriculas_cursor FOR
+        SELECT
+            m.id_matricula,
+            a.cedula AS cedula_alumno,
+            a.nombre AS nombre_alumno,
+            c.codigo AS codigo_carrera,
+            cu.codigo AS codigo_curso,
+            cu.nombre AS nombre_curso,
+            g.numero_grupo,
+            g.horario,
+            p.cedula AS cedula_profesor,
+            p.nombre AS nombre_profesor,
+            m.nota
+        FROM Carrera_Curso cc
+                 JOIN Grupo g ON g.pk_carrera_curso = cc.id_carrera_curso
+                 JOIN Matricula m ON m.pk_grupo = g.id_grupo
+                 JOIN Alumno a ON m.pk_alumno = a.id_alumno
+                 JOIN Carrera c ON cc.pk_carrera = c.id_carrera
+                 JOIN Curso cu ON cc.pk_curso = cu.id_curso
+                 LEFT JOIN Profesor p ON g.pk_profesor = p.id_profesor
+        WHERE cc.pk_ciclo = p_id_ciclo
+        ORDER BY cu.codigo, g.numero_grupo, a.nombre;
+    RETURN matriculas_cursor;
+END;
+/
+
+-- Exportar Grupos Por Ciclo con la cantidad de matriculados
+CREATE OR REPLACE FUNCTION exportarGruposPorCiclo(
+    p_id_ciclo IN Ciclo.id_ciclo%TYPE
+)
+    RETURN SYS_REFCURSOR
+AS
+    grupos_cursor SYS_REFCURSOR;
+BEGIN
+    OPEN grupos_cursor FOR
+        SELECT
+            g.id_grupo,
+            c.codigo AS codigo_carrera,
+            cu.codigo AS codigo_curso,
+            cu.nombre AS nombre_curso,
+            g.numero_grupo,
+            g.horario,
+            p.cedula AS cedula_profesor,
+            p.nombre AS nombre_profesor,
+            NVL(mt.matriculados, 0) AS matriculados
+        FROM Carrera_Curso cc
+                 JOIN Grupo g ON g.pk_carrera_curso = cc.id_carrera_curso
+                 JOIN Carrera c ON cc.pk_carrera = c.id_carrera
+                 JOIN Curso cu ON cc.pk_curso = cu.id_curso
+                 LEFT JOIN Profesor p ON g.pk_profesor = p.id_profesor
+                 LEFT JOIN (SELECT pk_grupo, COUNT(*) AS matriculados
+                            FROM Matricula
+                            GROUP BY pk_grupo) mt ON mt.pk_grupo = g.id_grupo
+        WHERE cc.pk_ciclo = p_id_ciclo
+        ORDER BY cu.codigo, g.numero_grupo;
+    RETURN grupos_cursor;
+END;
+/
+
+-- Exportar Alumnos (todos, o solo los de una carrera si p_id_carrera no es NULL)
+CREATE OR REPLACE FUNCTION exportarAlumnos(
+    p_id_carrera IN Carrera.id_carrera%TYPE
+)
+    RETURN SYS_REFCURSOR
+AS
+    alumnos_cursor SYS_REFCURSOR;
+BEGIN
+    OPEN alumnos_cursor FOR
+        SELECT
+            a.id_alumno,
+            a.cedula,
+            a.nombre,
+            a.telefono,
+            a.email,
+            a.fecha_nacimiento,
+            c.codigo AS codigo_carrera,
+            c.nombre AS nombre_carrera
+        FROM Alumno a
+                 LEFT JOIN Carrera c ON a.pk_carrera = c.id_carrera
+        WHERE p_id_carrera IS NULL OR a.pk_carrera = p_id_carrera
+        ORDER BY a.id_alumno;
+    RETURN alumnos_cursor;
+END;
+/
+
 ------------------------------------------------USUARIOS--------------------------------------------
 
 -- Insertar Usuario
@@ -1396,6 +2400,31 @@ BEGIN
 END;
 /
 
+-- Cédula y correo de un alumno, profesor o usuario (por id o por cédula) antes de modificarlo o borrarlo, para
+-- quitar del registro de identidades en memoria justo esos valores. Usuario no tiene correo.
+CREATE OR REPLACE FUNCTION identidadRegistrada(
+    p_tabla IN VARCHAR2,
+    p_id IN NUMBER,
+    p_cedula IN VARCHAR2
+)
+    RETURN Types.ref_cursor
+AS
+    identidad_cursor Types.ref_cursor;
+BEGIN
+    IF p_tabla = 'ALUMNO' THEN
+        OPEN identidad_cursor FOR
+            SELECT cedula, email FROM Alumno WHERE id_alumno = p_id OR cedula = p_cedula;
+    ELSIF p_tabla = 'PROFESOR' THEN
+        OPEN identidad_cursor FOR
+            SELECT cedula, email FROM Profesor WHERE id_profesor = p_id OR cedula = p_cedula;
+    ELSE
+        OPEN identidad_cursor FOR
+            SELECT cedula, NULL AS email FROM Usuario WHERE id_usuario = p_id OR cedula = p_cedula;
+    END IF;
+    RETURN identidad_cursor;
+END;
+/
+
 -- Login de un Usuario
 CREATE OR REPLACE PROCEDURE loginUsuario(
     cedulain IN Usuario.cedula%TYPE,
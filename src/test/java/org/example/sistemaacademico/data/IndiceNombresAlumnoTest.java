@@ -0,0 +1,109 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.database.GlobalException;
+import org.example.sistemaacademico.database.Paginacion;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.example.sistemaacademico.logic.Alumno;
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceNombresAlumnoTest {
+
+    private IndiceNombresAlumno indice;
+
+    @BeforeEach
+    void preparar() throws SQLException {
+        List<Alumno> alumnos = List.of(
+                alumno(1L, "101", "José Núñez Rojas"),
+                alumno(2L, "102", "María Fernández"),
+                alumno(3L, "103", "Josefina Mora"),
+                alumno(4L, "104", "Pedro Jiménez"));
+        QueryEngine queryEngine = mock(QueryEngine.class);
+        when(queryEngine.forEach(anyString(), any(), any(), any())).thenAnswer(invocacion -> {
+            Consumer<Alumno> consumidor = invocacion.getArgument(3);
+            alumnos.forEach(consumidor);
+            return (long) alumnos.size();
+        });
+        indice = new IndiceNombresAlumno(queryEngine);
+        indice.inicializar();
+    }
+
+    private static Alumno alumno(Long id, String cedula, String nombre) {
+        Alumno alumno = new Alumno();
+        alumno.setIdAlumno(id);
+        alumno.setCedula(cedula);
+        alumno.setNombre(nombre);
+        return alumno;
+    }
+
+    private List<Long> ids(String texto) {
+        return indice.buscar(texto, null, null).getItems().stream().map(Alumno::getIdAlumno).toList();
+    }
+
+    @Test
+    void losQueContienenElTextoVanPrimero() {
+        // "jose" está en "José Núñez" y en "Josefina"; el más corto es más parecido
+        assertEquals(List.of(1L, 3L), ids("jose"));
+    }
+
+    @Test
+    void ignoraMayusculasYTildes() {
+        assertEquals(List.of(1L), ids("NUNEZ"));
+        assertEquals(List.of(2L), ids("fernández"));
+    }
+
+    @Test
+    void toleraErroresDeEscritura() {
+        assertEquals(List.of(2L), ids("maria fernandes"));
+    }
+
+    @Test
+    void textoSinParecidos() {
+        assertEquals(List.of(), ids("xyz"));
+    }
+
+    @Test
+    void textoVacio() {
+        assertThrows(GlobalException.class, () -> indice.buscar("  ", null, null));
+    }
+
+    @Test
+    void ponerYQuitarMantienenElIndice() {
+        indice.poner(alumno(5L, "105", "José Arias"));
+        assertEquals(List.of(5L, 1L, 3L), ids("jose"));
+
+        // Un cambio de nombre reemplaza los trigramas anteriores
+        indice.poner(alumno(5L, "105", "Luis Arias"));
+        assertEquals(List.of(1L, 3L), ids("jose"));
+
+        indice.quitar(1L);
+        assertEquals(List.of(3L), ids("jose"));
+
+        indice.quitarPorCedula("103");
+        assertEquals(List.of(), ids("jose"));
+    }
+
+    @Test
+    void paginaPorPosicionEnElRanking() {
+        Pagina<Alumno> primera = indice.buscar("jose", null, 1);
+        assertEquals(1L, primera.getItems().get(0).getIdAlumno());
+        assertEquals(1L, Paginacion.decodificar(primera.getSiguiente()));
+
+        Pagina<Alumno> segunda = indice.buscar("jose", primera.getSiguiente(), 1);
+        assertEquals(3L, segunda.getItems().get(0).getIdAlumno());
+        assertNull(segunda.getSiguiente());
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.sistemaacademico.data;
+
+import org.example.sistemaacademico.data.RegistroIdentidades.Identidad;
+import org.example.sistemaacademico.data.RegistroIdentidades.Tabla;
+import org.example.sistemaacademico.database.QueryEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistroIdentidadesTest {
+
+    private final List<String[]> alumnos = new ArrayList<>();
+    private QueryEngine queryEngine;
+    private RegistroIdentidades registro;
+
+    @BeforeEach
+    void preparar() throws SQLException {
+        alumnos.add(new String[]{"101", "jose@correo.com"});
+        alumnos.add(new String[]{"102", "maria@correo.com"});
+        queryEngine = mock(QueryEngine.class);
+        when(queryEngine.forEach(anyString(), any(), any(), any())).thenAnswer(invocacion -> {
+            if (!invocacion.getArgument(0, String.class).contains("listarAlumnos")) {
+                return 0L;
+            }
+            Consumer<String[]> consumidor = invocacion.getArgument(3);
+            alumnos.forEach(consumidor);
+            return (long) alumnos.size();
+        });
+        registro = new RegistroIdentidades(queryEngine, 60_000);
+        registro.inicializar();
+    }
+
+    @Test
+    void conoceLosValoresCargados() {
+        assertTrue(registro.conocida(Tabla.ALUMNO, "101", null));
+        assertTrue(registro.conocida(Tabla.ALUMNO, null, "maria@correo.com"));
+        assertTrue(registro.conocida(Tabla.ALUMNO, "999", "jose@correo.com"));
+        assertFalse(registro.conocida(Tabla.ALUMNO, "999", "otro@correo.com"));
+        // Cada tabla tiene su propio conjunto
+        assertFalse(registro.conocida(Tabla.PROFESOR, "101", null));
+    }
+
+    @Test
+    void registrarAgregaLaInsercion() {
+        registro.registrar(Tabla.ALUMNO, "103", "ana@correo.com");
+
+        assertTrue(registro.conocida(Tabla.ALUMNO, "103", null));
+        assertTrue(registro.conocida(Tabla.ALUMNO, null, "ana@correo.com"));
+    }
+
+    @Test
+    void quitarLiberaSoloLosValoresDeLaFila() throws SQLException {
+        registro.quitar(Tabla.ALUMNO, new Identidad("101", "jose@correo.com"));
+
+        assertFalse(registro.conocida(Tabla.ALUMNO, "101", "jose@correo.com"));
+        assertTrue(registro.conocida(Tabla.ALUMNO, "102", null));
+        // No se recargó el conjunto
+        verify(queryEngine, times(Tabla.values().length)).forEach(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void reemplazarConservaLosValoresQueNoCambian() {
+        // Solo cambia la cédula; el correo null se conserva, igual que en modificarAlumno
+        registro.reemplazar(Tabla.ALUMNO, new Identidad("101", "jose@correo.com"), "111", null);
+
+        assertFalse(registro.conocida(Tabla.ALUMNO, "101", null));
+        assertTrue(registro.conocida(Tabla.ALUMNO, "111", null));
+        assertTrue(registro.conocida(Tabla.ALUMNO, null, "jose@correo.com"));
+    }
+
+    @Test
+    void sinValoresAnterioresSeRecargaDeLaBaseDeDatos() {
+        alumnos.remove(0);
+
+        registro.quitar(Tabla.ALUMNO, null);
+
+        assertFalse(registro.conocida(Tabla.ALUMNO, "101", null));
+        assertTrue(registro.conocida(Tabla.ALUMNO, "102", null));
+    }
+
+    @Test
+    void leerSinConjuntoCargadoNoConsultaLaBaseDeDatos() throws SQLException {
+        RegistroIdentidades sinCargar = new RegistroIdentidades(queryEngine, 60_000);
+
+        assertNull(sinCargar.leer(Tabla.ALUMNO, 1L, null));
+        verify(queryEngine, times(0)).queryForFirst(anyString(), any(), any());
+    }
+
+    @Test
+    void leerDevuelveLaFilaActual() throws SQLException {
+        Identidad identidad = new Identidad("101", "jose@correo.com");
+        when(queryEngine.queryForFirst(anyString(), any(), any())).thenReturn(identidad);
+
+        assertEquals(identidad, registro.leer(Tabla.ALUMNO, 1L, null));
+    }
+
+    @Test
+    void quitarMuchosValoresNoPierdeLosDemas() {
+        // Miles de huellas: obliga a crecer la tabla y a correr rachas largas al quitar
+        int total = 20_000;
+        for (int i = 0; i < total; i++) {
+            registro.registrar(Tabla.USUARIO, "c" + i, null);
+        }
+        for (int i = 0; i < total; i += 2) {
+            registro.quitar(Tabla.USUARIO, new Identidad("c" + i, null));
+        }
+        for (int i = 0; i < total; i++) {
+            assertEquals(i % 2 == 1, registro.conocida(Tabla.USUARIO, "c" + i, null), "c" + i);
+        }
+        for (int i = 0; i < total; i += 2) {
+            registro.registrar(Tabla.USUARIO, "c" + i, null);
+        }
+        for (int i = 0; i < total; i++) {
+            assertTrue(registro.conocida(Tabla.USUARIO, "c" + i, null), "c" + i);
+        }
+    }
+
+    @Test
+    void quitarUnValorAusenteNoCambiaNada() {
+        registro.quitar(Tabla.ALUMNO, new Identidad("999", "nadie@correo.com"));
+
+        assertTrue(registro.conocida(Tabla.ALUMNO, "101", "jose@correo.com"));
+        assertTrue(registro.conocida(Tabla.ALUMNO, "102", "maria@correo.com"));
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.sistemaacademico.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutocompletadoTest {
+
+    private record Curso(String codigo, String nombre) {
+    }
+
+    private static final List<Curso> CURSOS = List.of(
+            new Curso("EIF200", "Fundamentos de Informática"),
+            new Curso("EIF201", "Programación I"),
+            new Curso("EIF204", "Programación II"),
+            new Curso("MAT001", "Introducción a la Programación"),
+            new Curso("MAT002", "Cálculo"));
+
+    private final Autocompletado<Curso> trie = Autocompletado.construir(CURSOS,
+            c -> Autocompletado.codigoYNombre(c.codigo(), c.nombre()));
+
+    @Test
+    void buscaPorPrefijoDelCodigo() {
+        assertEquals(List.of(CURSOS.get(0), CURSOS.get(1), CURSOS.get(2)), trie.buscar("EIF", 10));
+        assertEquals(List.of(CURSOS.get(2)), trie.buscar("eif204", 10));
+    }
+
+    @Test
+    void ignoraMayusculasYTildes() {
+        assertEquals(List.of(CURSOS.get(4)), trie.buscar("CALC", 10));
+        assertEquals(List.of(CURSOS.get(4)), trie.buscar("cálc", 10));
+    }
+
+    @Test
+    void encuentraPorCualquierPalabraDelNombreSinRepetirFilas() {
+        List<Curso> encontrados = trie.buscar("progr", 10);
+
+        // "Introducción a la Programación" coincide por su palabra "Programación"; cada fila sale una vez
+        assertEquals(3, encontrados.size());
+        assertTrue(encontrados.containsAll(List.of(CURSOS.get(1), CURSOS.get(2), CURSOS.get(3))));
+    }
+
+    @Test
+    void ordenAlfabeticoDeLaClaveQueCoincidio() {
+        assertEquals(List.of(CURSOS.get(1), CURSOS.get(2)), trie.buscar("programacion i", 10));
+    }
+
+    @Test
+    void respetaElLimite() {
+        assertEquals(List.of(CURSOS.get(0), CURSOS.get(1)), trie.buscar("eif", 2));
+    }
+
+    @Test
+    void prefijoSinCoincidencias() {
+        assertEquals(List.of(), trie.buscar("fisica", 10));
+        assertEquals(List.of(), trie.buscar("eif3", 10));
+    }
+
+    @Test
+    void prefijoVacioDevuelveLasPrimerasFilas() {
+        assertEquals(3, trie.buscar("", 3).size());
+    }
+
+    @Test
+    void catalogoVacio() {
+        Autocompletado<Curso> vacio = Autocompletado.construir(List.of(),
+                c -> Autocompletado.codigoYNombre(c.codigo(), c.nombre()));
+
+        assertEquals(List.of(), vacio.buscar("a", 10));
+        assertEquals(List.of(), vacio.buscar("", 10));
+    }
+
+    @Test
+    void limite() {
+        assertEquals(Autocompletado.LIMITE_POR_DEFECTO, Autocompletado.limite(null));
+        assertThrows(GlobalException.class, () -> Autocompletado.limite(0));
+        assertThrows(GlobalException.class, () -> Autocompletado.limite(Autocompletado.LIMITE_MAXIMO + 1));
+    }
+}
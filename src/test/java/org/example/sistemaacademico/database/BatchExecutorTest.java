@@ -0,0 +1,172 @@
+package org.example.sistemaacademico.database;
+
+import org.example.sistemaacademico.logic.dto.ResultadoLote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchExecutorTest {
+
+    private static final String SQL = "INSERT INTO Prueba (valor) VALUES (?)";
+    private static final List<String> FILAS = List.of("a", "b", "c");
+
+    private Connection conn;
+    private PreparedStatement ps;
+    private BatchExecutor executor;
+
+    @BeforeEach
+    void preparar() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        conn = mock(Connection.class);
+        ps = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(conn.setSavepoint()).thenReturn(mock(Savepoint.class));
+        // Igual que ojdbc11, que no implementa releaseSavepoint
+        doThrow(new SQLFeatureNotSupportedException()).when(conn).releaseSavepoint(any());
+        executor = new BatchExecutor(dataSource, 500);
+    }
+
+    private List<ResultadoLote> ejecutar() throws SQLException {
+        return executor.ejecutar(SQL, FILAS, null, (p, valor) -> p.setString(1, valor), SQLException::getMessage);
+    }
+
+    private static BatchUpdateException rechazo(int[] conteos) {
+        return new BatchUpdateException("ORA-00001: restricción única violada", "23000", 1, conteos);
+    }
+
+    @Test
+    void loteSinErrores() throws SQLException {
+        when(ps.executeBatch()).thenReturn(new int[]{1, 1, 1});
+
+        List<ResultadoLote> resultados = ejecutar();
+
+        assertEquals(3, resultados.size());
+        resultados.forEach(r -> assertTrue(r.isExito()));
+        verify(conn).commit();
+    }
+
+    @Test
+    void confirmaAunqueElDriverNoLibereSavepoints() throws SQLException {
+        when(ps.executeBatch()).thenReturn(new int[]{1, 1, 1});
+
+        List<ResultadoLote> resultados = ejecutar();
+
+        resultados.forEach(r -> assertTrue(r.isExito()));
+        verify(conn).commit();
+        verify(conn, never()).rollback();
+    }
+
+    @Test
+    void conteosHastaLaFilaFallida() throws SQLException {
+        // El driver informa solo las filas ejecutadas antes del error; el resto se reenvía en otro lote
+        when(ps.executeBatch()).thenThrow(rechazo(new int[]{1})).thenReturn(new int[]{1});
+
+        List<ResultadoLote> resultados = ejecutar();
+
+        assertTrue(resultados.get(0).isExito());
+        assertFalse(resultados.get(1).isExito());
+        assertEquals(1, resultados.get(1).getCodigo());
+        assertEquals(1, resultados.get(1).getIndice());
+        assertTrue(resultados.get(2).isExito());
+        verify(ps, never()).executeUpdate();
+    }
+
+    @Test
+    void conteoMarcadoComoFallido() throws SQLException {
+        when(ps.executeBatch())
+                .thenThrow(rechazo(new int[]{1, Statement.EXECUTE_FAILED, 1}))
+                .thenReturn(new int[]{1});
+
+        List<ResultadoLote> resultados = ejecutar();
+
+        assertTrue(resultados.get(0).isExito());
+        assertFalse(resultados.get(1).isExito());
+        assertTrue(resultados.get(2).isExito());
+    }
+
+    @Test
+    void todasMarcadasComoFallidasSeReintentaFilaPorFila() throws SQLException {
+        when(ps.executeBatch()).thenThrow(rechazo(new int[]{
+                Statement.EXECUTE_FAILED, Statement.EXECUTE_FAILED, Statement.EXECUTE_FAILED}));
+        when(ps.executeUpdate()).thenReturn(1).thenThrow(new SQLException("rechazada", "23000", 20029)).thenReturn(1);
+
+        List<ResultadoLote> resultados = ejecutar();
+
+        assertTrue(resultados.get(0).isExito());
+        assertFalse(resultados.get(1).isExito());
+        assertEquals(20029, resultados.get(1).getCodigo());
+        assertEquals("rechazada", resultados.get(1).getMensaje());
+        assertTrue(resultados.get(2).isExito());
+        verify(conn).rollback(any(Savepoint.class));
+        verify(ps, times(3)).executeUpdate();
+    }
+
+    @Test
+    void sinConteosSeReintentaFilaPorFila() throws SQLException {
+        when(ps.executeBatch()).thenThrow(rechazo(null));
+        when(ps.executeUpdate()).thenThrow(new SQLException("rechazada", "23000", 1)).thenReturn(1);
+
+        List<ResultadoLote> resultados = ejecutar();
+
+        assertFalse(resultados.get(0).isExito());
+        assertTrue(resultados.get(1).isExito());
+        assertTrue(resultados.get(2).isExito());
+    }
+
+    @Test
+    void unaFilaMarcadaComoFallidaEsEsaFila() throws SQLException {
+        List<String> una = List.of("a");
+        when(ps.executeBatch()).thenThrow(rechazo(new int[]{Statement.EXECUTE_FAILED}));
+
+        List<ResultadoLote> resultados = executor.ejecutar(SQL, una, null, (p, valor) -> p.setString(1, valor),
+                SQLException::getMessage);
+
+        assertFalse(resultados.get(0).isExito());
+        verify(ps, never()).executeUpdate();
+    }
+
+    @Test
+    void unaFallaDeConexionDeshaceElBloque() throws SQLException {
+        when(ps.executeBatch()).thenThrow(new SQLException("conexión cerrada"));
+
+        SQLException e = assertThrows(SQLException.class, this::ejecutar);
+
+        assertEquals("conexión cerrada", e.getMessage());
+        verify(conn).rollback();
+        verify(conn, never()).commit();
+    }
+
+    @Test
+    void confirmaPorBloque() throws SQLException {
+        when(ps.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        List<ResultadoLote> resultados = executor.ejecutar(SQL, FILAS, 2, (p, valor) -> p.setString(1, valor),
+                SQLException::getMessage);
+
+        resultados.forEach(r -> assertTrue(r.isExito()));
+        verify(conn, times(2)).commit();
+    }
+}
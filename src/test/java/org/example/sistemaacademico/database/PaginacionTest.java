@@ -0,0 +1,67 @@
+package org.example.sistemaacademico.database;
+
+import org.example.sistemaacademico.logic.dto.Pagina;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaginacionTest {
+
+    @Test
+    void elCursorCodificadoSeDecodificaAlMismoId() {
+        for (long id : new long[]{0, 1, 42, 1_000_000_007L, Long.MAX_VALUE}) {
+            assertEquals(id, Paginacion.decodificar(Paginacion.codificar(id)));
+        }
+    }
+
+    @Test
+    void elCursorEsSeguroParaUrl() {
+        String cursor = Paginacion.codificar(Long.MAX_VALUE);
+
+        assertEquals(cursor, cursor.replaceAll("[^A-Za-z0-9_-]", ""));
+    }
+
+    @Test
+    void sinCursorEsLaPrimeraPagina() {
+        assertNull(Paginacion.decodificar(null));
+        assertNull(Paginacion.decodificar(""));
+        assertNull(Paginacion.decodificar("  "));
+    }
+
+    @Test
+    void cursorInvalido() {
+        // No es Base64
+        assertThrows(GlobalException.class, () -> Paginacion.decodificar("%%%"));
+        // Base64 válido que no contiene un número
+        assertThrows(GlobalException.class, () -> Paginacion.decodificar("YWJj"));
+    }
+
+    @Test
+    void limite() {
+        assertEquals(Paginacion.LIMITE_POR_DEFECTO, Paginacion.limite(null));
+        assertEquals(1, Paginacion.limite(1));
+        assertEquals(Paginacion.LIMITE_MAXIMO, Paginacion.limite(Paginacion.LIMITE_MAXIMO));
+        assertThrows(GlobalException.class, () -> Paginacion.limite(0));
+        assertThrows(GlobalException.class, () -> Paginacion.limite(Paginacion.LIMITE_MAXIMO + 1));
+    }
+
+    @Test
+    void laFilaExtraIndicaQueHayMasPaginas() {
+        Pagina<Long> pagina = Paginacion.armar(List.of(10L, 20L, 30L), 2, Long::longValue);
+
+        assertEquals(List.of(10L, 20L), pagina.getItems());
+        assertEquals(20L, Paginacion.decodificar(pagina.getSiguiente()));
+    }
+
+    @Test
+    void sinFilaExtraEsLaUltimaPagina() {
+        Pagina<Long> pagina = Paginacion.armar(List.of(10L, 20L), 2, Long::longValue);
+
+        assertEquals(List.of(10L, 20L), pagina.getItems());
+        assertNull(pagina.getSiguiente());
+    }
+}
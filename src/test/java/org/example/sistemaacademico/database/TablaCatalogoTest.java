@@ -0,0 +1,59 @@
+package org.example.sistemaacademico.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TablaCatalogoTest {
+
+    private record Fila(Long id, String codigo) {
+    }
+
+    private final List<Fila> base = new ArrayList<>(List.of(new Fila(1L, "A"), new Fila(2L, "B"), new Fila(3L, "C")));
+    private final AtomicInteger cargas = new AtomicInteger();
+    private final TablaCatalogo<Fila> tabla = new TablaCatalogo<>(() -> {
+        cargas.incrementAndGet();
+        return List.copyOf(base);
+    }, Fila::id, Fila::codigo, null, new AtomicLong(), TimeUnit.MINUTES.toNanos(5));
+
+    @Test
+    void reemplazarCambiaSoloLaFilaSinRecargar() throws Exception {
+        tabla.listar();
+
+        tabla.reemplazar(2L, anterior -> new Fila(2L, "B2"));
+
+        assertEquals(List.of(new Fila(1L, "A"), new Fila(2L, "B2"), new Fila(3L, "C")), tabla.listar());
+        assertEquals(new Fila(2L, "B2"), tabla.porCodigo("B2"));
+        assertNull(tabla.porCodigo("B"));
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void reemplazarSinFilaEnMemoriaRecargaEnLaSiguienteLectura() throws Exception {
+        tabla.listar();
+        base.add(new Fila(4L, "D"));
+
+        tabla.reemplazar(4L, anterior -> new Fila(4L, "D2"));
+
+        assertEquals(new Fila(4L, "D"), tabla.porId(4L));
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void quitarNoRecarga() throws Exception {
+        tabla.listar();
+
+        tabla.quitar(1L);
+
+        assertNull(tabla.porId(1L));
+        assertEquals(2, tabla.listar().size());
+        assertEquals(1, cargas.get());
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.sistemaacademico.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HorarioTest {
+
+    private static final int LUNES = 0;
+    private static final int MARTES = 1;
+    private static final int MIERCOLES = 2;
+    private static final int JUEVES = 3;
+
+    @Test
+    void rangoQueCruzaLaMediaHoraOcupaLasFranjasCompletas() {
+        Horario horario = Horario.parsear("Lun 8:15-9:45");
+
+        assertEquals(List.of("07:00-08:00", "10:00-12:00"), horario.libres(LUNES, 7, 12));
+        assertTrue(horario.chocaCon(Horario.parsear("Lun 7:30-8:10")));
+        assertTrue(horario.chocaCon(Horario.parsear("Lun 9:30-10:00")));
+        assertFalse(horario.chocaCon(Horario.parsear("Lun 10:00-11:00")));
+        assertFalse(horario.chocaCon(Horario.parsear("Lun 7:00-8:00")));
+    }
+
+    @Test
+    void rangosContiguosNoChocan() {
+        assertFalse(Horario.parsear("Mar 8:00-10:00").chocaCon(Horario.parsear("Mar 10:00-12:00")));
+        assertTrue(Horario.parsear("Mar 8:00-10:30").chocaCon(Horario.parsear("Mar 10:00-12:00")));
+    }
+
+    @Test
+    void variosDiasAntesDeUnRango() {
+        Horario horario = Horario.parsear("Lunes y Miércoles 8:00-10:00");
+
+        assertEquals(List.of("10:00-12:00"), horario.libres(LUNES, 8, 12));
+        assertEquals(List.of("10:00-12:00"), horario.libres(MIERCOLES, 8, 12));
+        assertEquals(List.of("08:00-12:00"), horario.libres(MARTES, 8, 12));
+        assertTrue(horario.chocaCon(Horario.parsear("Mie 9:00-9:30")));
+        assertFalse(horario.chocaCon(Horario.parsear("Mar 9:00-9:30")));
+    }
+
+    @Test
+    void cadaDiaConSuPropioRango() {
+        Horario horario = Horario.parsear("Mar 13:00-15:00, Jue 16:00-18:00");
+
+        assertEquals(List.of("12:00-13:00", "15:00-19:00"), horario.libres(MARTES, 12, 19));
+        assertEquals(List.of("12:00-16:00", "18:00-19:00"), horario.libres(JUEVES, 12, 19));
+        assertFalse(horario.chocaCon(Horario.parsear("Jue 13:00-15:00")));
+    }
+
+    @Test
+    void variantesDeEscrituraDeLasHoras() {
+        Horario esperado = Horario.parsear("Lunes 8:00-10:00");
+
+        for (String texto : List.of("LUNES 8-10", "lun 8.00-10.00", "Lun 8h00 a 10h00", "Lunes 08:00 - 10:00")) {
+            Horario horario = Horario.parsear(texto);
+            assertEquals(esperado.libres(LUNES, 0, 24), horario.libres(LUNES, 0, 24), texto);
+        }
+    }
+
+    @Test
+    void textosMalFormadosNoOcupanFranjas() {
+        assertTrue(Horario.parsear("abc").isVacio());
+        assertTrue(Horario.parsear("Lun 25:00-26:00").isVacio());
+        assertTrue(Horario.parsear("Lun 8:75-9:00").isVacio());
+        assertTrue(Horario.parsear("Lun 10:00-9:00").isVacio());
+        assertTrue(Horario.parsear("Lun 10:00-10:00").isVacio());
+        // Un rango sin día antes no se aplica a ningún día
+        assertTrue(Horario.parsear("8:00-10:00").isVacio());
+        // "lu" es muy corto para ser un día
+        assertTrue(Horario.parsear("Lu 8:00-10:00").isVacio());
+    }
+
+    @Test
+    void partesNoReconocidasSeIgnoran() {
+        Horario horario = Horario.parsear("Aula 5, Lunes 8:00-10:00 (laboratorio)");
+
+        assertEquals(List.of("10:00-12:00"), horario.libres(LUNES, 8, 12));
+    }
+
+    @Test
+    void textoVacioONulo() {
+        assertSame(Horario.VACIO, Horario.parsear(null));
+        assertSame(Horario.VACIO, Horario.parsear(""));
+        assertSame(Horario.VACIO, Horario.parsear("   "));
+        assertFalse(Horario.VACIO.chocaCon(Horario.parsear("Lun 0:00-24:00")));
+    }
+
+    @Test
+    void rangoHastaMedianoche() {
+        Horario horario = Horario.parsear("Dom 22:00-24:00");
+
+        assertFalse(horario.isVacio());
+        assertEquals(List.of("20:00-22:00"), horario.libres(6, 20, 24));
+    }
+
+    @Test
+    void unionDeHorarios() {
+        Horario union = Horario.union(List.of(Horario.parsear("Lun 8:00-9:00"), Horario.parsear("Lun 10:00-11:00")));
+
+        assertEquals(List.of("09:00-10:00", "11:00-12:00"), union.libres(LUNES, 8, 12));
+    }
+}